@@ -0,0 +1,85 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import com.azure.recipes.core.v2.AddTryCatchToMethodCallRecipe;
+import com.azure.recipes.core.v2.ContextRecipe;
+import com.azure.recipes.core.v2.HttpLogOptionsRecipe;
+import com.azure.recipes.core.v2.MigrationRulesRecipe;
+import com.azure.recipes.core.v2.RemoveFixedDelayRecipe;
+import com.azure.recipes.core.v2.ResponseRecipe;
+import com.azure.recipes.core.v2.RetryOptionsConstructorRecipe;
+import com.azure.recipes.core.v2.TypeReferenceRecipe;
+import org.openrewrite.Recipe;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.YamlResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * BenchmarkRecipes resolves the recipe names used as benchmark parameters to recipe instances.
+ */
+public final class BenchmarkRecipes {
+
+    /**
+     * Name of the declarative composite defined in rewrite.yml
+     */
+    public static final String COMPOSITE = "com.azure.rewrite.java.core.MigrateAzureCoreSamplesToAzureCoreV2";
+
+    private static final String RECIPE_RESOURCE = "/META-INF/rewrite/rewrite.yml";
+
+    private BenchmarkRecipes() {
+    }
+
+    /**
+     * Method to create the recipe for a benchmark parameter
+     * @param name simple class name of a recipe in com.azure.recipes.core.v2, or the name of the composite
+     * @return the recipe, configured the way rewrite.yml configures it
+     */
+    public static Recipe load(String name) {
+        switch (name) {
+            case "TypeReferenceRecipe":
+                return new TypeReferenceRecipe();
+            case "AddTryCatchToMethodCallRecipe":
+                return new AddTryCatchToMethodCallRecipe("com.azure.core.util.BinaryData toObject(..)",
+                        "catch (IOException e) { e.printStackTrace(); }", "java.io.IOException", true);
+            case "RetryOptionsConstructorRecipe":
+                return new RetryOptionsConstructorRecipe();
+            case "ContextRecipe":
+                return new ContextRecipe();
+            case "ResponseRecipe":
+                return new ResponseRecipe();
+            case "HttpLogOptionsRecipe":
+                return new HttpLogOptionsRecipe();
+            case "RemoveFixedDelayRecipe":
+                return new RemoveFixedDelayRecipe();
+            case "MigrationRulesRecipe":
+                return new MigrationRulesRecipe();
+            case "MigrateAzureCoreSamplesToAzureCoreV2":
+            case COMPOSITE:
+                return composite();
+            default:
+                throw new IllegalArgumentException("Unknown recipe: " + name);
+        }
+    }
+
+    /**
+     * Method to load the declarative composite from the rewrite.yml bundled with rewrite-java-core
+     * @return the composite recipe
+     */
+    public static Recipe composite() {
+        try (InputStream yaml = BenchmarkRecipes.class.getResourceAsStream(RECIPE_RESOURCE)) {
+            if (yaml == null) {
+                throw new IllegalStateException(RECIPE_RESOURCE + " is not on the classpath");
+            }
+            return Environment.builder()
+                    .load(new YamlResourceLoader(yaml, URI.create(RECIPE_RESOURCE), new Properties()))
+                    .build()
+                    .activateRecipes(COMPOSITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
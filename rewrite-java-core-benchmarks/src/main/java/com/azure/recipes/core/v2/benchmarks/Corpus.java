@@ -0,0 +1,171 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Corpus generates synthetic source files that use azure-core v1 the same way SDK-consuming
+ * code does, and parses them into type-attributed LSTs for the benchmarks.
+ * Every fourth file does not touch azure-core at all, so that recipes are also measured on
+ * files they have nothing to change in.
+ */
+public final class Corpus {
+
+    /**
+     * Number of sources handed to the parser at once. The parser is reset between batches so
+     * that the compiler state of a 100k file corpus is not retained while the LSTs are built.
+     */
+    private static final int PARSE_BATCH_SIZE = 500;
+
+    private static final String CLIENT_TEMPLATE = "" +
+            "package com.example.gen$P;\n" +
+            "\n" +
+            "import com.azure.core.http.rest.RequestOptions;\n" +
+            "import com.azure.core.http.rest.Response;\n" +
+            "import com.azure.core.util.BinaryData;\n" +
+            "import com.azure.core.util.Context;\n" +
+            "import com.azure.core.util.serializer.TypeReference;\n" +
+            "\n" +
+            "import java.util.List;\n" +
+            "import java.util.Map;\n" +
+            "\n" +
+            "public class Sample$N {\n" +
+            "    public RequestOptions options() {\n" +
+            "        return new RequestOptions().setContext(Context.NONE);\n" +
+            "    }\n" +
+            "\n" +
+            "    public List<String> read(Response<BinaryData> response) {\n" +
+            "        List<String> result = response.getValue().toObject(new TypeReference<List<String>>() { });\n" +
+            "        return result;\n" +
+            "    }\n" +
+            "\n" +
+            "    public Map<String, Integer> readMap(BinaryData data) {\n" +
+            "        Map<String, Integer> result = data.toObject(new TypeReference<Map<String, Integer>>() { });\n" +
+            "        return result;\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String POLICY_TEMPLATE = "" +
+            "package com.example.gen$P;\n" +
+            "\n" +
+            "import com.azure.core.http.policy.ExponentialDelayOptions;\n" +
+            "import com.azure.core.http.policy.FixedDelayOptions;\n" +
+            "import com.azure.core.http.policy.HttpLogDetailLevel;\n" +
+            "import com.azure.core.http.policy.HttpLogOptions;\n" +
+            "import com.azure.core.http.policy.RetryOptions;\n" +
+            "\n" +
+            "import java.time.Duration;\n" +
+            "\n" +
+            "public class Sample$N {\n" +
+            "    private final FixedDelayOptions fixedDelay = new FixedDelayOptions(3, Duration.ofMillis(50));\n" +
+            "\n" +
+            "    public RetryOptions fixed() {\n" +
+            "        return new RetryOptions(fixedDelay);\n" +
+            "    }\n" +
+            "\n" +
+            "    public RetryOptions exponential() {\n" +
+            "        return new RetryOptions(new ExponentialDelayOptions());\n" +
+            "    }\n" +
+            "\n" +
+            "    public HttpLogOptions logOptions() {\n" +
+            "        return new HttpLogOptions().setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS);\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String UTIL_TEMPLATE = "" +
+            "package com.example.gen$P;\n" +
+            "\n" +
+            "import com.azure.core.credential.KeyCredential;\n" +
+            "import com.azure.core.exception.HttpResponseException;\n" +
+            "import com.azure.core.util.Configuration;\n" +
+            "import com.azure.core.util.CoreUtils;\n" +
+            "import com.azure.core.util.logging.ClientLogger;\n" +
+            "\n" +
+            "public class Sample$N {\n" +
+            "    private static final ClientLogger LOGGER = new ClientLogger(Sample$N.class);\n" +
+            "    private final KeyCredential credential = new KeyCredential(\"<api-key>\");\n" +
+            "\n" +
+            "    public String endpoint(String value) {\n" +
+            "        if (CoreUtils.isNullOrEmpty(value)) {\n" +
+            "            return Configuration.getGlobalConfiguration().get(\"ENDPOINT\");\n" +
+            "        }\n" +
+            "        try {\n" +
+            "            return value.trim();\n" +
+            "        } catch (HttpResponseException e) {\n" +
+            "            throw LOGGER.logExceptionAsError(e);\n" +
+            "        }\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String PLAIN_TEMPLATE = "" +
+            "package com.example.gen$P;\n" +
+            "\n" +
+            "import java.util.ArrayList;\n" +
+            "import java.util.List;\n" +
+            "\n" +
+            "public class Sample$N {\n" +
+            "    private final List<String> values = new ArrayList<>();\n" +
+            "\n" +
+            "    public void add(String value) {\n" +
+            "        values.add(value);\n" +
+            "    }\n" +
+            "\n" +
+            "    public int size() {\n" +
+            "        return values.size();\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String[] TEMPLATES = {CLIENT_TEMPLATE, POLICY_TEMPLATE, UTIL_TEMPLATE, PLAIN_TEMPLATE};
+
+    private Corpus() {
+    }
+
+    /**
+     * Method to generate the source text of a corpus
+     * @param fileCount number of source files to generate
+     * @return the generated sources, spread over packages of 100 classes each
+     */
+    public static List<String> generate(int fileCount) {
+        List<String> sources = new ArrayList<>(fileCount);
+        for (int i = 0; i < fileCount; i++) {
+            sources.add(source(i));
+        }
+        return sources;
+    }
+
+    /**
+     * Method to generate the source text of a single corpus file
+     * @param index position of the file in the corpus; determines its class name, package and shape
+     * @return the source text
+     */
+    public static String source(int index) {
+        return TEMPLATES[index % TEMPLATES.length]
+                .replace("$P", Integer.toString(index / 100))
+                .replace("$N", Integer.toString(index));
+    }
+
+    /**
+     * Method to parse sources with type attribution against the benchmark's runtime classpath,
+     * which contains azure-core v1.
+     * @param sources the source text to parse
+     * @return the parsed LSTs, in the order of the sources
+     */
+    public static List<SourceFile> parse(List<String> sources) {
+        JavaParser parser = JavaParser.fromJavaVersion()
+                .classpath(JavaParser.runtimeClasspath())
+                .build();
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        List<SourceFile> parsed = new ArrayList<>(sources.size());
+        for (int from = 0; from < sources.size(); from += PARSE_BATCH_SIZE) {
+            List<String> batch = sources.subList(from, Math.min(from + PARSE_BATCH_SIZE, sources.size()));
+            parser.parse(ctx, batch.toArray(new String[0])).forEach(parsed::add);
+            parser.reset();
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,114 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import com.azure.recipes.core.v2.FullyQualifiedNameMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares matching every J.FieldAccess of a compilation unit against the names the core v2
+ * recipes look for, by printing "target.name" as the recipes used to, and with
+ * FullyQualifiedNameMatcher.
+ * --------------------------------------------------
+ * Run with:
+ * java -jar target/benchmarks.jar FieldAccessMatchingBenchmark -prof gc
+ * --------------------------------------------------
+ * gc.alloc.rate.norm is the number of bytes allocated per compilation unit.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FieldAccessMatchingBenchmark {
+
+    private static final String[] NAMES = {
+            "com.azure.core.http.rest.RequestOptions",
+            "com.azure.core.util.Context",
+            "Context.NONE",
+            "com.azure.core.http.rest.Response",
+            "com.azure.core.http.policy.HttpLogOptions",
+            "com.azure.core.http.policy.HttpLogDetailLevel",
+            "com.azure.core.http.policy.HttpRetryOptions",
+            "com.azure.core.util.BinaryData"
+    };
+
+    private static final FullyQualifiedNameMatcher[] MATCHERS = new FullyQualifiedNameMatcher[NAMES.length];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            MATCHERS[i] = new FullyQualifiedNameMatcher(NAMES[i]);
+        }
+    }
+
+    private List<SourceFile> compilationUnits;
+
+    @Setup
+    public void setup() {
+        // One compilation unit of each shape the corpus generates
+        compilationUnits = Corpus.parse(Corpus.generate(4));
+    }
+
+    @Benchmark
+    public int printedNames() {
+        AtomicInteger matches = new AtomicInteger();
+        JavaIsoVisitor<AtomicInteger> visitor = new JavaIsoVisitor<AtomicInteger>() {
+            @Override
+            public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, AtomicInteger count) {
+                J.FieldAccess fa = super.visitFieldAccess(fieldAccess, count);
+                String fullyQualified = fa.getTarget() + "." + fa.getSimpleName();
+                for (String name : NAMES) {
+                    if (fullyQualified.equals(name)) {
+                        count.incrementAndGet();
+                    }
+                }
+                return fa;
+            }
+        };
+        return visitAll(visitor, matches);
+    }
+
+    @Benchmark
+    public int fullyQualifiedNameMatcher() {
+        AtomicInteger matches = new AtomicInteger();
+        JavaIsoVisitor<AtomicInteger> visitor = new JavaIsoVisitor<AtomicInteger>() {
+            @Override
+            public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, AtomicInteger count) {
+                J.FieldAccess fa = super.visitFieldAccess(fieldAccess, count);
+                for (FullyQualifiedNameMatcher matcher : MATCHERS) {
+                    if (matcher.matches(fa)) {
+                        count.incrementAndGet();
+                    }
+                }
+                return fa;
+            }
+        };
+        return visitAll(visitor, matches);
+    }
+
+    /**
+     * Visits each compilation unit once; results are divided by the number of units so that
+     * both time and allocation are reported per compilation unit
+     */
+    private int visitAll(JavaIsoVisitor<AtomicInteger> visitor, AtomicInteger matches) {
+        for (SourceFile compilationUnit : compilationUnits) {
+            visitor.visit(compilationUnit, matches);
+        }
+        return matches.get() / compilationUnits.size();
+    }
+}
@@ -0,0 +1,89 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures AddTryCatchToMethodCallRecipe on a single method with thousands of statements, the
+ * shape of generated clients such as TextTranslationClientImpl.
+ * The last statement passes a BinaryData.toObject call as an argument, so the recipe has to find
+ * the statement of the block that contains the call before wrapping it in a try-catch block.
+ * --------------------------------------------------
+ * Run with:
+ * java -jar target/benchmarks.jar LargeMethodBenchmark
+ * --------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LargeMethodBenchmark {
+
+    @Param({"500", "5000"})
+    public int statements;
+
+    private Recipe recipe;
+
+    private List<SourceFile> sourceFiles;
+
+    @Setup
+    public void setup() {
+        recipe = BenchmarkRecipes.load("AddTryCatchToMethodCallRecipe");
+        sourceFiles = Corpus.parse(Collections.singletonList(source(statements)));
+    }
+
+    @Benchmark
+    public RecipeRun run() {
+        return recipe.run(new InMemoryLargeSourceSet(sourceFiles),
+                new InMemoryExecutionContext(Throwable::printStackTrace));
+    }
+
+    /**
+     * Method to generate a class with a single method of the given number of statements
+     */
+    private static String source(int statements) {
+        StringBuilder source = new StringBuilder()
+                .append("package com.example.large;\n")
+                .append("\n")
+                .append("import com.azure.core.util.BinaryData;\n")
+                .append("\n")
+                .append("import java.util.ArrayList;\n")
+                .append("import java.util.List;\n")
+                .append("\n")
+                .append("public class LargeMethod {\n")
+                .append("    private final List<String> values = new ArrayList<>();\n")
+                .append("\n")
+                .append("    public void run(BinaryData data) {\n");
+        for (int i = 1; i < statements; i++) {
+            source.append("        values.add(\"value").append(i).append("\");\n");
+        }
+        return source.append("        print(data.toObject(String.class));\n")
+                .append("    }\n")
+                .append("\n")
+                .append("    private void print(Object value) {\n")
+                .append("        System.out.println(value);\n")
+                .append("    }\n")
+                .append("}\n")
+                .toString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import com.azure.recipes.core.v2.runner.MigrationRunner;
+import com.azure.recipes.core.v2.runner.ModuleResult;
+import com.azure.recipes.core.v2.runner.RunnerOptions;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures a dry run of the MigrationRunner, parsing included, over a generated reactor of Maven
+ * modules for an increasing number of worker threads.
+ * The speedup for n threads is the score of parallelism=1 divided by the score of parallelism=n.
+ * --------------------------------------------------
+ * Run with:
+ * java -jar target/benchmarks.jar ParallelRunnerBenchmark -rf json
+ * --------------------------------------------------
+ * Use -p parallelism=1,2,4,8,16,32 to extend the curve on machines with more cores.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+public class ParallelRunnerBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"32"})
+    public int modules;
+
+    @Param({"250"})
+    public int filesPerModule;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("parallel-runner-benchmark");
+        int index = 0;
+        for (int module = 0; module < modules; module++) {
+            Path moduleDirectory = root.resolve("module-" + module);
+            Files.createDirectories(moduleDirectory);
+            Files.write(moduleDirectory.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+            for (int file = 0; file < filesPerModule; file++, index++) {
+                Path source = moduleDirectory.resolve("src/main/java/com/example/gen" + (index / 100))
+                        .resolve("Sample" + index + ".java");
+                Files.createDirectories(source.getParent());
+                Files.write(source, Corpus.source(index).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public List<ModuleResult> dryRun() throws IOException {
+        return new MigrationRunner(RunnerOptions.parse("--parallelism", Integer.toString(parallelism),
+                root.toString())).run();
+    }
+}
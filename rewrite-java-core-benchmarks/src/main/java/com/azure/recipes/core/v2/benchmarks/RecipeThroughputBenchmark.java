@@ -0,0 +1,84 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many source files per second each recipe in com.azure.recipes.core.v2, and the
+ * MigrateAzureCoreSamplesToAzureCoreV2 composite, can process on generated corpora.
+ * Parsing happens once per trial and is not part of the measurement.
+ * --------------------------------------------------
+ * Run with:
+ * java -jar target/benchmarks.jar RecipeThroughputBenchmark -prof gc -rf json
+ * --------------------------------------------------
+ * The "files" secondary result is the throughput in files/sec; -prof gc adds the allocation rate
+ * and bytes allocated per corpus run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx12g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class RecipeThroughputBenchmark {
+
+    @Param({"TypeReferenceRecipe", "AddTryCatchToMethodCallRecipe", "RetryOptionsConstructorRecipe",
+            "ContextRecipe", "ResponseRecipe", "HttpLogOptionsRecipe", "RemoveFixedDelayRecipe", "MigrationRulesRecipe",
+            "MigrateAzureCoreSamplesToAzureCoreV2"})
+    public String recipe;
+
+    @Param({"1000", "10000", "100000"})
+    public int files;
+
+    private Recipe recipeUnderTest;
+
+    private List<SourceFile> sourceFiles;
+
+    /**
+     * Counts processed files so that JMH reports files/sec next to corpus runs/sec
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ProcessedFiles {
+        public long files;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            files = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        recipeUnderTest = BenchmarkRecipes.load(recipe);
+        sourceFiles = Corpus.parse(Corpus.generate(files));
+    }
+
+    @Benchmark
+    public RecipeRun run(ProcessedFiles processed) {
+        // A fresh source set per run, recipe runs record their changes on it
+        RecipeRun run = recipeUnderTest.run(new InMemoryLargeSourceSet(sourceFiles),
+                new InMemoryExecutionContext(Throwable::printStackTrace));
+        processed.files += sourceFiles.size();
+        return run;
+    }
+}
@@ -0,0 +1,114 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the time from launching the runner jar in a new JVM to the patch of a module with a single changed
+ * file, i.e. the time to the first edit of the small CI jobs that run the migration check, JVM startup and class
+ * loading included.
+ * The launch is either the default one or the one of the args file written by the cds profile of the runner,
+ * which maps the class-data-sharing archive of StartupTraining.
+ * --------------------------------------------------
+ * Run from the rewrite-java-core-benchmarks directory, after mvn package -Pcds in rewrite-java-core-runner, with:
+ * java -jar target/benchmarks.jar TimeToFirstEditBenchmark -rf json
+ * --------------------------------------------------
+ * Use -p runnerJar=... -p launchArgs=... to measure a runner built elsewhere.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 10)
+public class TimeToFirstEditBenchmark {
+
+    @Param({"default", "cds"})
+    public String launch;
+
+    @Param({"../rewrite-java-core-runner/target/migration-runner.jar"})
+    public String runnerJar;
+
+    @Param({"../rewrite-java-core-runner/target/migration-runner.args"})
+    public String launchArgs;
+
+    private Path root;
+
+    private Path patch;
+
+    private Path jar;
+
+    private List<String> command;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("time-to-first-edit-benchmark");
+        Path source = root.resolve("module/src/main/java/com/example/gen0/Sample0.java");
+        Files.createDirectories(source.getParent());
+        Files.write(root.resolve("module/pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(source, Corpus.source(0).getBytes(StandardCharsets.UTF_8));
+        patch = root.resolve("rewrite.patch");
+        jar = Paths.get(runnerJar).toAbsolutePath().normalize();
+        command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (launch.equals("cds")) {
+            Path args = Paths.get(launchArgs).toAbsolutePath();
+            if (!Files.isRegularFile(args)) {
+                throw new IllegalStateException(args + " does not exist, build the runner with mvn package -Pcds");
+            }
+            command.add("@" + args);
+        }
+        command.add("-jar");
+        // The archive path and the jar path it was written for are relative to the directory of the jar
+        command.add(jar.getFileName().toString());
+        command.add("--parallelism");
+        command.add("1");
+        command.add("--patch");
+        command.add(patch.toString());
+        command.add(root.toString());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long firstEdit() throws IOException, InterruptedException {
+        Files.deleteIfExists(patch);
+        Process process = new ProcessBuilder(command)
+                .directory(jar.getParent().toFile())
+                .redirectOutput(new File(root.toFile(), "runner.log"))
+                .redirectErrorStream(true)
+                .start();
+        if (process.waitFor() != 0 || Files.size(patch) == 0) {
+            throw new IllegalStateException("The runner did not migrate the sample, see " + root.resolve("runner.log"));
+        }
+        return Files.size(patch);
+    }
+}
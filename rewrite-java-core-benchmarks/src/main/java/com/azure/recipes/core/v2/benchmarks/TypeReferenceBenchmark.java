@@ -0,0 +1,87 @@
+package com.azure.recipes.core.v2.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures TypeReferenceRecipe on a generated class with thousands of TypeReference instantiations, the
+ * shape of generated clients that deserialize every operation's response with its own TypeReference.
+ * The instantiations cycle through a simple type, a type with two arguments and a type nested three levels
+ * deep, so that the type argument extraction is measured at every depth.
+ * --------------------------------------------------
+ * Run with:
+ * java -jar target/benchmarks.jar TypeReferenceBenchmark -prof gc
+ * --------------------------------------------------
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx8g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TypeReferenceBenchmark {
+
+    private static final String[] TYPE_ARGUMENTS = {
+        "List<String>",
+        "Map<String, Integer>",
+        "Map<String, List<Map<String, Integer>>>"
+    };
+
+    @Param({"1000", "5000"})
+    public int typeReferences;
+
+    private Recipe recipe;
+
+    private List<SourceFile> sourceFiles;
+
+    @Setup
+    public void setup() {
+        recipe = BenchmarkRecipes.load("TypeReferenceRecipe");
+        sourceFiles = Corpus.parse(Collections.singletonList(source(typeReferences)));
+    }
+
+    @Benchmark
+    public RecipeRun run() {
+        return recipe.run(new InMemoryLargeSourceSet(sourceFiles),
+                new InMemoryExecutionContext(Throwable::printStackTrace));
+    }
+
+    /**
+     * Method to generate a class with the given number of TypeReference constants
+     */
+    private static String source(int typeReferences) {
+        StringBuilder source = new StringBuilder()
+                .append("package com.example.generated;\n")
+                .append("\n")
+                .append("import com.azure.core.util.serializer.TypeReference;\n")
+                .append("\n")
+                .append("import java.util.List;\n")
+                .append("import java.util.Map;\n")
+                .append("\n")
+                .append("public final class GeneratedTypeReferences {\n");
+        for (int i = 0; i < typeReferences; i++) {
+            String typeArgument = TYPE_ARGUMENTS[i % TYPE_ARGUMENTS.length];
+            source.append("    static final TypeReference<").append(typeArgument).append("> TYPE_").append(i)
+                    .append(" = new TypeReference<").append(typeArgument).append(">() { };\n");
+        }
+        return source.append("}\n").toString();
+    }
+}
@@ -0,0 +1,246 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * CheckpointLog records the source files a run has completed, so that a run that died partway through, e.g. from
+ * an OutOfMemoryError or a preempted CI node, can be restarted and resume where it stopped instead of parsing and
+ * visiting every file again.
+ * A source is completed once the batch it was migrated in is written, and the log then holds its key, see
+ * IncrementalCache.fileKey, and its diff if the recipe changed it. A resumed dry run writes the recorded diffs to
+ * its patch instead of migrating the completed sources again. A resumed run with --apply finds the changed sources
+ * already written: their key is that of the migrated content.
+ * --------------------------------------------------
+ * The log is an append-only binary file: a header with the fingerprint of the recipe and of the mode of the run,
+ * then one record per completed source, of its 32 byte key, the length and UTF-8 bytes of its diff, and a CRC32 of
+ * both. The records of a batch are appended and forced to disk together. A record cut short by a crash fails its
+ * length or CRC check and is truncated with everything after it when the log is opened again.
+ * A log written for another recipe, another recipe build or the other mode is discarded.
+ * --------------------------------------------------
+ * Only the keys and the offsets of the diffs are held in memory; a diff is read back from the file when a resumed
+ * run writes it. The log is deleted when a run completes without errors.
+ * --------------------------------------------------
+ */
+final class CheckpointLog implements Closeable {
+
+    private static final int MAGIC = 0x43504b31;
+
+    private static final int KEY_BYTES = 32;
+
+    private final Path file;
+
+    private final FileChannel channel;
+
+    // Offset of the diff of each completed source, or -1 for a source the recipe left unchanged
+    private final Map<String, Long> completed = new ConcurrentHashMap<>();
+
+    // Length of the diff at each offset
+    private final Map<Long, Integer> lengths = new ConcurrentHashMap<>();
+
+    private CheckpointLog(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Method to open the log of a run, reading the sources a previous run of the same recipe completed
+     * @param file the log file, created if it does not exist
+     * @param fingerprint the fingerprint of the recipe and of the mode of the run
+     * @return the log, positioned at the end of its last complete record
+     * @throws IOException if the log cannot be read or created
+     */
+    static CheckpointLog open(Path file, String fingerprint) throws IOException {
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        CheckpointLog log = new CheckpointLog(file, channel);
+        try {
+            byte[] header = header(fingerprint);
+            long end = channel.size() >= header.length && readHeaderMatches(channel, header)
+                    ? log.readRecords(header.length) : 0;
+            if (end == 0) {
+                channel.truncate(0);
+                channel.write(ByteBuffer.wrap(header), 0);
+                channel.force(false);
+                end = header.length;
+            } else {
+                channel.truncate(end);
+            }
+            channel.position(end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return log;
+    }
+
+    /**
+     * Method to check if a previous run completed a source
+     * @param key the key of the source, see IncrementalCache.fileKey
+     * @return true if the source was completed with this content and classpath
+     */
+    boolean isCompleted(String key) {
+        return completed.containsKey(key);
+    }
+
+    /**
+     * Method to read the diff recorded for a completed source
+     * @param key the key of a completed source
+     * @return the diff, or an empty string if the recipe left the source unchanged
+     * @throws IOException if the diff cannot be read
+     */
+    String diff(String key) throws IOException {
+        long offset = completed.get(key);
+        if (offset < 0) {
+            return "";
+        }
+        ByteBuffer diff = ByteBuffer.allocate(lengths.get(offset));
+        while (diff.hasRemaining()) {
+            if (channel.read(diff, offset + diff.position()) < 0) {
+                throw new IOException("Truncated checkpoint " + file);
+            }
+        }
+        return new String(diff.array(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Method to record the sources of a written batch as completed, forcing the records to disk
+     * @param diffs the diff of each source of the batch, empty for a source the recipe left unchanged, by key
+     * @throws IOException if the records cannot be written
+     */
+    void complete(Map<String, String> diffs) throws IOException {
+        if (diffs.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        CRC32 crc = new CRC32();
+        Map<String, Long> written = new LinkedHashMap<>();
+        synchronized (channel) {
+            long position = channel.position();
+            for (Map.Entry<String, String> entry : diffs.entrySet()) {
+                byte[] key = key(entry.getKey());
+                byte[] diff = entry.getValue().getBytes(StandardCharsets.UTF_8);
+                crc.reset();
+                crc.update(key);
+                crc.update(diff);
+                out.write(key);
+                out.writeInt(diff.length);
+                long diffOffset = position + bytes.size();
+                out.write(diff);
+                out.writeInt((int) crc.getValue());
+                if (diff.length > 0) {
+                    lengths.put(diffOffset, diff.length);
+                }
+                written.put(entry.getKey(), diff.length == 0 ? -1L : diffOffset);
+            }
+            out.flush();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        completed.putAll(written);
+    }
+
+    /**
+     * Method to close and delete the log once the run completed
+     * @throws IOException if the log cannot be deleted
+     */
+    void delete() throws IOException {
+        close();
+        Files.deleteIfExists(file);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Method to read the complete records after the header
+     * @return the offset after the last complete record
+     */
+    private long readRecords(long start) throws IOException {
+        long size = channel.size();
+        long position = start;
+        ByteBuffer head = ByteBuffer.allocate(KEY_BYTES + 4);
+        CRC32 crc = new CRC32();
+        while (position + head.capacity() + 4 <= size) {
+            head.clear();
+            readFully(head, position);
+            int length = head.getInt(KEY_BYTES);
+            if (length < 0 || position + head.capacity() + length + 4 > size) {
+                break;
+            }
+            ByteBuffer diff = ByteBuffer.allocate(length + 4);
+            readFully(diff, position + head.capacity());
+            crc.reset();
+            crc.update(head.array(), 0, KEY_BYTES);
+            crc.update(diff.array(), 0, length);
+            if ((int) crc.getValue() != diff.getInt(length)) {
+                break;
+            }
+            long diffOffset = position + head.capacity();
+            completed.put(IncrementalCache.hex(Arrays.copyOf(head.array(), KEY_BYTES)),
+                    length == 0 ? -1L : diffOffset);
+            if (length > 0) {
+                lengths.put(diffOffset, length);
+            }
+            position = diffOffset + length + 4;
+        }
+        return position;
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated checkpoint " + file);
+            }
+        }
+    }
+
+    private static boolean readHeaderMatches(FileChannel channel, byte[] header) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(header.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) < 0) {
+                return false;
+            }
+        }
+        return Arrays.equals(buffer.array(), header);
+    }
+
+    private static byte[] header(String fingerprint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeUTF(fingerprint);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private static byte[] key(String hex) {
+        byte[] key = new byte[KEY_BYTES];
+        for (int i = 0; i < KEY_BYTES; i++) {
+            key[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,76 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * GitChangedFiles lists the Java sources that a git revision range adds or modifies below a directory, so that
+ * the MigrationRunner can migrate only the code of a pull request with --since, e.g. --since origin/main...HEAD.
+ * The range is passed to git diff as is, so any form git diff takes works: A..B compares the two revisions and
+ * A...B compares B with its merge base with A, which is what a pull request changes.
+ * --------------------------------------------------
+ * Deleted files are left out; a renamed file is listed by its new path. Changes that are not committed are not
+ * part of a range and are not listed.
+ * --------------------------------------------------
+ */
+final class GitChangedFiles {
+
+    private GitChangedFiles() {
+    }
+
+    /**
+     * Method to list the Java sources changed by a revision range
+     * @param root the directory to list the changes below, inside a git work tree
+     * @param range the revision range, e.g. origin/main...HEAD
+     * @return the absolute and normalized paths of the added and modified .java files below the directory
+     * @throws IOException if git cannot be run or fails, e.g. for an unknown revision
+     */
+    static Set<Path> collect(Path root, String range) throws IOException {
+        // -z leaves paths unquoted, --relative lists them relative to the root directory and only below it
+        ProcessBuilder builder = new ProcessBuilder(Arrays.asList("git", "diff", "--name-only", "-z", "--relative",
+                "--diff-filter=d", range, "--", "*.java"))
+                .directory(root.toFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT);
+        Process process = builder.start();
+        process.getOutputStream().close();
+        byte[] output;
+        try (InputStream in = process.getInputStream()) {
+            output = readAll(in);
+        }
+        int exitCode;
+        try {
+            exitCode = process.waitFor();
+        } catch (InterruptedException e) {
+            process.destroy();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while listing the changes of " + range, e);
+        }
+        if (exitCode != 0) {
+            // The message of git is on stderr
+            throw new IOException("git diff " + range + " failed with exit code " + exitCode);
+        }
+        Set<Path> files = new LinkedHashSet<>();
+        for (String name : new String(output, StandardCharsets.UTF_8).split("\0")) {
+            if (!name.isEmpty()) {
+                files.add(root.resolve(name.replace('/', File.separatorChar)).normalize());
+            }
+        }
+        return files;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+}
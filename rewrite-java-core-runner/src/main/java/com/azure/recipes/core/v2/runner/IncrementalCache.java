@@ -0,0 +1,185 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.ContextRecipe;
+import org.openrewrite.Recipe;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * IncrementalCache remembers which source files the recipe left unchanged, so that a later run can skip
+ * them without parsing them.
+ * A file is identified by a hash of its path, its content, the classpath it was parsed against and the source set
+ * of its module, see LstCache: the recipe sees the types of the other sources of the module, so a change to any
+ * source of a module invalidates the whole module. Sources are hashed by content only, so that the cache of a
+ * previous build hits in a fresh checkout, whose files all have new modification times.
+ * The cache of a run is stored in a file named after a fingerprint of the recipe: its descriptor, which
+ * includes the options of every step of a declarative recipe, and the jar the recipes were loaded from.
+ * Changing rewrite.yml or upgrading the recipes therefore starts from an empty cache.
+ * --------------------------------------------------
+ * Files that produced changes are never cached, so a run on a migrated tree keeps reporting them until
+ * the changes are applied.
+ * --------------------------------------------------
+ */
+final class IncrementalCache {
+
+    private final Path cacheFile;
+
+    private final Set<String> unchanged;
+
+    private final Set<String> live = ConcurrentHashMap.newKeySet();
+
+    private IncrementalCache(Path cacheFile, Set<String> unchanged) {
+        this.cacheFile = cacheFile;
+        this.unchanged = unchanged;
+    }
+
+    /**
+     * Method to load the cache of a recipe from a cache directory
+     * @param cacheDirectory the directory holding the cache files
+     * @param recipe the recipe of the run
+     * @return the cache, empty if the directory has no cache for this recipe fingerprint
+     * @throws IOException if the cache file exists but cannot be read
+     */
+    static IncrementalCache load(Path cacheDirectory, Recipe recipe) throws IOException {
+        Path cacheFile = cacheDirectory.resolve(fingerprint(recipe) + ".cache");
+        if (!Files.isRegularFile(cacheFile)) {
+            return new IncrementalCache(cacheFile, Collections.emptySet());
+        }
+        return new IncrementalCache(cacheFile, new HashSet<>(Files.readAllLines(cacheFile, StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Method to check if a file was left unchanged by a previous run
+     * A hit is kept for the next run.
+     * @param key the key of the file, see fileKey
+     * @return true if the file can be skipped
+     */
+    boolean isUnchanged(String key) {
+        if (unchanged.contains(key)) {
+            live.add(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Method to record that the recipe left a file unchanged in this run
+     * @param key the key of the file, see fileKey
+     */
+    void markUnchanged(String key) {
+        live.add(key);
+    }
+
+    /**
+     * Method to write the files seen unchanged in this run to the cache file
+     * Keys of files that were deleted, changed or now produce changes are dropped.
+     * @throws IOException if the cache file cannot be written
+     */
+    void save() throws IOException {
+        Files.createDirectories(cacheFile.getParent());
+        Path temporary = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+        try (Writer writer = Files.newBufferedWriter(temporary, StandardCharsets.US_ASCII)) {
+            for (String key : live) {
+                writer.write(key);
+                writer.write('\n');
+            }
+        }
+        Files.move(temporary, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Method to compute the key of a source file
+     * The key of a CheckpointLog leaves out the source set, which a run with --apply changes as it writes the
+     * migrated sources.
+     * @param sourcePath the path of the file relative to the root directory
+     * @param contentHash the content hash of the file, see contentHash
+     * @param classpathHash the hash of the classpath the file is parsed against, see LstCache.classpathHash
+     * @param sourceSetHash the hash of the source set of the module of the file, see LstCache.sourceSetHash,
+     *                      or null for the key of a CheckpointLog
+     * @return a hex encoded SHA-256 hash
+     */
+    static String fileKey(Path sourcePath, String contentHash, String classpathHash, String sourceSetHash) {
+        MessageDigest digest = sha256();
+        digest.update(sourcePath.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(contentHash.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) 0);
+        digest.update(classpathHash.getBytes(StandardCharsets.US_ASCII));
+        if (sourceSetHash != null) {
+            digest.update((byte) 0);
+            digest.update(sourceSetHash.getBytes(StandardCharsets.US_ASCII));
+        }
+        return hex(digest.digest());
+    }
+
+    /**
+     * Method to compute the content hash of a source file
+     * @param content the content of the file
+     * @return a hex encoded SHA-256 hash
+     */
+    static String contentHash(byte[] content) {
+        return hex(sha256().digest(content));
+    }
+
+    /**
+     * Method to compute the fingerprint of a recipe and of the code it runs
+     */
+    static String fingerprint(Recipe recipe) {
+        MessageDigest digest = sha256();
+        digest.update(recipe.getDescriptor().toString().getBytes(StandardCharsets.UTF_8));
+        digest.update(codeVersion(ContextRecipe.class).getBytes(StandardCharsets.UTF_8));
+        return hex(digest.digest());
+    }
+
+    /**
+     * Method to identify the build of a class, e.g. of the recipes, by the size and modification time of its jar
+     */
+    static String codeVersion(Class<?> type) {
+        CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+        if (codeSource == null) {
+            return "";
+        }
+        try {
+            Path location = Paths.get(codeSource.getLocation().toURI());
+            if (!Files.isRegularFile(location)) {
+                return location.toString();
+            }
+            return location + ":" + Files.size(location) + ":" + Files.getLastModifiedTime(location).toMillis();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return codeSource.getLocation().toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    static String hex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
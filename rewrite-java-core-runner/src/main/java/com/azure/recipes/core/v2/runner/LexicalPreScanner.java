@@ -0,0 +1,168 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LexicalPreScanner finds the sources a recipe can change by searching their raw bytes for the names the
+ * recipe looks for, so that the other sources are neither parsed nor visited.
+ * A source is a candidate for a recipe if it contains all of its required tokens and one of its other tokens,
+ * e.g. com.azure and one of TypeReference or BinaryData for TypeReferenceRecipe. The tokens mirror the
+ * preconditions of the recipes: every azure type a recipe looks for is either imported, fully qualified or in
+ * the package of the source, so its package and simple name are in the source.
+ * Sources of 16 KB or more are memory-mapped; smaller ones are read, which costs less than mapping them. Sources
+ * that were already read, e.g. to compute their cache key, are scanned from their bytes.
+ * --------------------------------------------------
+ * The scan is a superset test: tokens in comments or strings make a source a candidate. It misses sources
+ * that only reach an azure type through the inferred type of an expression, e.g. client().translate(text)
+ * with the client returned by a method of another class, which is why the MigrationRunner only uses it
+ * with --prescan.
+ * --------------------------------------------------
+ */
+final class LexicalPreScanner {
+
+    private static final int MAP_THRESHOLD = 16 * 1024;
+
+    // Tokens of the recipes, by recipe name
+    private static final Map<String, Tokens> RECIPES = new LinkedHashMap<>();
+
+    static {
+        // The composite and the rules recipe are gated by UsesAzureSdkRecipe and UsesMethod retryOptions(..)
+        RECIPES.put(RunnerOptions.DEFAULT_RECIPE, new Tokens(new String[0], "com.azure"));
+        RECIPES.put("com.azure.recipes.core.v2.MigrationRulesRecipe", new Tokens(new String[0], "com.azure", "retryOptions"));
+        RECIPES.put("com.azure.recipes.core.v2.RetryOptionsConstructorRecipe", new Tokens(new String[0], "com.azure", "retryOptions"));
+        RECIPES.put("com.azure.recipes.core.v2.UsesAzureSdkRecipe", new Tokens(new String[0], "com.azure"));
+        RECIPES.put("com.azure.recipes.core.v2.ResponseRecipe", new Tokens(azure(), "Response"));
+        RECIPES.put("com.azure.recipes.core.v2.ContextRecipe", new Tokens(azure(), "Context", "RequestOptions"));
+        RECIPES.put("com.azure.recipes.core.v2.TypeReferenceRecipe", new Tokens(azure(), "TypeReference", "BinaryData"));
+        RECIPES.put("com.azure.recipes.core.v2.HttpLogOptionsRecipe", new Tokens(azure(), "HttpLogDetailLevel", "HttpLogOptions"));
+        RECIPES.put("com.azure.recipes.core.v2.RemoveFixedDelayRecipe", new Tokens(azure(), "FixedDelay"));
+    }
+
+    private final String recipe;
+
+    private LexicalPreScanner(String recipe) {
+        this.recipe = recipe;
+    }
+
+    /**
+     * Method to create the scanner of a recipe
+     * @param recipe the name of the recipe of the run
+     * @return the scanner
+     * @throws IllegalArgumentException if the recipe has no tokens, see supports
+     */
+    static LexicalPreScanner forRecipe(String recipe) {
+        if (!supports(recipe)) {
+            throw new IllegalArgumentException("--prescan does not support the recipe " + recipe);
+        }
+        return new LexicalPreScanner(recipe);
+    }
+
+    /**
+     * Method to check if a recipe has tokens to scan for
+     * @param recipe the name of a recipe
+     * @return true for the default composite and the recipes of com.azure.recipes.core.v2 in RECIPES
+     */
+    static boolean supports(String recipe) {
+        return RECIPES.containsKey(recipe);
+    }
+
+    /**
+     * Method to check if the recipe of the scanner can change a source
+     * @param source the path of the source
+     * @return true if the source has the tokens of the recipe
+     * @throws IOException if the source cannot be read
+     */
+    boolean isCandidate(Path source) throws IOException {
+        return RECIPES.get(recipe).matches(content(source));
+    }
+
+    /**
+     * Method to check if the recipe of the scanner can change a source that was already read
+     * @param content the bytes of the source
+     * @return true if the source has the tokens of the recipe
+     */
+    boolean isCandidate(byte[] content) {
+        return RECIPES.get(recipe).matches(ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Method to return the bytes of a source, memory-mapped if it is large enough
+     */
+    private static ByteBuffer content(Path source) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < MAP_THRESHOLD) {
+                return ByteBuffer.wrap(Files.readAllBytes(source));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    private static String[] azure() {
+        return new String[] {"com.azure"};
+    }
+
+    /**
+     * Method to find a token in a buffer, by absolute reads that leave its position unchanged
+     */
+    static boolean contains(ByteBuffer content, byte[] token) {
+        int last = content.limit() - token.length;
+        byte first = token[0];
+        for (int i = 0; i <= last; i++) {
+            if (content.get(i) != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < token.length && content.get(i + j) == token[j]) {
+                j++;
+            }
+            if (j == token.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The tokens of a recipe, as the ASCII bytes they have in UTF-8 and ISO-8859-1 sources
+     */
+    private static final class Tokens {
+        private final byte[][] required;
+        private final byte[][] anyOf;
+
+        private Tokens(String[] required, String... anyOf) {
+            this.required = bytes(required);
+            this.anyOf = bytes(anyOf);
+        }
+
+        private boolean matches(ByteBuffer content) {
+            for (byte[] token : required) {
+                if (!contains(content, token)) {
+                    return false;
+                }
+            }
+            for (byte[] token : anyOf) {
+                if (contains(content, token)) {
+                    return true;
+                }
+            }
+            return anyOf.length == 0;
+        }
+
+        private static byte[][] bytes(String[] tokens) {
+            byte[][] bytes = new byte[tokens.length][];
+            for (int i = 0; i < tokens.length; i++) {
+                bytes[i] = tokens[i].getBytes(StandardCharsets.US_ASCII);
+            }
+            return bytes;
+        }
+    }
+}
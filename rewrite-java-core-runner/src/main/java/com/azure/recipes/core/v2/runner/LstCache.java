@@ -0,0 +1,279 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.cfg.ConstructorDetector;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.openrewrite.SourceFile;
+import org.openrewrite.java.JavaParser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * LstCache persists the parsed and type-attributed LSTs of source files, so that a later run loads them
+ * instead of parsing the sources again.
+ * An LST is stored as a Smile document, the binary form of JSON, in its own file named after a hash of the
+ * source path, the source content, the classpath the source was parsed against and the source set of its module.
+ * Classpath entries are hashed by content, so that a rebuilt dependency with other types invalidates the LSTs
+ * parsed against it, while a fresh checkout or a git stash and pop keeps them. The types of an LST are also attributed from the other sources of its module, or
+ * from their compiled classes, so the contents of the sources and of the output directories of the module are
+ * hashed too, and a change to any source or class of a module invalidates the LSTs of the whole module.
+ * The files of a cache are in a directory named after the build of the parser, so that an upgrade of OpenRewrite
+ * starts from an empty cache.
+ * Cached LSTs are read from a memory-mapped file, which leaves the bytes in the page cache instead of
+ * copying them to the heap before they are decoded.
+ * --------------------------------------------------
+ * The cache only ever adds files; the directory can be deleted at any time to reclaim its space.
+ * A file that cannot be decoded, e.g. one truncated by an interrupted run, is deleted and the source is
+ * parsed again.
+ * --------------------------------------------------
+ */
+final class LstCache {
+
+    // Content hash of each file read by this process, by its path, size and modification time
+    private static final Map<String, String> FILE_HASHES = new ConcurrentHashMap<>();
+
+    private final Path directory;
+
+    private final ObjectMapper mapper;
+
+    private LstCache(Path directory) {
+        this.directory = directory;
+        this.mapper = mapper();
+    }
+
+    /**
+     * Method to open the cache of the current parser build in a cache directory
+     * @param cacheDirectory the directory holding the LSTs of every parser build
+     * @return the cache
+     * @throws IOException if the directory cannot be created
+     */
+    static LstCache open(Path cacheDirectory) throws IOException {
+        Path directory = cacheDirectory.resolve(parserFingerprint());
+        Files.createDirectories(directory);
+        return new LstCache(directory);
+    }
+
+    /**
+     * Method to compute the hash of a classpath, computed once per module
+     * Jars are hashed by content, and directories, e.g. the output directory of another module, by the relative
+     * path and content of their files, so that a checkout or a touched jar keeps the key and a recompiled class
+     * changes it. Entries that do not exist are hashed as such.
+     * @param classpath the classpath the sources are parsed against
+     * @return a hex encoded SHA-256 hash
+     * @throws IOException if a classpath entry cannot be read
+     */
+    static String classpathHash(List<Path> classpath) throws IOException {
+        MessageDigest digest = IncrementalCache.sha256();
+        for (Path entry : classpath) {
+            if (Files.isRegularFile(entry)) {
+                digest.update(fileHash(entry).getBytes(StandardCharsets.US_ASCII));
+            } else if (Files.isDirectory(entry)) {
+                digest.update((byte) 'd');
+                digest.update(directoryHash(entry).getBytes(StandardCharsets.US_ASCII));
+            } else {
+                digest.update((byte) '-');
+            }
+            digest.update((byte) 0);
+        }
+        return IncrementalCache.hex(digest.digest());
+    }
+
+    /**
+     * Method to compute the hash of the source set of a module, computed once per module
+     * Sources are hashed by their path and content, and output directories by the path and content of their files,
+     * so that a fresh checkout or a touched file keeps its key while a recompiled class changes it.
+     * @param sourceHashes the content hash of each Java source of the module, see IncrementalCache.contentHash,
+     *                     by path relative to the root directory, in source order
+     * @param outputDirectories the directories of the compiled classes of the module
+     * @return a hex encoded SHA-256 hash
+     * @throws IOException if a file of an output directory cannot be read
+     */
+    static String sourceSetHash(Map<Path, String> sourceHashes, List<Path> outputDirectories) throws IOException {
+        MessageDigest digest = IncrementalCache.sha256();
+        for (Map.Entry<Path, String> source : sourceHashes.entrySet()) {
+            digest.update(source.getKey().toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(source.getValue().getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+        }
+        for (Path outputDirectory : outputDirectories) {
+            digest.update(directoryHash(outputDirectory).getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+        }
+        return IncrementalCache.hex(digest.digest());
+    }
+
+    /**
+     * Method to compute the hash of the files of a directory, by their paths relative to it and their contents
+     * @param directory the directory, e.g. target/classes
+     * @return a hex encoded SHA-256 hash
+     * @throws IOException if the directory cannot be walked or a file cannot be read
+     */
+    static String directoryHash(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+        MessageDigest digest = IncrementalCache.sha256();
+        for (Path file : files) {
+            digest.update(directory.relativize(file).toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(fileHash(file).getBytes(StandardCharsets.US_ASCII));
+            digest.update((byte) 0);
+        }
+        return IncrementalCache.hex(digest.digest());
+    }
+
+    /**
+     * Method to compute the content hash of a file
+     * The hash is memoized by the path, size and modification time of the file for the life of the process, so
+     * that a file shared by many modules, e.g. a jar of their classpath, is read once. Keys only hold the hash.
+     * @param file the file
+     * @return a hex encoded SHA-256 hash, see IncrementalCache.contentHash
+     * @throws IOException if the file cannot be read
+     */
+    static String fileHash(Path file) throws IOException {
+        String stamp = file.toAbsolutePath() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+        String hash = FILE_HASHES.get(stamp);
+        if (hash == null) {
+            MessageDigest digest = IncrementalCache.sha256();
+            try (InputStream in = Files.newInputStream(file)) {
+                byte[] buffer = new byte[65536];
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    digest.update(buffer, 0, read);
+                }
+            }
+            hash = IncrementalCache.hex(digest.digest());
+            FILE_HASHES.put(stamp, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Method to compute the key of the LST of a source file
+     * @param sourcePath the path of the file relative to the root directory
+     * @param contentHash the content hash of the file, see IncrementalCache.contentHash
+     * @param classpathHash the hash of the classpath the file is parsed against, see classpathHash
+     * @param sourceSetHash the hash of the source set of the module of the file, see sourceSetHash
+     * @return a hex encoded SHA-256 hash
+     */
+    static String fileKey(Path sourcePath, String contentHash, String classpathHash, String sourceSetHash) {
+        MessageDigest digest = IncrementalCache.sha256();
+        digest.update(sourcePath.toString().replace('\\', '/').getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(contentHash.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) 0);
+        digest.update(classpathHash.getBytes(StandardCharsets.US_ASCII));
+        digest.update((byte) 0);
+        digest.update(sourceSetHash.getBytes(StandardCharsets.US_ASCII));
+        return IncrementalCache.hex(digest.digest());
+    }
+
+    /**
+     * Method to load the LST of a source file
+     * @param key the key of the file, see fileKey
+     * @return the LST, or null if it is not cached or cannot be decoded
+     */
+    SourceFile load(String key) {
+        Path file = file(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return mapper.readValue(new ByteBufferBackedInputStream(buffer), SourceFile.class);
+        } catch (IOException | RuntimeException e) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+                // Parsed again and overwritten by this run
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Method to store the LST of a source file
+     * The file is written under a temporary name and moved in place, so that a concurrent or interrupted
+     * run never reads a partial LST.
+     * @param key the key of the file, see fileKey
+     * @param sourceFile the parsed LST
+     * @throws IOException if the file cannot be written
+     */
+    void store(String key, SourceFile sourceFile) throws IOException {
+        Path file = file(key);
+        Files.createDirectories(file.getParent());
+        Path temporary = file.resolveSibling(key + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary)) {
+                mapper.writeValue(out, sourceFile);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key.substring(0, 2)).resolve(key + ".lst");
+    }
+
+    /**
+     * Method to create a mapper for LSTs, configured like the mappers OpenRewrite uses for its trees:
+     * fields are serialized, types are identified by the @c property of Tree and JavaType, and creators
+     * are bound by parameter name
+     */
+    private static ObjectMapper mapper() {
+        SmileFactory factory = SmileFactory.builder()
+                // Type names and the names of LST properties repeat in every node
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+        return SmileMapper.builder(factory)
+                .constructorDetector(ConstructorDetector.USE_PROPERTIES_BASED)
+                .disable(MapperFeature.REQUIRE_TYPE_ID_FOR_SUBTYPES)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .addModule(new ParameterNamesModule())
+                .serializationInclusion(JsonInclude.Include.NON_NULL)
+                .visibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.NONE)
+                .visibility(PropertyAccessor.FIELD, JsonAutoDetect.Visibility.ANY)
+                .build();
+    }
+
+    /**
+     * Method to identify the build of the parser, whose LSTs are only readable by the same build
+     */
+    private static String parserFingerprint() {
+        MessageDigest digest = IncrementalCache.sha256();
+        digest.update(IncrementalCache.codeVersion(JavaParser.class).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(IncrementalCache.codeVersion(SourceFile.class).getBytes(StandardCharsets.UTF_8));
+        return IncrementalCache.hex(digest.digest());
+    }
+}
@@ -0,0 +1,188 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * MavenModule is a directory with a pom.xml and Java sources in src/main/java or src/test/java.
+ * Each module is parsed and migrated as one batch by the MigrationRunner.
+ * --------------------------------------------------
+ * The classpath used to parse a module is read from target/classpath.txt, which can be written with:
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * Without that file the sources are parsed against the classpath of the runner, which contains azure-core v1.
+ * --------------------------------------------------
+ */
+public final class MavenModule {
+
+    private static final String[] SOURCE_DIRECTORIES = {"src/main/java", "src/test/java"};
+
+    private static final String CLASSPATH_FILE = "target/classpath.txt";
+
+    private static final String[] OUTPUT_DIRECTORIES = {"target/classes", "target/test-classes"};
+
+    private final Path directory;
+
+    private final List<Path> sourceDirectories;
+
+    private long sourceBytes = -1;
+
+    MavenModule(Path directory, List<Path> sourceDirectories) {
+        this.directory = directory;
+        this.sourceDirectories = sourceDirectories;
+    }
+
+    /**
+     * Method to find all modules below a root directory
+     * Build output, version control and hidden directories are not searched.
+     * @param root the directory to search
+     * @return the modules with Java sources, sorted by directory
+     * @throws IOException if the directory tree cannot be read
+     */
+    public static List<MavenModule> discover(Path root) throws IOException {
+        List<MavenModule> modules = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                Path name = dir.getFileName();
+                if (!dir.equals(root) && name != null
+                        && (name.toString().startsWith(".") || name.toString().equals("target"))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                if (Files.isRegularFile(dir.resolve("pom.xml"))) {
+                    List<Path> sourceDirectories = sourceDirectories(dir);
+                    if (!sourceDirectories.isEmpty()) {
+                        modules.add(new MavenModule(dir, sourceDirectories));
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        modules.sort((a, b) -> a.directory.compareTo(b.directory));
+        return modules;
+    }
+
+    /**
+     * Method to find the module of a source file, i.e. the closest directory with a pom.xml above it
+     * @param root the root directory, above which no module is searched
+     * @param file the source file, absolute and normalized
+     * @return the module, or null if no directory between the file and the root directory has a pom.xml
+     */
+    static MavenModule containing(Path root, Path file) {
+        for (Path dir = file.getParent(); dir != null && dir.startsWith(root); dir = dir.getParent()) {
+            if (Files.isRegularFile(dir.resolve("pom.xml"))) {
+                return new MavenModule(dir, sourceDirectories(dir));
+            }
+        }
+        return null;
+    }
+
+    private static List<Path> sourceDirectories(Path dir) {
+        List<Path> sourceDirectories = new ArrayList<>();
+        for (String sourceDirectory : SOURCE_DIRECTORIES) {
+            if (Files.isDirectory(dir.resolve(sourceDirectory))) {
+                sourceDirectories.add(dir.resolve(sourceDirectory));
+            }
+        }
+        return sourceDirectories;
+    }
+
+    /**
+     * Method to list the Java sources of the module
+     * @return the paths of the .java files, sorted
+     * @throws IOException if a source directory cannot be read
+     */
+    public List<Path> javaSources() throws IOException {
+        List<Path> sources = new ArrayList<>();
+        for (Path sourceDirectory : sourceDirectories) {
+            try (Stream<Path> files = Files.walk(sourceDirectory)) {
+                files.filter(file -> file.toString().endsWith(".java") && Files.isRegularFile(file))
+                        .forEach(sources::add);
+            }
+        }
+        Collections.sort(sources);
+        return sources;
+    }
+
+    /**
+     * Method to return the total size of the Java sources, used to schedule the largest modules first
+     * @return the size in bytes, or 0 if the sources cannot be read
+     */
+    public long sourceBytes() {
+        if (sourceBytes < 0) {
+            long size = 0;
+            try {
+                for (Path source : javaSources()) {
+                    size += Files.size(source);
+                }
+            } catch (IOException e) {
+                size = 0;
+            }
+            sourceBytes = size;
+        }
+        return sourceBytes;
+    }
+
+    /**
+     * Method to read the classpath of the module from target/classpath.txt
+     * @return the classpath entries, or an empty list if the module has no classpath file
+     * @throws IOException if the classpath file cannot be read
+     */
+    public List<Path> classpath() throws IOException {
+        Path classpathFile = directory.resolve(CLASSPATH_FILE);
+        if (!Files.isRegularFile(classpathFile)) {
+            return Collections.emptyList();
+        }
+        String classpath = new String(Files.readAllBytes(classpathFile), StandardCharsets.UTF_8).trim();
+        if (classpath.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Stream.of(classpath.split(File.pathSeparator))
+                .map(Paths::get)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Method to list the compiled classes of the module, used to resolve sources that are not parsed
+     * @return the existing target/classes and target/test-classes directories
+     */
+    public List<Path> outputDirectories() {
+        List<Path> outputDirectories = new ArrayList<>();
+        for (String outputDirectory : OUTPUT_DIRECTORIES) {
+            if (Files.isDirectory(directory.resolve(outputDirectory))) {
+                outputDirectories.add(directory.resolve(outputDirectory));
+            }
+        }
+        return outputDirectories;
+    }
+
+    /**
+     * @return the directory of the module
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @return the existing source directories of the module
+     */
+    public List<Path> getSourceDirectories() {
+        return sourceDirectories;
+    }
+
+    @Override
+    public String toString() {
+        return directory.toString();
+    }
+}
@@ -0,0 +1,315 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * MigrationDaemon is a long-lived MigrationRunner that migrates the files it is asked for, so that pre-commit hooks
+ * and IDE actions do not pay for starting a JVM, loading the recipe and initializing a parser on every call.
+ * The recipe is loaded and run once on a sample when the daemon starts, and each module keeps its parser, whose
+ * compiler symbols and type cache stay warm between requests; the parser of a module is only created again when
+ * its target/classpath.txt or the content of its classpath changes, e.g. when the module or a module it depends
+ * on is compiled again, see LstCache.classpathHash.
+ * --------------------------------------------------
+ * Usage:
+ * java -jar migration-runner.jar --daemon [--port n] path/to/reactor
+ * --------------------------------------------------
+ * Requests and responses are JSON documents, one per line, read from stdin and written to stdout, or exchanged
+ * over connections to the port on the loopback address with --port:
+ * {"command":"ping"}                              {"status":"ok"}
+ * {"command":"diff","files":["sdk/a/A.java"]}     {"status":"ok","changedFiles":[...],"patch":"...","errors":[],"elapsedMillis":12}
+ * {"command":"apply","files":["sdk/a/A.java"]}    {"status":"ok","changedFiles":[...],"errors":[],"elapsedMillis":12}
+ * {"command":"shutdown"}                          {"status":"ok"}
+ * A request that cannot be served gets {"status":"error","message":"..."}. Files are absolute or relative to the
+ * root directory and must be below it.
+ * --------------------------------------------------
+ * Only the requested files are parsed. They resolve the other sources of their module from target/classes and
+ * target/test-classes; in a module without compiled classes, all of its sources are parsed, see ModuleMigrationTask.
+ * Requests are served one at a time, because the recipe instance and the parsers keep state while they run.
+ * --------------------------------------------------
+ */
+public final class MigrationDaemon {
+
+    private static final String WARM_UP_SOURCE = "package com.example;\n" +
+            "\n" +
+            "import com.azure.core.util.Context;\n" +
+            "\n" +
+            "public class WarmUp {\n" +
+            "    Context context = Context.NONE;\n" +
+            "}\n";
+
+    private final RunnerOptions options;
+
+    private final Recipe recipe;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Warm parser of each module, with the classpath it was created for and the hash of its content
+    private final Map<Path, ModuleParser> parsers = new HashMap<>();
+
+    /**
+     * Creates a daemon, loading its recipe
+     * @param options the options of the daemon, of which the root directory and the recipe are used
+     */
+    public MigrationDaemon(RunnerOptions options) {
+        this.options = options;
+        this.recipe = RecipeLoader.load(options.getRecipe());
+    }
+
+    /**
+     * Method to run the recipe once on a sample, so that its classes are loaded and its templates compiled
+     * before the first request
+     */
+    public synchronized void warmUp() {
+        ExecutionContext ctx = new InMemoryExecutionContext(error -> { });
+        List<SourceFile> sample = JavaParser.fromJavaVersion()
+                .classpath(JavaParser.runtimeClasspath())
+                .build()
+                .parse(ctx, WARM_UP_SOURCE)
+                .collect(Collectors.toList());
+        recipe.run(new InMemoryLargeSourceSet(sample), ctx);
+    }
+
+    /**
+     * Method to serve requests until a shutdown request, from stdin or from connections to the port of the options
+     * @param log where the daemon reports that it is ready, stderr when requests are read from stdin
+     * @throws IOException if the port cannot be bound or stdin cannot be read
+     */
+    public void serve(PrintStream log) throws IOException {
+        if (options.getPort() == 0) {
+            log.println("Migration daemon ready on stdin");
+            serve(System.in, System.out);
+            return;
+        }
+        // Bound to the loopback address only, the daemon reads and writes any file below the root directory
+        try (ServerSocket server = new ServerSocket(options.getPort(), 50, InetAddress.getLoopbackAddress())) {
+            log.println("Migration daemon listening on " + server.getLocalSocketAddress());
+            while (true) {
+                try (Socket socket = server.accept()) {
+                    if (serve(socket.getInputStream(), socket.getOutputStream())) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    log.println("Connection failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Method to serve the requests of one client, one line per request and per response
+     * @param in the requests
+     * @param out the responses
+     * @return true if the client asked the daemon to shut down, false if it closed the input
+     * @throws IOException if the requests cannot be read or the responses cannot be written
+     */
+    boolean serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            ObjectNode response;
+            boolean shutdown = false;
+            try {
+                JsonNode request = mapper.readTree(line);
+                String command = request.path("command").asText();
+                shutdown = command.equals("shutdown");
+                response = handle(command, request.path("files"));
+            } catch (IOException | RuntimeException e) {
+                response = mapper.createObjectNode().put("status", "error").put("message", String.valueOf(e.getMessage()));
+            }
+            writer.write(mapper.writeValueAsString(response));
+            writer.write('\n');
+            writer.flush();
+            if (shutdown) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Method to serve one request
+     * @param command the command of the request
+     * @param files the files of a diff or apply request
+     * @return the response
+     * @throws IOException if a source cannot be read or a change cannot be written
+     * @throws IllegalArgumentException if the command is unknown or a file is not below the root directory
+     */
+    synchronized ObjectNode handle(String command, JsonNode files) throws IOException {
+        switch (command) {
+            case "ping":
+            case "shutdown":
+                return mapper.createObjectNode().put("status", "ok");
+            case "diff":
+            case "apply":
+                return migrate(paths(files), command.equals("apply"));
+            default:
+                throw new IllegalArgumentException("Unknown command: " + command);
+        }
+    }
+
+    /**
+     * Method to migrate files, module by module
+     */
+    private ObjectNode migrate(List<Path> files, boolean apply) throws IOException {
+        long start = System.nanoTime();
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        Path root = options.getRoot();
+        Map<MavenModule, Set<Path>> modules = new LinkedHashMap<>();
+        for (Path file : files) {
+            MavenModule module = MavenModule.containing(root, file);
+            if (module == null) {
+                module = new MavenModule(root, Collections.emptyList());
+            }
+            modules.computeIfAbsent(existing(modules, module), key -> new LinkedHashSet<>()).add(root.relativize(file));
+        }
+        ArrayNode changedFiles = mapper.createArrayNode();
+        StringBuilder patch = new StringBuilder();
+        for (Map.Entry<MavenModule, Set<Path>> entry : modules.entrySet()) {
+            List<SourceFile> parsed = parse(entry.getKey(), entry.getValue(), ctx);
+            List<Result> results = recipe.run(new InMemoryLargeSourceSet(parsed), ctx).getChangeset().getAllResults();
+            for (Result result : results) {
+                changedFiles.add((result.getAfter() != null ? result.getAfter() : result.getBefore()).getSourcePath().toString());
+                if (!apply) {
+                    patch.append(result.diff());
+                }
+            }
+            if (apply) {
+                ModuleMigrationTask.write(root, results);
+            }
+        }
+        ObjectNode response = mapper.createObjectNode().put("status", "ok");
+        response.set("changedFiles", changedFiles);
+        if (!apply) {
+            response.put("patch", patch.toString());
+        }
+        ArrayNode errorMessages = response.putArray("errors");
+        for (Throwable error : errors) {
+            errorMessages.add(error.toString());
+        }
+        response.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    /**
+     * Method to parse the requested files of a module with its warm parser
+     */
+    private List<SourceFile> parse(MavenModule module, Set<Path> requested, ExecutionContext ctx) throws IOException {
+        List<Path> classpath = new ArrayList<>(module.classpath());
+        if (classpath.isEmpty()) {
+            classpath.addAll(JavaParser.runtimeClasspath());
+        }
+        List<Path> outputDirectories = module.outputDirectories();
+        classpath.addAll(outputDirectories);
+        // The symbols of the parser are read from the classes once, so recompiled classes need a new parser
+        String classpathHash = LstCache.classpathHash(classpath);
+        ModuleParser moduleParser = parsers.get(module.getDirectory());
+        if (moduleParser == null || !moduleParser.classpath.equals(classpath)
+                || !moduleParser.classpathHash.equals(classpathHash)) {
+            moduleParser = new ModuleParser(classpath, classpathHash);
+            parsers.put(module.getDirectory(), moduleParser);
+        }
+        Path root = options.getRoot();
+        List<Path> toParse = requested.stream().map(root::resolve).collect(Collectors.toList());
+        if (outputDirectories.isEmpty()) {
+            // Without compiled classes, the other sources of the module are parsed to resolve their types
+            toParse = module.javaSources();
+            for (Path sourcePath : requested) {
+                if (!toParse.contains(root.resolve(sourcePath))) {
+                    toParse.add(root.resolve(sourcePath));
+                }
+            }
+        }
+        try {
+            return moduleParser.parser.parse(toParse, root, ctx)
+                    .filter(sourceFile -> requested.contains(sourceFile.getSourcePath()))
+                    .collect(Collectors.toList());
+        } finally {
+            // Releases the compilation units of the request, the symbols of the classpath are kept
+            moduleParser.parser.reset();
+        }
+    }
+
+    /**
+     * Method to resolve the requested files against the root directory
+     */
+    private List<Path> paths(JsonNode files) {
+        if (!files.isArray() || files.size() == 0) {
+            throw new IllegalArgumentException("Missing files");
+        }
+        List<Path> paths = new ArrayList<>(files.size());
+        for (JsonNode file : files) {
+            Path path = options.getRoot().resolve(file.asText()).normalize();
+            if (!path.startsWith(options.getRoot())) {
+                throw new IllegalArgumentException("Not below " + options.getRoot() + ": " + file.asText());
+            }
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    /**
+     * Method to return the module already collected for the same directory, MavenModule has no equals
+     */
+    private static MavenModule existing(Map<MavenModule, Set<Path>> modules, MavenModule module) {
+        for (MavenModule collected : modules.keySet()) {
+            if (collected.getDirectory().equals(module.getDirectory())) {
+                return collected;
+            }
+        }
+        return module;
+    }
+
+    /**
+     * A parser and the classpath it was created for, with the hash of its content
+     */
+    private static final class ModuleParser {
+        private final List<Path> classpath;
+        private final String classpathHash;
+        private final JavaParser parser;
+
+        private ModuleParser(List<Path> classpath, String classpathHash) {
+            this.classpath = classpath;
+            this.classpathHash = classpathHash;
+            this.parser = JavaParser.fromJavaVersion().classpath(classpath).build();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.InstrumentedRecipe;
+import org.openrewrite.Recipe;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * MigrationRunner runs a recipe, by default MigrateAzureCoreSamplesToAzureCoreV2, on every Maven module
+ * below a root directory. Modules are migrated in parallel on a work-stealing ForkJoinPool, one task
+ * and one LST batch per module, so that idle workers pick up the modules that remain.
+ * Every worker thread loads its own instance of the recipe, because recipe instances such as the
+ * declarative composite keep state while they run.
+ * --------------------------------------------------
+ * Usage:
+ * java -jar target/migration-runner.jar --parallelism 8 path/to/reactor
+ * --------------------------------------------------
+ * A dry run streams the diff of each changed file to target/rewrite/rewrite.patch under the root directory
+ * as soon as it is produced, or to one patch per module with --patch-shards, see PatchWriter; with --apply the
+ * changes are written to the source files.
+ * With --cache-dir, files left unchanged by a previous run of the same recipe are not parsed again.
+ * With --lst-cache, the LSTs of the files that are visited are loaded from disk when they were parsed before.
+ * With --batch-size, the LSTs held per module are bounded by the batch size instead of the module size.
+ * With --prescan, sources without the names the recipe looks for are neither parsed nor visited.
+ * With --since, only the sources a git revision range adds or modifies are visited, and only their modules are
+ * migrated.
+ * With --checkpoint, the completed sources are recorded, and a run restarted after a failure resumes from them.
+ * With --report, every step of the recipe is instrumented and its statistics are written to a report.
+ * With --daemon, the runner keeps its recipe and parsers warm and migrates the files it is asked for, see
+ * MigrationDaemon.
+ */
+public final class MigrationRunner {
+
+    private final RunnerOptions options;
+
+    /**
+     * Creates a runner
+     * @param options the options of the run
+     */
+    public MigrationRunner(RunnerOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Entry point of the runner
+     * @param args the command line arguments, see RunnerOptions
+     */
+    public static void main(String[] args) {
+        RunnerOptions options;
+        try {
+            options = RunnerOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(RunnerOptions.usage());
+            System.exit(2);
+            return;
+        }
+        if (options.isDaemon()) {
+            try {
+                MigrationDaemon daemon = new MigrationDaemon(options);
+                daemon.warmUp();
+                daemon.serve(System.err);
+                System.exit(0);
+            } catch (IOException e) {
+                System.err.println("Migration daemon failed: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+        try {
+            List<ModuleResult> results = new MigrationRunner(options).run();
+            printSummary(results, options, System.out);
+            System.exit(results.stream().anyMatch(result -> !result.getErrors().isEmpty()) ? 1 : 0);
+        } catch (IOException e) {
+            System.err.println("Migration failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Method to migrate all modules below the root directory
+     * @return the result of each module, in module order
+     * @throws IOException if the modules cannot be discovered or the patch cannot be written
+     */
+    public List<ModuleResult> run() throws IOException {
+        List<MavenModule> modules = MavenModule.discover(options.getRoot());
+        Set<Path> selectedSources = null;
+        if (options.getSince() != null) {
+            selectedSources = GitChangedFiles.collect(options.getRoot(), options.getSince());
+            modules = selected(modules, selectedSources);
+        }
+        ThreadLocal<Recipe> recipes = ThreadLocal.withInitial(() -> options.getReportFile() == null
+                ? RecipeLoader.load(options.getRecipe())
+                : InstrumentedRecipe.instrument(RecipeLoader.load(options.getRecipe())));
+        IncrementalCache cache = options.getCacheDirectory() == null ? null
+                : IncrementalCache.load(options.getCacheDirectory(), RecipeLoader.load(options.getRecipe()));
+        LstCache lstCache = options.getLstCacheDirectory() == null ? null : LstCache.open(options.getLstCacheDirectory());
+        // A dry run and a run that writes the changes record different keys, so they do not share a log
+        CheckpointLog checkpoint = options.getCheckpointFile() == null ? null : CheckpointLog.open(
+                options.getCheckpointFile(), IncrementalCache.fingerprint(RecipeLoader.load(options.getRecipe()))
+                        + (options.isApply() ? ":apply" : ":dry-run"));
+        ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        List<ModuleResult> results;
+        try (PatchWriter patches = options.isApply() ? null : PatchWriter.open(options.getPatchFile(),
+                options.getRoot(), options.isPatchShards(), options.isPatchGzip())) {
+            results = pool.invoke(new MigrateModules(modules, options.getRoot(), recipes::get, patches, cache,
+                    lstCache, options.getBatchSize(),
+                    options.isPrescan() ? LexicalPreScanner.forRecipe(options.getRecipe()) : null, selectedSources,
+                    checkpoint));
+        } finally {
+            pool.shutdown();
+            if (checkpoint != null) {
+                checkpoint.close();
+            }
+        }
+        if (checkpoint != null && results.stream().allMatch(result -> result.getErrors().isEmpty())) {
+            checkpoint.delete();
+        }
+        if (cache != null) {
+            cache.save();
+        }
+        if (options.getReportFile() != null) {
+            VisitStatsReport.write(results, options.getReportFile());
+        }
+        return results;
+    }
+
+    /**
+     * Method to keep the modules with a selected source in one of their source directories
+     */
+    private static List<MavenModule> selected(List<MavenModule> modules, Set<Path> selectedSources) {
+        List<MavenModule> selected = new ArrayList<>();
+        for (MavenModule module : modules) {
+            if (selectedSources.stream().anyMatch(source -> module.getSourceDirectories().stream()
+                    .anyMatch(source::startsWith))) {
+                selected.add(module);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Method to print the number of changed files and errors per module and in total
+     * @param results the results of a run
+     * @param options the options of the run
+     * @param out where the summary is printed
+     */
+    public static void printSummary(List<ModuleResult> results, RunnerOptions options, PrintStream out) {
+        int sourceFiles = 0;
+        int skippedFiles = 0;
+        int cachedLsts = 0;
+        int prescannedOutFiles = 0;
+        int resumedFiles = 0;
+        int changedFiles = 0;
+        int errors = 0;
+        for (ModuleResult result : results) {
+            sourceFiles += result.getSourceFiles();
+            skippedFiles += result.getSkippedFiles();
+            cachedLsts += result.getCachedLsts();
+            prescannedOutFiles += result.getPrescannedOutFiles();
+            resumedFiles += result.getResumedFiles();
+            changedFiles += result.getChangedFiles().size();
+            errors += result.getErrors().size();
+            if (!result.getChangedFiles().isEmpty() || !result.getErrors().isEmpty()) {
+                out.printf("%s: %d of %d files changed in %d ms%n", options.getRoot().relativize(result.getModule().getDirectory()),
+                        result.getChangedFiles().size(), result.getSourceFiles(),
+                        TimeUnit.NANOSECONDS.toMillis(result.getElapsedNanos()));
+            }
+            for (Throwable error : result.getErrors()) {
+                out.println("  " + error);
+            }
+        }
+        out.printf("%d modules, %d of %d files changed, %d errors%n", results.size(), changedFiles, sourceFiles, errors);
+        if (options.getCacheDirectory() != null) {
+            out.printf("%d files skipped as unchanged since the last run%n", skippedFiles);
+        }
+        if (options.getLstCacheDirectory() != null) {
+            out.printf("%d files loaded from the LST cache%n", cachedLsts);
+        }
+        if (options.isPrescan()) {
+            out.printf("%d files left out by the pre-scan%n", prescannedOutFiles);
+        }
+        if (options.getCheckpointFile() != null) {
+            out.printf("%d files resumed from the checkpoint%n", resumedFiles);
+        }
+        if (options.getSince() != null) {
+            out.printf("Only the modules and files changed by %s were migrated%n", options.getSince());
+        }
+        if (changedFiles > 0) {
+            out.println(options.isApply() ? "Changes were written to the source files."
+                    : options.isPatchShards() ? "Patches written per module to " + options.getPatchFile().getParent()
+                    : "Patch written to " + options.getPatchFile());
+        }
+        if (options.getReportFile() != null) {
+            out.println("Visit statistics written to " + options.getReportFile());
+        }
+    }
+
+    /**
+     * Root task that forks one ModuleMigrationTask per module
+     * Modules with the most source bytes are forked first. Idle workers steal the oldest tasks, so they start
+     * on the largest modules, which keeps a few large modules from being left for the end of the run.
+     */
+    private static final class MigrateModules extends RecursiveTask<List<ModuleResult>> {
+
+        private final List<MavenModule> modules;
+
+        private final Path root;
+
+        private final Supplier<Recipe> recipe;
+
+        private final PatchWriter patches;
+
+        private final IncrementalCache cache;
+
+        private final LstCache lstCache;
+
+        private final int batchSize;
+
+        private final LexicalPreScanner prescanner;
+
+        private final Set<Path> selectedSources;
+
+        private final CheckpointLog checkpoint;
+
+        MigrateModules(List<MavenModule> modules, Path root, Supplier<Recipe> recipe, PatchWriter patches,
+                       IncrementalCache cache, LstCache lstCache, int batchSize, LexicalPreScanner prescanner,
+                       Set<Path> selectedSources, CheckpointLog checkpoint) {
+            this.modules = modules;
+            this.root = root;
+            this.recipe = recipe;
+            this.patches = patches;
+            this.cache = cache;
+            this.lstCache = lstCache;
+            this.batchSize = batchSize;
+            this.prescanner = prescanner;
+            this.selectedSources = selectedSources;
+            this.checkpoint = checkpoint;
+        }
+
+        @Override
+        protected List<ModuleResult> compute() {
+            List<ModuleMigrationTask> tasks = new ArrayList<>(modules.size());
+            for (MavenModule module : modules) {
+                tasks.add(new ModuleMigrationTask(module, root, recipe, patches, cache, lstCache, batchSize, prescanner,
+                        selectedSources, checkpoint));
+            }
+            List<ModuleMigrationTask> largestFirst = new ArrayList<>(tasks);
+            largestFirst.sort(Comparator.comparingLong((ModuleMigrationTask task) -> task.getModule().sourceBytes()).reversed());
+            for (ModuleMigrationTask task : largestFirst) {
+                task.fork();
+            }
+            List<ModuleResult> results = new ArrayList<>(tasks.size());
+            for (ModuleMigrationTask task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.RecipeVisitStats;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.RecipeRun;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.tree.ParseError;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * ModuleMigrationTask parses the Java sources of one module as a single batch, runs the recipe on them
+ * and either streams the changes as diffs to a PatchWriter or writes them to disk.
+ * Each task uses its own parser and lets go of the LSTs before it completes, so the memory held by a
+ * worker thread is bounded by the size of the module it is working on.
+ * --------------------------------------------------
+ * With an IncrementalCache, files the recipe left unchanged in a previous run are skipped. Only the other
+ * files are parsed when the compiled classes of the module are available to resolve the skipped ones;
+ * otherwise the whole module is parsed so that type attribution stays complete, and only the other files
+ * are visited.
+ * --------------------------------------------------
+ * With an LstCache, the LSTs of the files to visit are loaded from the cache when the same content was parsed
+ * against the same classpath and the same sources of the module before, and only the other files are parsed.
+ * Their LSTs are added to the cache.
+ * --------------------------------------------------
+ * With a batch size, the files to visit are parsed, migrated and written in batches of that many files, and
+ * the LSTs of a batch are released before the next one is parsed, so that the memory held by a worker thread
+ * is bounded by the batch size instead of the module size. This is correct for recipes that look at one file
+ * at a time, which all recipes of com.azure.recipes.core.v2 do. The sources of a batch resolve the types of the
+ * other batches from the compiled classes of the module; a module that is not compiled is migrated in a single
+ * batch so that type attribution stays complete.
+ * --------------------------------------------------
+ * With a LexicalPreScanner, sources without the names the recipe looks for are left out before the caches are
+ * looked up, and are resolved like unchanged sources.
+ * --------------------------------------------------
+ * With selected sources, e.g. the sources changed by a git revision range, the other sources of the module are
+ * left out the same way and counted as skipped.
+ * --------------------------------------------------
+ * With a CheckpointLog, the sources of every batch that is written without errors are recorded as completed, and
+ * the sources a previous run completed are resumed: their recorded diffs are written again instead of parsing and
+ * visiting them.
+ * --------------------------------------------------
+ */
+final class ModuleMigrationTask extends RecursiveTask<ModuleResult> {
+
+    private final MavenModule module;
+
+    private final Path root;
+
+    private final Supplier<Recipe> recipe;
+
+    private final PatchWriter patches;
+
+    private final IncrementalCache cache;
+
+    private final LstCache lstCache;
+
+    private final int batchSize;
+
+    private final LexicalPreScanner prescanner;
+
+    private final Set<Path> selectedSources;
+
+    private final CheckpointLog checkpoint;
+
+    private int cachedLsts;
+
+    private int prescannedOutFiles;
+
+    // Checkpoint key of each source completed by a previous run, by path relative to the root directory
+    private final Map<Path, String> resumed = new LinkedHashMap<>();
+
+    // Checkpoint key of each source to visit, by path relative to the root directory
+    private final Map<Path, String> checkpointKeys = new HashMap<>();
+
+    /**
+     * Creates the task of a module
+     * @param patches the writer of the diffs of a dry run, or null to write the changes to the sources
+     * @param selectedSources the absolute paths of the sources to visit, or null to visit all sources
+     * @param checkpoint the log of the completed sources, or null to migrate every source
+     */
+    ModuleMigrationTask(MavenModule module, Path root, Supplier<Recipe> recipe, PatchWriter patches,
+                        IncrementalCache cache, LstCache lstCache, int batchSize, LexicalPreScanner prescanner,
+                        Set<Path> selectedSources, CheckpointLog checkpoint) {
+        this.module = module;
+        this.root = root;
+        this.recipe = recipe;
+        this.patches = patches;
+        this.cache = cache;
+        this.lstCache = lstCache;
+        this.batchSize = batchSize;
+        this.prescanner = prescanner;
+        this.selectedSources = selectedSources;
+        this.checkpoint = checkpoint;
+    }
+
+    /**
+     * @return the module migrated by this task
+     */
+    MavenModule getModule() {
+        return module;
+    }
+
+    @Override
+    protected ModuleResult compute() {
+        long start = System.nanoTime();
+        List<Throwable> errors = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(errors::add);
+        int sourceFiles = 0;
+        int skippedFiles = 0;
+        List<Path> changedFiles = new ArrayList<>();
+        List<RecipeVisitStats.Row> visitStats = new ArrayList<>();
+        try {
+            List<Path> sources = module.javaSources();
+            List<Path> classpath = module.classpath();
+            sourceFiles = sources.size();
+            String classpathHash = cache == null && lstCache == null && checkpoint == null ? null
+                    : LstCache.classpathHash(classpath);
+            Map<Path, String> lstKeys = new HashMap<>();
+            Map<Path, String> pending = pending(sources, classpathHash, lstKeys);
+            skippedFiles = sources.size() - prescannedOutFiles - resumed.size() - pending.size();
+            for (Map.Entry<Path, String> entry : resumed.entrySet()) {
+                String diff = checkpoint.diff(entry.getValue());
+                if (!diff.isEmpty()) {
+                    changedFiles.add(entry.getKey());
+                    if (patches != null) {
+                        patches.write(module, diff);
+                    }
+                }
+            }
+            for (Map<Path, String> batch : batches(pending)) {
+                int batchErrors = errors.size();
+                List<SourceFile> parsed = parse(sources, batch, lstKeys, classpath, ctx);
+                RecipeRun run = migrate(parsed, ctx);
+                List<Result> results = run.getChangeset().getAllResults();
+                visitStats.addAll(run.getDataTableRows(RecipeVisitStats.class.getName()));
+                for (Result result : results) {
+                    changedFiles.add(result.getAfter() != null ? result.getAfter().getSourcePath() : result.getBefore().getSourcePath());
+                }
+                if (patches == null) {
+                    write(root, results);
+                } else {
+                    for (Result result : results) {
+                        patches.write(module, result.diff());
+                    }
+                }
+                if (cache != null && errors.size() == batchErrors) {
+                    markUnchanged(parsed, batch, results);
+                }
+                if (checkpoint != null && errors.size() == batchErrors) {
+                    checkpoint(parsed, batch, results, classpathHash);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            errors.add(e);
+        } finally {
+            if (patches != null) {
+                try {
+                    patches.closeModule(module);
+                } catch (IOException e) {
+                    errors.add(e);
+                }
+            }
+        }
+        return new ModuleResult(module, sourceFiles, skippedFiles, cachedLsts, prescannedOutFiles, resumed.size(),
+                Collections.unmodifiableList(changedFiles),
+                Collections.unmodifiableList(visitStats), Collections.unmodifiableList(errors), System.nanoTime() - start);
+    }
+
+    /**
+     * Method to split the sources to visit into batches of the batch size, in source order
+     * @return a single batch of all sources without a batch size or without compiled classes to resolve
+     * the sources of the other batches, and no batch if there is nothing to visit
+     */
+    private List<Map<Path, String>> batches(Map<Path, String> pending) {
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (batchSize <= 0 || pending.size() <= batchSize || module.outputDirectories().isEmpty()) {
+            return Collections.singletonList(pending);
+        }
+        List<Map<Path, String>> batches = new ArrayList<>();
+        Map<Path, String> batch = new LinkedHashMap<>();
+        for (Map.Entry<Path, String> entry : pending.entrySet()) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() == batchSize) {
+                batches.add(batch);
+                batch = new LinkedHashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    /**
+     * Method to select the sources that have to be visited
+     * @param classpathHash the hash of the classpath of the module, or null if no cache and no checkpoint is used
+     * @param lstKeys filled with the LstCache key of each source to visit, if the LST cache is used
+     * @return the cache key of each source to visit, by path relative to the root directory
+     */
+    private Map<Path, String> pending(List<Path> sources, String classpathHash, Map<Path, String> lstKeys)
+            throws IOException {
+        boolean keyed = cache != null || lstCache != null || checkpoint != null;
+        // The source set covers the sources that are not selected or prescanned out too
+        boolean sourceSet = cache != null || lstCache != null;
+        Map<Path, String> contentHashes = new LinkedHashMap<>();
+        List<Path> candidates = new ArrayList<>();
+        for (Path source : sources) {
+            boolean selected = selectedSources == null || selectedSources.contains(source);
+            if (!selected && !sourceSet) {
+                continue;
+            }
+            Path sourcePath = root.relativize(source);
+            // Read once for the scan, the keys and the source set
+            byte[] content = keyed ? Files.readAllBytes(source) : null;
+            if (content != null) {
+                contentHashes.put(sourcePath, IncrementalCache.contentHash(content));
+            }
+            if (!selected) {
+                continue;
+            }
+            if (prescanner != null && !(content != null ? prescanner.isCandidate(content) : prescanner.isCandidate(source))) {
+                prescannedOutFiles++;
+                continue;
+            }
+            candidates.add(sourcePath);
+        }
+        String sourceSetHash = sourceSet ? LstCache.sourceSetHash(contentHashes, module.outputDirectories()) : null;
+        Map<Path, String> pending = new LinkedHashMap<>();
+        for (Path sourcePath : candidates) {
+            if (!keyed) {
+                pending.put(sourcePath, null);
+                continue;
+            }
+            String contentHash = contentHashes.get(sourcePath);
+            if (checkpoint != null) {
+                String checkpointKey = IncrementalCache.fileKey(sourcePath, contentHash, classpathHash, null);
+                if (checkpoint.isCompleted(checkpointKey)) {
+                    resumed.put(sourcePath, checkpointKey);
+                    continue;
+                }
+                checkpointKeys.put(sourcePath, checkpointKey);
+            }
+            String key = cache == null ? null : IncrementalCache.fileKey(sourcePath, contentHash, classpathHash, sourceSetHash);
+            if (cache == null || !cache.isUnchanged(key)) {
+                pending.put(sourcePath, key);
+                if (lstCache != null) {
+                    lstKeys.put(sourcePath, LstCache.fileKey(sourcePath, contentHash, classpathHash, sourceSetHash));
+                }
+            }
+        }
+        return pending;
+    }
+
+    /**
+     * Method to parse the sources of the module with type attribution, or load their LSTs from the LST cache
+     * Source paths are relative to the root directory, so that patches apply from there.
+     * @return the LSTs of the pending sources, in source order
+     */
+    private List<SourceFile> parse(List<Path> sources, Map<Path, String> pending, Map<Path, String> lstKeys,
+                                   List<Path> classpath, ExecutionContext ctx) throws IOException {
+        Map<Path, SourceFile> lsts = new HashMap<>();
+        if (lstCache != null) {
+            for (Path sourcePath : pending.keySet()) {
+                SourceFile cached = lstCache.load(lstKeys.get(sourcePath));
+                if (cached != null) {
+                    lsts.put(sourcePath, cached);
+                }
+            }
+            cachedLsts += lsts.size();
+        }
+        if (lsts.size() < pending.size()) {
+            List<Path> parserClasspath = new ArrayList<>(classpath.isEmpty() ? JavaParser.runtimeClasspath() : classpath);
+            List<Path> toParse = sources;
+            if (pending.size() - lsts.size() < sources.size()) {
+                List<Path> outputDirectories = module.outputDirectories();
+                if (!outputDirectories.isEmpty()) {
+                    parserClasspath.addAll(outputDirectories);
+                    toParse = pending.keySet().stream()
+                            .filter(sourcePath -> !lsts.containsKey(sourcePath))
+                            .map(root::resolve)
+                            .collect(Collectors.toList());
+                }
+            }
+            JavaParser parser = JavaParser.fromJavaVersion()
+                    .classpath(parserClasspath)
+                    .build();
+            List<SourceFile> parsed = parser.parse(toParse, root, ctx)
+                    .filter(sourceFile -> pending.containsKey(sourceFile.getSourcePath())
+                            && !lsts.containsKey(sourceFile.getSourcePath()))
+                    .collect(Collectors.toList());
+            for (SourceFile sourceFile : parsed) {
+                if (lstCache != null && !(sourceFile instanceof ParseError)) {
+                    lstCache.store(lstKeys.get(sourceFile.getSourcePath()), sourceFile);
+                }
+                lsts.put(sourceFile.getSourcePath(), sourceFile);
+            }
+        }
+        List<SourceFile> ordered = new ArrayList<>(lsts.size());
+        for (Path sourcePath : pending.keySet()) {
+            SourceFile sourceFile = lsts.get(sourcePath);
+            if (sourceFile != null) {
+                ordered.add(sourceFile);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Method to record the sources of a written batch in the checkpoint log, with their diffs
+     * A dry run records the key of the source it read. A run that writes the changes records the key of the
+     * migrated content of a changed source, which is what a resumed run reads from disk. Sources that did not
+     * parse, and sources the recipe deleted or moved, are not recorded and are migrated again by a resumed run.
+     */
+    private void checkpoint(List<SourceFile> parsed, Map<Path, String> batch, List<Result> results,
+                            String classpathHash) throws IOException {
+        Map<Path, Result> changed = new HashMap<>();
+        for (Result result : results) {
+            if (result.getBefore() != null) {
+                changed.put(result.getBefore().getSourcePath(), result);
+            }
+        }
+        Map<String, String> diffs = new LinkedHashMap<>();
+        for (SourceFile sourceFile : parsed) {
+            Path sourcePath = sourceFile.getSourcePath();
+            if (sourceFile instanceof ParseError || !batch.containsKey(sourcePath)) {
+                continue;
+            }
+            Result result = changed.get(sourcePath);
+            if (result == null) {
+                diffs.put(checkpointKeys.get(sourcePath), "");
+            } else if (result.getAfter() != null && result.getAfter().getSourcePath().equals(sourcePath)) {
+                String key = patches != null ? checkpointKeys.get(sourcePath)
+                        : IncrementalCache.fileKey(sourcePath,
+                                IncrementalCache.contentHash(Files.readAllBytes(root.resolve(sourcePath))), classpathHash, null);
+                diffs.put(key, result.diff());
+            }
+        }
+        checkpoint.complete(diffs);
+    }
+
+    /**
+     * Method to record the sources that were parsed and left unchanged by the recipe
+     */
+    private void markUnchanged(List<SourceFile> parsed, Map<Path, String> pending, List<Result> results) {
+        Set<Path> changed = new HashSet<>();
+        for (Result result : results) {
+            if (result.getBefore() != null) {
+                changed.add(result.getBefore().getSourcePath());
+            }
+        }
+        for (SourceFile sourceFile : parsed) {
+            if (!(sourceFile instanceof ParseError) && !changed.contains(sourceFile.getSourcePath())) {
+                cache.markUnchanged(pending.get(sourceFile.getSourcePath()));
+            }
+        }
+    }
+
+    /**
+     * Method to run the recipe of the current worker thread on the parsed sources
+     */
+    private RecipeRun migrate(List<SourceFile> sourceFiles, ExecutionContext ctx) {
+        return recipe.get().run(new InMemoryLargeSourceSet(sourceFiles), ctx);
+    }
+
+    /**
+     * Method to write changed files, create added files and delete removed files
+     * @param root the directory the source paths of the results are relative to
+     * @param results the results of a recipe run
+     * @throws IOException if a file cannot be written or deleted
+     */
+    static void write(Path root, List<Result> results) throws IOException {
+        for (Result result : results) {
+            SourceFile before = result.getBefore();
+            SourceFile after = result.getAfter();
+            if (before != null && (after == null || !before.getSourcePath().equals(after.getSourcePath()))) {
+                Files.deleteIfExists(root.resolve(before.getSourcePath()));
+            }
+            if (after != null) {
+                Path target = root.resolve(after.getSourcePath());
+                Charset charset = after.getCharset() != null ? after.getCharset() : StandardCharsets.UTF_8;
+                if (target.getParent() != null) {
+                    Files.createDirectories(target.getParent());
+                }
+                Files.write(target, after.printAll().getBytes(charset));
+            }
+        }
+    }
+}
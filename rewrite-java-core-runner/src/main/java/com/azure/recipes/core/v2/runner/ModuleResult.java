@@ -0,0 +1,119 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.RecipeVisitStats;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * ModuleResult is the outcome of migrating one module. It holds the paths of the changed files but neither
+ * their diffs, which are streamed to the PatchWriter, nor the LSTs, so that the memory of a module is released
+ * as soon as its task completes.
+ */
+public final class ModuleResult {
+
+    private final MavenModule module;
+
+    private final int sourceFiles;
+
+    private final int skippedFiles;
+
+    private final int cachedLsts;
+
+    private final int prescannedOutFiles;
+
+    private final int resumedFiles;
+
+    private final List<Path> changedFiles;
+
+    private final List<RecipeVisitStats.Row> visitStats;
+
+    private final List<Throwable> errors;
+
+    private final long elapsedNanos;
+
+    ModuleResult(MavenModule module, int sourceFiles, int skippedFiles, int cachedLsts, int prescannedOutFiles,
+                 int resumedFiles, List<Path> changedFiles, List<RecipeVisitStats.Row> visitStats, List<Throwable> errors,
+                 long elapsedNanos) {
+        this.module = module;
+        this.sourceFiles = sourceFiles;
+        this.skippedFiles = skippedFiles;
+        this.cachedLsts = cachedLsts;
+        this.prescannedOutFiles = prescannedOutFiles;
+        this.resumedFiles = resumedFiles;
+        this.changedFiles = changedFiles;
+        this.visitStats = visitStats;
+        this.errors = errors;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the migrated module
+     */
+    public MavenModule getModule() {
+        return module;
+    }
+
+    /**
+     * @return the number of Java sources of the module
+     */
+    public int getSourceFiles() {
+        return sourceFiles;
+    }
+
+    /**
+     * @return the number of Java sources skipped because the incremental cache knows they are unchanged
+     */
+    public int getSkippedFiles() {
+        return skippedFiles;
+    }
+
+    /**
+     * @return the number of Java sources whose LST was loaded from the LST cache instead of being parsed
+     */
+    public int getCachedLsts() {
+        return cachedLsts;
+    }
+
+    /**
+     * @return the number of Java sources left out because the pre-scan found none of the names the recipe looks for
+     */
+    public int getPrescannedOutFiles() {
+        return prescannedOutFiles;
+    }
+
+    /**
+     * @return the number of Java sources completed by a previous run and resumed from the checkpoint log
+     */
+    public int getResumedFiles() {
+        return resumedFiles;
+    }
+
+    /**
+     * @return the paths of the changed files, relative to the root directory
+     */
+    public List<Path> getChangedFiles() {
+        return changedFiles;
+    }
+
+    /**
+     * @return the statistics recorded by the instrumented recipe, empty unless a report was requested
+     */
+    public List<RecipeVisitStats.Row> getVisitStats() {
+        return visitStats;
+    }
+
+    /**
+     * @return the errors raised while parsing or migrating the module
+     */
+    public List<Throwable> getErrors() {
+        return errors;
+    }
+
+    /**
+     * @return the wall time spent on the module, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+}
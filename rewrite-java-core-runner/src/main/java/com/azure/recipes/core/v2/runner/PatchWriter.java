@@ -0,0 +1,146 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * PatchWriter streams the unified diff of each changed file to disk as soon as the recipe produced it, so that
+ * a dry run holds no diffs in memory and its first results can be read while the run goes on.
+ * The diffs are written to a single patch file, in the order the modules produce them, or to one patch file
+ * per module next to it, named after the path of the module below the root directory, e.g. sdk-core.patch for
+ * sdk/core. Either can be gzip compressed.
+ * --------------------------------------------------
+ * The diff of a file is written in one piece and flushed, so a patch file only ever ends between two diffs.
+ * A module shard is created with the first diff of the module and closed when the module completes, so no
+ * file is written for modules without changes and at most one shard per worker thread is open.
+ * --------------------------------------------------
+ */
+final class PatchWriter implements Closeable {
+
+    private final Path patchFile;
+
+    private final Path root;
+
+    private final boolean sharded;
+
+    private final boolean gzip;
+
+    private final Writer single;
+
+    private final Map<MavenModule, Writer> shards = new ConcurrentHashMap<>();
+
+    private PatchWriter(Path patchFile, Path root, boolean sharded, boolean gzip, Writer single) {
+        this.patchFile = patchFile;
+        this.root = root;
+        this.sharded = sharded;
+        this.gzip = gzip;
+        this.single = single;
+    }
+
+    /**
+     * Method to open the writer of a dry run
+     * The single patch file is created right away, so that a run without changes leaves an empty patch.
+     * @param patchFile the single patch file, or the file the module shards are written next to
+     * @param root the root directory of the run, which the shards are named relative to
+     * @param sharded true to write one patch file per module
+     * @param gzip true to gzip the patch files
+     * @return the writer
+     * @throws IOException if the patch directory or file cannot be created
+     */
+    static PatchWriter open(Path patchFile, Path root, boolean sharded, boolean gzip) throws IOException {
+        if (patchFile.getParent() != null) {
+            Files.createDirectories(patchFile.getParent());
+        }
+        return new PatchWriter(patchFile, root, sharded, gzip, sharded ? null : newWriter(patchFile, gzip));
+    }
+
+    /**
+     * Method to write the diff of a changed file of a module
+     * @param module the module of the file
+     * @param diff the unified diff of the file
+     * @throws IOException if the diff cannot be written
+     */
+    void write(MavenModule module, String diff) throws IOException {
+        if (diff.isEmpty()) {
+            return;
+        }
+        if (!sharded) {
+            synchronized (single) {
+                single.write(diff);
+                single.flush();
+            }
+            return;
+        }
+        // A module is migrated by a single task, so its shard is only written by one thread
+        Writer shard = shards.get(module);
+        if (shard == null) {
+            shard = newWriter(shardFile(module), gzip);
+            shards.put(module, shard);
+        }
+        shard.write(diff);
+        shard.flush();
+    }
+
+    /**
+     * Method to close the shard of a module once all of its diffs are written
+     * @param module the completed module
+     * @throws IOException if the shard cannot be closed
+     */
+    void closeModule(MavenModule module) throws IOException {
+        Writer shard = shards.remove(module);
+        if (shard != null) {
+            shard.close();
+        }
+    }
+
+    /**
+     * Method to return the patch file of a module shard
+     * @param module the module
+     * @return the patch file next to the single patch file, named after the path of the module
+     */
+    Path shardFile(MavenModule module) {
+        String name = root.relativize(module.getDirectory()).toString().replace(File.separatorChar, '-');
+        if (name.isEmpty()) {
+            String patchName = patchFile.getFileName().toString();
+            name = patchName.contains(".") ? patchName.substring(0, patchName.indexOf('.')) : patchName;
+        }
+        return patchFile.resolveSibling(name + (gzip ? ".patch.gz" : ".patch"));
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (MavenModule module : shards.keySet()) {
+            try {
+                closeModule(module);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (single != null) {
+            single.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Writer newWriter(Path file, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        if (gzip) {
+            // Sync flush, so that every diff written so far can be decompressed while the run goes on
+            out = new GZIPOutputStream(out, 8192, true);
+        }
+        return new OutputStreamWriter(out, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,71 @@
+package com.azure.recipes.core.v2.runner;
+
+import org.openrewrite.Recipe;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.YamlResourceLoader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * RecipeLoader creates recipe instances from a recipe name: either a recipe declared in the rewrite.yml
+ * bundled with rewrite-java-core, or the class name of a Java recipe with a no-argument constructor.
+ * Recipes are loaded from rewrite.yml directly rather than by scanning the classpath, which is much
+ * faster and matters when every worker thread loads its own instance.
+ */
+public final class RecipeLoader {
+
+    private static final String RECIPE_RESOURCE = "/META-INF/rewrite/rewrite.yml";
+
+    private RecipeLoader() {
+    }
+
+    /**
+     * Method to create a new instance of a recipe
+     * @param name the name of a declarative recipe in rewrite.yml or the class name of a Java recipe
+     * @return a new recipe instance
+     * @throws IllegalArgumentException if no recipe has that name
+     */
+    public static Recipe load(String name) {
+        Environment environment = environment();
+        if (environment.listRecipes().stream().anyMatch(recipe -> recipe.getName().equals(name))) {
+            return environment.activateRecipes(name);
+        }
+        try {
+            Class<?> recipeClass = Class.forName(name);
+            if (Recipe.class.isAssignableFrom(recipeClass)) {
+                return (Recipe) recipeClass.getDeclaredConstructor().newInstance();
+            }
+        } catch (ReflectiveOperationException ignored) {
+        }
+        throw new IllegalArgumentException("Unknown recipe: " + name);
+    }
+
+    /**
+     * Method to list the recipes declared in rewrite.yml
+     * @return the names of the declarative recipes
+     */
+    public static List<String> declaredRecipes() {
+        return environment().listRecipes().stream()
+                .map(Recipe::getName)
+                .collect(Collectors.toList());
+    }
+
+    private static Environment environment() {
+        try (InputStream yaml = RecipeLoader.class.getResourceAsStream(RECIPE_RESOURCE)) {
+            if (yaml == null) {
+                throw new IllegalStateException(RECIPE_RESOURCE + " is not on the classpath");
+            }
+            return Environment.builder()
+                    .load(new YamlResourceLoader(yaml, URI.create(RECIPE_RESOURCE), new Properties()))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
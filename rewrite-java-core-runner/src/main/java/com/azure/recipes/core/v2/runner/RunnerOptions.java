@@ -0,0 +1,308 @@
+package com.azure.recipes.core.v2.runner;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * RunnerOptions holds the command line options of the MigrationRunner.
+ * --------------------------------------------------
+ * Usage:
+ * java -jar migration-runner.jar [options] [root directory]
+ * --------------------------------------------------
+ * Options:
+ * --recipe name       recipe to run, defaults to the MigrateAzureCoreSamplesToAzureCoreV2 composite
+ * --parallelism n     number of modules migrated at the same time, defaults to the number of processors
+ * --patch file        where the dry run writes its patch, defaults to target/rewrite/rewrite.patch
+ * --patch-shards      write one patch per module next to the patch file instead, see PatchWriter
+ * --patch-gzip        gzip the patch files, adding .gz to their names
+ * --apply             write the changes to the source files instead of a patch
+ * --cache-dir dir     skip the files left unchanged by a previous run with the same recipe, see IncrementalCache
+ * --lst-cache dir     load the LSTs of sources parsed by a previous run instead of parsing them again, see LstCache
+ * --batch-size n      parse, migrate and write the sources of a module n files at a time, see ModuleMigrationTask
+ * --prescan           only parse the sources that contain the names the recipe looks for, see LexicalPreScanner
+ * --since range       only migrate the sources added or modified by a git revision range, e.g. origin/main...HEAD,
+ *                     see GitChangedFiles
+ * --checkpoint file   record the completed sources in file and resume from it after a failed run, see CheckpointLog
+ * --report file       write the time, nodes, edits and template applications of every recipe step per file,
+ *                     as CSV if the file name ends with .csv and as JSON otherwise
+ * --daemon            keep running and migrate the files requested on stdin, see MigrationDaemon
+ * --port n            with --daemon, serve requests on port n of the loopback address instead of stdin
+ * --------------------------------------------------
+ */
+public final class RunnerOptions {
+
+    /**
+     * Name of the declarative composite defined in rewrite.yml
+     */
+    public static final String DEFAULT_RECIPE = "com.azure.rewrite.java.core.MigrateAzureCoreSamplesToAzureCoreV2";
+
+    private Path root = Paths.get(".");
+
+    private String recipe = DEFAULT_RECIPE;
+
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    private Path patchFile;
+
+    private boolean patchShards;
+
+    private boolean patchGzip;
+
+    private boolean apply;
+
+    private Path cacheDirectory;
+
+    private Path lstCacheDirectory;
+
+    private int batchSize;
+
+    private boolean prescan;
+
+    private String since;
+
+    private Path checkpointFile;
+
+    private Path reportFile;
+
+    private boolean daemon;
+
+    private int port;
+
+    private RunnerOptions() {
+    }
+
+    /**
+     * Method to parse the command line arguments of the runner
+     * @param args the arguments, options first and then the root directory
+     * @return the parsed options
+     * @throws IllegalArgumentException if an option is unknown or its value is missing or invalid
+     */
+    public static RunnerOptions parse(String... args) {
+        RunnerOptions options = new RunnerOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--recipe":
+                    options.recipe = value(args, ++i, arg);
+                    break;
+                case "--parallelism":
+                    options.parallelism = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--patch":
+                    options.patchFile = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--patch-shards":
+                    options.patchShards = true;
+                    break;
+                case "--patch-gzip":
+                    options.patchGzip = true;
+                    break;
+                case "--apply":
+                    options.apply = true;
+                    break;
+                case "--cache-dir":
+                    options.cacheDirectory = Paths.get(value(args, ++i, arg)).toAbsolutePath().normalize();
+                    break;
+                case "--lst-cache":
+                    options.lstCacheDirectory = Paths.get(value(args, ++i, arg)).toAbsolutePath().normalize();
+                    break;
+                case "--batch-size":
+                    options.batchSize = positive(value(args, ++i, arg), arg);
+                    break;
+                case "--prescan":
+                    options.prescan = true;
+                    break;
+                case "--since":
+                    options.since = value(args, ++i, arg);
+                    if (options.since.startsWith("-")) {
+                        throw new IllegalArgumentException("--since must be a revision range: " + options.since);
+                    }
+                    break;
+                case "--checkpoint":
+                    options.checkpointFile = Paths.get(value(args, ++i, arg)).toAbsolutePath().normalize();
+                    break;
+                case "--report":
+                    options.reportFile = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--daemon":
+                    options.daemon = true;
+                    break;
+                case "--port":
+                    options.port = positive(value(args, ++i, arg), arg);
+                    break;
+                default:
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    options.root = Paths.get(arg);
+            }
+        }
+        if (options.prescan && !LexicalPreScanner.supports(options.recipe)) {
+            throw new IllegalArgumentException("--prescan does not support the recipe " + options.recipe);
+        }
+        if (options.port != 0 && !options.daemon) {
+            throw new IllegalArgumentException("--port requires --daemon");
+        }
+        options.root = options.root.toAbsolutePath().normalize();
+        if (options.patchFile == null) {
+            options.patchFile = options.root.resolve("target").resolve("rewrite").resolve("rewrite.patch");
+        }
+        if (options.patchGzip && !options.patchFile.getFileName().toString().endsWith(".gz")) {
+            options.patchFile = options.patchFile.resolveSibling(options.patchFile.getFileName() + ".gz");
+        }
+        return options;
+    }
+
+    /**
+     * Method to return the usage message printed when the arguments cannot be parsed
+     * @return the usage message
+     */
+    public static String usage() {
+        return "Usage: java -jar migration-runner.jar [options] [root directory]\n" +
+                "  --recipe name       recipe to run (default " + DEFAULT_RECIPE + ")\n" +
+                "  --parallelism n     number of modules migrated at the same time (default: number of processors)\n" +
+                "  --patch file        patch written by a dry run (default: <root>/target/rewrite/rewrite.patch)\n" +
+                "  --patch-shards      write one patch per module next to the patch file\n" +
+                "  --patch-gzip        gzip the patch files\n" +
+                "  --apply             write the changes to the source files instead of a patch\n" +
+                "  --cache-dir dir     skip the files left unchanged by a previous run with the same recipe\n" +
+                "  --lst-cache dir     load the LSTs parsed by a previous run instead of parsing the sources again\n" +
+                "  --batch-size n      parse and migrate the sources of a module n files at a time (default: all)\n" +
+                "  --prescan           only parse the sources that contain the names the recipe looks for\n" +
+                "  --since range       only migrate the sources changed by a git revision range, e.g. origin/main...HEAD\n" +
+                "  --checkpoint file   record the completed sources and resume from them after a failed run\n" +
+                "  --report file       write the statistics of every recipe step per file (.csv or .json)\n" +
+                "  --daemon            keep running and migrate the files requested on stdin, one JSON request per line\n" +
+                "  --port n            with --daemon, serve requests on port n of the loopback address instead\n";
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int positive(String value, String option) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException ignored) {
+        }
+        throw new IllegalArgumentException(option + " must be a positive number: " + value);
+    }
+
+    /**
+     * @return the directory that is searched for Maven modules, absolute and normalized
+     */
+    public Path getRoot() {
+        return root;
+    }
+
+    /**
+     * @return the name of the recipe to run
+     */
+    public String getRecipe() {
+        return recipe;
+    }
+
+    /**
+     * @return the number of modules migrated at the same time
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the patch file written by a dry run
+     */
+    public Path getPatchFile() {
+        return patchFile;
+    }
+
+    /**
+     * @return true if a dry run writes one patch per module next to the patch file
+     */
+    public boolean isPatchShards() {
+        return patchShards;
+    }
+
+    /**
+     * @return true if the patch files are gzip compressed
+     */
+    public boolean isPatchGzip() {
+        return patchGzip;
+    }
+
+    /**
+     * @return true if the changes are written to the source files
+     */
+    public boolean isApply() {
+        return apply;
+    }
+
+    /**
+     * @return the directory of the incremental cache, or null if every file is migrated
+     */
+    public Path getCacheDirectory() {
+        return cacheDirectory;
+    }
+
+    /**
+     * @return the directory of the LST cache, or null if every visited file is parsed
+     */
+    public Path getLstCacheDirectory() {
+        return lstCacheDirectory;
+    }
+
+    /**
+     * @return the number of files of a module parsed and migrated at a time, or 0 to migrate a module at once
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * @return true if the sources are scanned for the names the recipe looks for before they are parsed
+     */
+    public boolean isPrescan() {
+        return prescan;
+    }
+
+    /**
+     * @return the git revision range whose added and modified sources are migrated, or null to migrate all sources
+     */
+    public String getSince() {
+        return since;
+    }
+
+    /**
+     * @return the checkpoint log of the run, or null if a failed run starts over
+     */
+    public Path getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * @return the file the visit statistics are written to, or null if the recipe is not instrumented
+     */
+    public Path getReportFile() {
+        return reportFile;
+    }
+
+    /**
+     * @return true if the runner keeps running and migrates the files it is asked for
+     */
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    /**
+     * @return the loopback port the daemon serves requests on, or 0 to read them from stdin
+     */
+    public int getPort() {
+        return port;
+    }
+}
@@ -0,0 +1,156 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.InstrumentedRecipe;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * StartupTraining loads the classes a migration needs, so that a JVM started with -XX:ArchiveClassesAtExit
+ * writes them to a class-data-sharing archive that later runs map instead of loading and verifying the classes
+ * again. It loads every class of com.azure.recipes.core.v2, instantiates every recipe declared in rewrite.yml, and
+ * runs a dry run of the default recipe on a generated module, which loads the parser, the compiler and the
+ * classes of the runner.
+ * --------------------------------------------------
+ * Usage, from the target directory, see the cds profile of pom.xml:
+ * java -XX:ArchiveClassesAtExit=migration-runner.jsa -cp migration-runner.jar \
+ *     com.azure.recipes.core.v2.runner.StartupTraining
+ * --------------------------------------------------
+ */
+public final class StartupTraining {
+
+    private static final String RECIPE_PACKAGE = "com/azure/recipes/core/v2/";
+
+    private static final String CLIENT_SOURCE = "package com.example;\n" +
+            "\n" +
+            "import com.azure.core.http.rest.RequestOptions;\n" +
+            "import com.azure.core.http.rest.Response;\n" +
+            "import com.azure.core.util.BinaryData;\n" +
+            "import com.azure.core.util.Context;\n" +
+            "import com.azure.core.util.serializer.TypeReference;\n" +
+            "\n" +
+            "import java.util.List;\n" +
+            "\n" +
+            "public class Client {\n" +
+            "    public RequestOptions options() {\n" +
+            "        return new RequestOptions().setContext(Context.NONE);\n" +
+            "    }\n" +
+            "\n" +
+            "    public List<String> read(Response<BinaryData> response) {\n" +
+            "        return response.getValue().toObject(new TypeReference<List<String>>() { });\n" +
+            "    }\n" +
+            "}\n";
+
+    private static final String POLICY_SOURCE = "package com.example;\n" +
+            "\n" +
+            "import com.azure.core.http.policy.FixedDelayOptions;\n" +
+            "import com.azure.core.http.policy.HttpLogDetailLevel;\n" +
+            "import com.azure.core.http.policy.HttpLogOptions;\n" +
+            "import com.azure.core.http.policy.RetryOptions;\n" +
+            "\n" +
+            "import java.time.Duration;\n" +
+            "\n" +
+            "public class Policy {\n" +
+            "    public RetryOptions retry() {\n" +
+            "        return new RetryOptions(new FixedDelayOptions(3, Duration.ofMillis(50)));\n" +
+            "    }\n" +
+            "\n" +
+            "    public HttpLogOptions logOptions() {\n" +
+            "        return new HttpLogOptions().setLogLevel(HttpLogDetailLevel.BODY_AND_HEADERS);\n" +
+            "    }\n" +
+            "}\n";
+
+    private StartupTraining() {
+    }
+
+    /**
+     * Entry point of the training run
+     * @param args unused
+     * @throws IOException if the generated module cannot be written or migrated
+     */
+    public static void main(String[] args) throws IOException {
+        int recipeClasses = loadRecipeClasses();
+        List<String> declaredRecipes = RecipeLoader.declaredRecipes();
+        for (String recipe : declaredRecipes) {
+            RecipeLoader.load(recipe);
+        }
+        Path root = Files.createTempDirectory("startup-training");
+        try {
+            Path sources = root.resolve("module/src/main/java/com/example");
+            Files.createDirectories(sources);
+            Files.write(root.resolve("module/pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+            Files.write(sources.resolve("Client.java"), CLIENT_SOURCE.getBytes(StandardCharsets.UTF_8));
+            Files.write(sources.resolve("Policy.java"), POLICY_SOURCE.getBytes(StandardCharsets.UTF_8));
+            RunnerOptions options = RunnerOptions.parse("--parallelism", "1", root.toString());
+            MigrationRunner.printSummary(new MigrationRunner(options).run(), options, System.out);
+        } finally {
+            delete(root);
+        }
+        System.out.printf("Loaded %d recipe classes and %d declared recipes%n", recipeClasses, declaredRecipes.size());
+    }
+
+    /**
+     * Method to load every class of the recipes package, anonymous and nested visitors included
+     * @return the number of loaded classes
+     * @throws IOException if the jar or the directory of the recipes cannot be read
+     */
+    static int loadRecipeClasses() throws IOException {
+        List<String> classNames = new ArrayList<>();
+        Path location;
+        try {
+            location = Paths.get(InstrumentedRecipe.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+        } catch (URISyntaxException e) {
+            throw new IOException("Cannot locate the recipes", e);
+        }
+        if (Files.isDirectory(location)) {
+            Path recipePackage = location.resolve(RECIPE_PACKAGE);
+            try (Stream<Path> files = Files.list(recipePackage)) {
+                files.forEach(file -> addClassName(RECIPE_PACKAGE + file.getFileName(), classNames));
+            }
+        } else {
+            try (JarFile jar = new JarFile(location.toFile())) {
+                for (Enumeration<JarEntry> entries = jar.entries(); entries.hasMoreElements();) {
+                    String name = entries.nextElement().getName();
+                    // Only the recipes package itself, the runner is loaded by the dry run
+                    if (name.startsWith(RECIPE_PACKAGE) && name.indexOf('/', RECIPE_PACKAGE.length()) < 0) {
+                        addClassName(name, classNames);
+                    }
+                }
+            }
+        }
+        ClassLoader classLoader = StartupTraining.class.getClassLoader();
+        int loaded = 0;
+        for (String className : classNames) {
+            try {
+                Class.forName(className, true, classLoader);
+                loaded++;
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Classes that need an optional dependency are left to the runs that use them
+            }
+        }
+        return loaded;
+    }
+
+    private static void addClassName(String entryName, List<String> classNames) {
+        if (entryName.endsWith(".class")) {
+            classNames.add(entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.'));
+        }
+    }
+
+    private static void delete(Path root) throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
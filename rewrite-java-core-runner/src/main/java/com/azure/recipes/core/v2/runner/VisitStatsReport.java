@@ -0,0 +1,115 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.azure.recipes.core.v2.RecipeVisitStats;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * VisitStatsReport writes the RecipeVisitStats rows of a run to a file.
+ * A .csv file has one line per recipe step and source file. Any other file is written as JSON, with the
+ * totals of every recipe step, slowest first, followed by the rows of every source file:
+ * --------------------------------------------------
+ * {"recipes": [{"recipe": ..., "files": ..., "visitNanos": ..., "visitedNodes": ..., "edits": ..., "templateApplications": ...}],
+ *  "files": [{"recipe": ..., "sourcePath": ..., "visitNanos": ..., "visitedNodes": ..., "edits": ..., "templateApplications": ...}]}
+ * --------------------------------------------------
+ */
+final class VisitStatsReport {
+
+    private VisitStatsReport() {
+    }
+
+    /**
+     * Method to write the visit statistics of all modules, in module order
+     * @param results the results of a run
+     * @param reportFile the file to write
+     * @throws IOException if the report cannot be written
+     */
+    static void write(List<ModuleResult> results, Path reportFile) throws IOException {
+        List<RecipeVisitStats.Row> rows = new ArrayList<>();
+        for (ModuleResult result : results) {
+            rows.addAll(result.getVisitStats());
+        }
+        if (reportFile.getParent() != null) {
+            Files.createDirectories(reportFile.getParent());
+        }
+        try (Writer writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+            if (reportFile.getFileName().toString().endsWith(".csv")) {
+                writeCsv(rows, writer);
+            } else {
+                writeJson(rows, writer);
+            }
+        }
+    }
+
+    private static void writeCsv(List<RecipeVisitStats.Row> rows, Writer writer) throws IOException {
+        writer.write("recipe,sourcePath,visitNanos,visitedNodes,edits,templateApplications\n");
+        for (RecipeVisitStats.Row row : rows) {
+            writer.write(csv(row.getRecipe()) + ',' + csv(row.getSourcePath()) + ',' + row.getVisitNanos() + ','
+                    + row.getVisitedNodes() + ',' + row.getEdits() + ',' + row.getTemplateApplications() + '\n');
+        }
+    }
+
+    private static void writeJson(List<RecipeVisitStats.Row> rows, Writer writer) throws IOException {
+        Map<String, long[]> totals = new LinkedHashMap<>();
+        for (RecipeVisitStats.Row row : rows) {
+            long[] total = totals.computeIfAbsent(row.getRecipe(), recipe -> new long[5]);
+            total[0]++;
+            total[1] += row.getVisitNanos();
+            total[2] += row.getVisitedNodes();
+            total[3] += row.getEdits();
+            total[4] += row.getTemplateApplications();
+        }
+        List<Map.Entry<String, long[]>> slowestFirst = new ArrayList<>(totals.entrySet());
+        slowestFirst.sort(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[1]).reversed());
+
+        writer.write("{\n  \"recipes\": [");
+        String separator = "\n";
+        for (Map.Entry<String, long[]> entry : slowestFirst) {
+            long[] total = entry.getValue();
+            writer.write(separator + "    {\"recipe\": " + json(entry.getKey()) + ", \"files\": " + total[0]
+                    + ", \"visitNanos\": " + total[1] + ", \"visitedNodes\": " + total[2] + ", \"edits\": " + total[3]
+                    + ", \"templateApplications\": " + total[4] + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ],\n  \"files\": [");
+        separator = "\n";
+        for (RecipeVisitStats.Row row : rows) {
+            writer.write(separator + "    {\"recipe\": " + json(row.getRecipe()) + ", \"sourcePath\": " + json(row.getSourcePath())
+                    + ", \"visitNanos\": " + row.getVisitNanos() + ", \"visitedNodes\": " + row.getVisitedNodes()
+                    + ", \"edits\": " + row.getEdits() + ", \"templateApplications\": " + row.getTemplateApplications() + "}");
+            separator = ",\n";
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static String csv(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String json(String value) {
+        StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"').toString();
+    }
+}
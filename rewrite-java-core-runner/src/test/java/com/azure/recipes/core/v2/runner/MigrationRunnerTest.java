@@ -0,0 +1,489 @@
+package com.azure.recipes.core.v2.runner;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * MigrationRunnerTest is used to test that the runner discovers the modules of a reactor and migrates
+ * them in parallel, either to a patch or in place.
+ */
+public class MigrationRunnerTest {
+
+    @Language("java")
+    private static final String SAMPLE = "package com.example;\n" +
+            "\n" +
+            "import com.azure.core.util.Context;\n" +
+            "\n" +
+            "public class Sample {\n" +
+            "    public Context context() {\n" +
+            "        return Context.NONE;\n" +
+            "    }\n" +
+            "}\n";
+
+    @Language("java")
+    private static final String PLAIN = "package com.example;\n" +
+            "\n" +
+            "public class Plain {\n" +
+            "}\n";
+
+    @TempDir
+    Path root;
+
+    /**
+     * This test method is used to make sure that only directories with a pom.xml and Java sources are modules
+     */
+    @Test
+    void testDiscoverModules() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+        writeModule("module-a/target/generated", "Sample.java", SAMPLE);
+        Files.write(root.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+
+        List<MavenModule> modules = MavenModule.discover(root);
+
+        assertThat(modules).extracting(MavenModule::getDirectory)
+                .containsExactly(root.resolve("module-a"), root.resolve("module-b"));
+    }
+
+    /**
+     * This test method is used to make sure that a dry run writes a patch and leaves the sources unchanged
+     */
+    @Test
+    void testDryRunWritesPatch() throws IOException {
+        Path sample = writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+
+        List<ModuleResult> results = new MigrationRunner(RunnerOptions.parse("--parallelism", "2", root.toString())).run();
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getErrors()).isEmpty());
+        assertThat(results.get(0).getChangedFiles()).hasSize(1);
+        assertThat(results.get(1).getChangedFiles()).isEmpty();
+        String patch = new String(Files.readAllBytes(root.resolve("target/rewrite/rewrite.patch")), StandardCharsets.UTF_8);
+        assertThat(patch).contains("+        return Context.none();");
+        assertThat(new String(Files.readAllBytes(sample), StandardCharsets.UTF_8)).isEqualTo(SAMPLE);
+    }
+
+    /**
+     * This test method is used to make sure that the changes are written to the sources with --apply
+     */
+    @Test
+    void testApplyWritesSources() throws IOException {
+        Path sample = writeModule("module-a", "Sample.java", SAMPLE);
+
+        new MigrationRunner(RunnerOptions.parse("--apply", root.toString())).run();
+
+        assertThat(new String(Files.readAllBytes(sample), StandardCharsets.UTF_8))
+                .contains("import io.clientcore.core.util.Context;")
+                .contains("return Context.none();");
+        assertThat(root.resolve("target/rewrite/rewrite.patch")).doesNotExist();
+    }
+
+    /**
+     * This test method is used to make sure that files left unchanged are skipped by the next run with --cache-dir
+     * and parsed again once they change or the recipe changes
+     */
+    @Test
+    void testCacheSkipsUnchangedFiles() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        Path plain = writeModule("module-b", "Plain.java", PLAIN);
+        String cacheDirectory = root.resolve("cache").toString();
+
+        List<ModuleResult> first = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+        List<ModuleResult> second = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+
+        assertThat(first).extracting(ModuleResult::getSkippedFiles).containsExactly(0, 0);
+        assertThat(second).extracting(ModuleResult::getSkippedFiles).containsExactly(0, 1);
+        assertThat(second.get(0).getChangedFiles()).hasSize(1);
+        String patch = new String(Files.readAllBytes(root.resolve("target/rewrite/rewrite.patch")), StandardCharsets.UTF_8);
+        assertThat(patch).contains("+        return Context.none();");
+
+        Files.write(plain, PLAIN.replace("Plain {", "Plain {\n    int value;").getBytes(StandardCharsets.UTF_8));
+        List<ModuleResult> edited = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+        List<ModuleResult> otherRecipe = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory,
+                "--recipe", "com.azure.recipes.core.v2.ContextRecipe", root.toString())).run();
+
+        assertThat(edited).extracting(ModuleResult::getSkippedFiles).containsExactly(0, 0);
+        assertThat(otherRecipe).extracting(ModuleResult::getSkippedFiles).containsExactly(0, 0);
+    }
+
+    /**
+     * This test method is used to make sure that a change to a source invalidates the cached files of its whole
+     * module, whose types the other sources see, and not those of the other modules
+     */
+    @Test
+    void testCacheInvalidatesModuleOfChangedSource() throws IOException {
+        writeModule("module-a", "Plain.java", PLAIN);
+        Path plain = writeModule("module-b", "Plain.java", PLAIN);
+        writeModule("module-b", "Other.java", PLAIN.replace("Plain", "Other"));
+        String cacheDirectory = root.resolve("cache").toString();
+
+        new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+        Files.write(plain, PLAIN.replace("Plain {", "Plain {\n    int value;").getBytes(StandardCharsets.UTF_8));
+        List<ModuleResult> edited = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+
+        assertThat(edited).extracting(ModuleResult::getSkippedFiles).containsExactly(1, 0);
+    }
+
+    /**
+     * This test method is used to make sure that the cache is keyed by the contents of the sources, so that it still
+     * hits when the files are touched without being changed, as in a fresh checkout
+     */
+    @Test
+    void testCacheHitsTouchedSources() throws IOException {
+        Path plain = writeModule("module-a", "Plain.java", PLAIN);
+        Path other = writeModule("module-a", "Other.java", PLAIN.replace("Plain", "Other"));
+        String cacheDirectory = root.resolve("cache").toString();
+
+        new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+        FileTime later = FileTime.fromMillis(Files.getLastModifiedTime(plain).toMillis() + 3_600_000);
+        Files.setLastModifiedTime(plain, later);
+        Files.setLastModifiedTime(other, later);
+        List<ModuleResult> touched = new MigrationRunner(RunnerOptions.parse("--cache-dir", cacheDirectory, root.toString())).run();
+
+        assertThat(touched).extracting(ModuleResult::getSkippedFiles).containsExactly(2);
+    }
+
+    /**
+     * This test method is used to make sure that a run with --lst-cache loads the LSTs parsed by the previous run
+     * and produces the same patch, and that a changed source is parsed again
+     */
+    @Test
+    void testLstCacheLoadsParsedSources() throws IOException {
+        Path sample = writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+        String lstCache = root.resolve("lst-cache").toString();
+        Path patchFile = root.resolve("target/rewrite/rewrite.patch");
+
+        List<ModuleResult> first = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+        String firstPatch = new String(Files.readAllBytes(patchFile), StandardCharsets.UTF_8);
+        List<ModuleResult> second = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+        String secondPatch = new String(Files.readAllBytes(patchFile), StandardCharsets.UTF_8);
+
+        assertThat(first).extracting(ModuleResult::getCachedLsts).containsExactly(0, 0);
+        assertThat(second).extracting(ModuleResult::getCachedLsts).containsExactly(1, 1);
+        assertThat(second).allSatisfy(result -> assertThat(result.getErrors()).isEmpty());
+        assertThat(secondPatch).isEqualTo(firstPatch).contains("+        return Context.none();");
+
+        Files.write(sample, SAMPLE.replace("Sample {", "Sample {\n    int value;").getBytes(StandardCharsets.UTF_8));
+        List<ModuleResult> edited = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+
+        assertThat(edited).extracting(ModuleResult::getCachedLsts).containsExactly(0, 1);
+        assertThat(edited.get(0).getChangedFiles()).hasSize(1);
+    }
+
+    /**
+     * This test method is used to make sure that the LSTs parsed against a classpath are loaded again when a class of
+     * the classpath is only touched, and parsed again when it is recompiled with another signature
+     */
+    @Test
+    void testLstCacheParsesAgainAfterRecompiledDependency() throws IOException {
+        writeModule("module-a", "User.java", "package com.example;\n" +
+                "\n" +
+                "public class User {\n" +
+                "    com.dependency.Dependency dependency;\n" +
+                "}\n");
+        Path dependencyClasses = root.resolve("dependency/target/classes");
+        compile("Dependency.java", "package com.dependency;\npublic class Dependency {\n}\n", dependencyClasses);
+        Files.write(root.resolve("module-a/target/classpath.txt"), dependencyClasses.toString().getBytes(StandardCharsets.UTF_8));
+        Path dependencyClass = dependencyClasses.resolve("com/dependency/Dependency.class");
+        String lstCache = root.resolve("lst-cache").toString();
+
+        List<ModuleResult> first = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+        Files.setLastModifiedTime(dependencyClass,
+                FileTime.fromMillis(Files.getLastModifiedTime(dependencyClass).toMillis() + 3_600_000));
+        List<ModuleResult> touched = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+        compile("Dependency.java", "package com.dependency;\npublic class Dependency {\n    public int value() {\n        return 1;\n    }\n}\n",
+                dependencyClasses);
+        List<ModuleResult> recompiled = new MigrationRunner(RunnerOptions.parse("--lst-cache", lstCache, root.toString())).run();
+
+        assertThat(first).extracting(ModuleResult::getCachedLsts).containsExactly(0);
+        assertThat(touched).extracting(ModuleResult::getCachedLsts).containsExactly(1);
+        assertThat(recompiled).extracting(ModuleResult::getCachedLsts).containsExactly(0);
+    }
+
+    /**
+     * This test method is used to make sure that migrating a module in batches with --batch-size writes the same
+     * patch as migrating it at once, with and without compiled classes
+     */
+    @Test
+    void testBatchesWriteSamePatch() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-a", "Other.java", SAMPLE.replace("Sample", "Other"));
+        writeModule("module-a", "Plain.java", PLAIN);
+        writeModule("module-b", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+        Files.createDirectories(root.resolve("module-a/target/classes"));
+        Path patchFile = root.resolve("target/rewrite/rewrite.patch");
+
+        // One module at a time, so that the diffs of both runs are streamed in the same order
+        new MigrationRunner(RunnerOptions.parse("--parallelism", "1", root.toString())).run();
+        String patch = new String(Files.readAllBytes(patchFile), StandardCharsets.UTF_8);
+        List<ModuleResult> batched = new MigrationRunner(RunnerOptions.parse("--parallelism", "1", "--batch-size", "1",
+                root.toString())).run();
+        String batchedPatch = new String(Files.readAllBytes(patchFile), StandardCharsets.UTF_8);
+
+        assertThat(batched).allSatisfy(result -> assertThat(result.getErrors()).isEmpty());
+        assertThat(batched).extracting(result -> result.getChangedFiles().size()).containsExactly(2, 1);
+        assertThat(batchedPatch).isEqualTo(patch);
+    }
+
+    /**
+     * This test method is used to make sure that --patch-shards and --patch-gzip write one compressed patch
+     * per module with changes
+     */
+    @Test
+    void testShardedGzipPatches() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+        writeModule("group/module-c", "Sample.java", SAMPLE);
+
+        List<ModuleResult> results = new MigrationRunner(RunnerOptions.parse("--patch-shards", "--patch-gzip",
+                root.toString())).run();
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getErrors()).isEmpty());
+        Path patches = root.resolve("target/rewrite");
+        assertThat(gunzip(patches.resolve("module-a.patch.gz"))).contains("+        return Context.none();")
+                .contains("module-a/src/main/java/com/example/Sample.java");
+        assertThat(gunzip(patches.resolve("group-module-c.patch.gz"))).contains("+        return Context.none();");
+        assertThat(patches.resolve("module-b.patch.gz")).doesNotExist();
+        assertThat(patches.resolve("rewrite.patch.gz")).doesNotExist();
+    }
+
+    /**
+     * This test method is used to make sure that --prescan leaves out the sources without azure names, with and
+     * without a cache, and is refused for recipes it has no names for
+     */
+    @Test
+    void testPrescanLeavesOutUnrelatedSources() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-a", "Plain.java", PLAIN);
+        Files.createDirectories(root.resolve("module-a/target/classes"));
+
+        List<ModuleResult> results = new MigrationRunner(RunnerOptions.parse("--prescan", root.toString())).run();
+        List<ModuleResult> cached = new MigrationRunner(RunnerOptions.parse("--prescan", "--cache-dir",
+                root.resolve("cache").toString(), root.toString())).run();
+
+        assertThat(results.get(0).getErrors()).isEmpty();
+        assertThat(results.get(0).getPrescannedOutFiles()).isEqualTo(1);
+        assertThat(results.get(0).getChangedFiles()).hasSize(1);
+        assertThat(cached.get(0).getPrescannedOutFiles()).isEqualTo(1);
+        assertThat(cached.get(0).getChangedFiles()).hasSize(1);
+        assertThatThrownBy(() -> RunnerOptions.parse("--prescan", "--recipe", "org.openrewrite.java.OrderImports"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /**
+     * This test method is used to make sure that --since only migrates the modules and sources changed by a
+     * revision range
+     */
+    @Test
+    void testSinceMigratesChangedSources() throws IOException, InterruptedException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Plain.java", PLAIN);
+        git("init", "-q");
+        git("add", ".");
+        git("commit", "-q", "-m", "base");
+        Path changed = writeModule("module-b", "Sample.java", SAMPLE);
+        git("add", ".");
+        git("commit", "-q", "-m", "change");
+
+        List<ModuleResult> results = new MigrationRunner(RunnerOptions.parse("--since", "HEAD~1..HEAD",
+                root.toString())).run();
+
+        assertThat(results).extracting(ModuleResult::getModule).extracting(MavenModule::getDirectory)
+                .containsExactly(root.resolve("module-b"));
+        assertThat(results.get(0).getErrors()).isEmpty();
+        assertThat(results.get(0).getSkippedFiles()).isEqualTo(1);
+        assertThat(results.get(0).getChangedFiles()).containsExactly(root.relativize(changed));
+        assertThatThrownBy(() -> new MigrationRunner(RunnerOptions.parse("--since", "unknown..HEAD",
+                root.toString())).run()).isInstanceOf(IOException.class);
+    }
+
+    /**
+     * This test method is used to make sure that a run with --checkpoint resumes the sources a failed run completed,
+     * ignores a record cut short by the failure, and deletes the log once it completes
+     */
+    @Test
+    void testCheckpointResumesCompletedSources() throws IOException {
+        Path sample = writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-b", "Sample.java", SAMPLE);
+        Path checkpointFile = root.resolve("target/rewrite/run.checkpoint");
+        String fingerprint = IncrementalCache.fingerprint(RecipeLoader.load(RunnerOptions.DEFAULT_RECIPE)) + ":dry-run";
+        String key = IncrementalCache.fileKey(root.relativize(sample), IncrementalCache.contentHash(Files.readAllBytes(sample)),
+                LstCache.classpathHash(Collections.emptyList()), null);
+        try (CheckpointLog checkpoint = CheckpointLog.open(checkpointFile, fingerprint)) {
+            checkpoint.complete(Collections.singletonMap(key, "recorded diff of module-a\n"));
+        }
+        Files.write(checkpointFile, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<ModuleResult> results = new MigrationRunner(RunnerOptions.parse("--checkpoint", checkpointFile.toString(),
+                root.toString())).run();
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getErrors()).isEmpty());
+        assertThat(results).extracting(ModuleResult::getResumedFiles).containsExactly(1, 0);
+        assertThat(results).allSatisfy(result -> assertThat(result.getChangedFiles()).hasSize(1));
+        String patch = new String(Files.readAllBytes(root.resolve("target/rewrite/rewrite.patch")), StandardCharsets.UTF_8);
+        assertThat(patch).contains("recorded diff of module-a").contains("+        return Context.none();");
+        assertThat(checkpointFile).doesNotExist();
+    }
+
+    /**
+     * This test method is used to make sure that --report writes the statistics of every recipe step as CSV
+     */
+    @Test
+    void testReportWritesVisitStats() throws IOException {
+        writeModule("module-a", "Sample.java", SAMPLE);
+        Path report = root.resolve("target/rewrite/visit-stats.csv");
+
+        new MigrationRunner(RunnerOptions.parse("--report", report.toString(), root.toString())).run();
+
+        List<String> lines = Files.readAllLines(report, StandardCharsets.UTF_8);
+        assertThat(lines.get(0)).isEqualTo("recipe,sourcePath,visitNanos,visitedNodes,edits,templateApplications");
+        assertThat(lines).anySatisfy(line -> assertThat(line)
+                .startsWith("com.azure.recipes.core.v2.ContextRecipe,module-a/src/main/java/com/example/Sample.java,"));
+    }
+
+    /**
+     * This test method is used to make sure that the daemon serves diff and apply requests for single files, with
+     * the parser of the module kept between them, and answers invalid requests with an error
+     */
+    @Test
+    void testDaemonMigratesRequestedFiles() throws IOException {
+        Path sample = writeModule("module-a", "Sample.java", SAMPLE);
+        writeModule("module-a", "Plain.java", PLAIN);
+        MigrationDaemon daemon = new MigrationDaemon(RunnerOptions.parse("--daemon", root.toString()));
+        String requests = "{\"command\":\"ping\"}\n" +
+                "{\"command\":\"diff\",\"files\":[\"module-a/src/main/java/com/example/Sample.java\"]}\n" +
+                "{\"command\":\"diff\",\"files\":[\"../Outside.java\"]}\n" +
+                "{\"command\":\"apply\",\"files\":[\"" + sample.toString().replace('\\', '/') + "\"]}\n" +
+                "{\"command\":\"shutdown\"}\n" +
+                "{\"command\":\"ping\"}\n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        boolean shutdown = daemon.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+
+        assertThat(shutdown).isTrue();
+        ObjectMapper mapper = new ObjectMapper();
+        List<JsonNode> responses = new ArrayList<>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            responses.add(mapper.readTree(line));
+        }
+        assertThat(responses).hasSize(5);
+        assertThat(responses.get(0).path("status").asText()).isEqualTo("ok");
+        assertThat(responses.get(1).path("changedFiles").get(0).asText())
+                .isEqualTo(Paths.get("module-a/src/main/java/com/example/Sample.java").toString());
+        assertThat(responses.get(1).path("patch").asText()).contains("+        return Context.none();");
+        assertThat(responses.get(1).path("errors")).isEmpty();
+        assertThat(responses.get(2).path("status").asText()).isEqualTo("error");
+        assertThat(responses.get(3).path("changedFiles")).hasSize(1);
+        assertThat(new String(Files.readAllBytes(sample), StandardCharsets.UTF_8)).contains("return Context.none();");
+        assertThat(responses.get(4).path("status").asText()).isEqualTo("ok");
+    }
+
+    /**
+     * This test method is used to make sure that the daemon parses a module against its recompiled classes, here a
+     * builder that inherits retryOptions from an Azure SDK builder after it is compiled again
+     */
+    @Test
+    void testDaemonParsesAgainstRecompiledClasses() throws IOException {
+        writeModule("module-a", "User.java", "package com.example;\n" +
+                "\n" +
+                "public class User {\n" +
+                "    void configure(SampleClientBuilder builder) {\n" +
+                "        builder.retryOptions(null);\n" +
+                "    }\n" +
+                "}\n");
+        Path classes = root.resolve("module-a/target/classes");
+        compile("SampleClientBuilder.java", "package com.example;\n" +
+                "public class SampleClientBuilder {\n" +
+                "    public SampleClientBuilder retryOptions(Object options) {\n" +
+                "        return this;\n" +
+                "    }\n" +
+                "}\n", classes);
+        MigrationDaemon daemon = new MigrationDaemon(RunnerOptions.parse("--daemon", root.toString()));
+        String request = "{\"command\":\"diff\",\"files\":[\"module-a/src/main/java/com/example/User.java\"]}\n";
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        daemon.serve(new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)), first);
+
+        compile("BaseClientBuilder.java", "package com.azure.example;\n" +
+                "public class BaseClientBuilder {\n" +
+                "    public BaseClientBuilder retryOptions(Object options) {\n" +
+                "        return this;\n" +
+                "    }\n" +
+                "}\n", classes);
+        compile("SampleClientBuilder.java", "package com.example;\n" +
+                "public class SampleClientBuilder extends com.azure.example.BaseClientBuilder {\n" +
+                "}\n", classes);
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        daemon.serve(new ByteArrayInputStream(request.getBytes(StandardCharsets.UTF_8)), second);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode before = mapper.readTree(new String(first.toByteArray(), StandardCharsets.UTF_8));
+        JsonNode after = mapper.readTree(new String(second.toByteArray(), StandardCharsets.UTF_8));
+        assertThat(before.path("status").asText()).isEqualTo("ok");
+        assertThat(before.path("changedFiles")).isEmpty();
+        assertThat(after.path("changedFiles")).hasSize(1);
+        assertThat(after.path("patch").asText()).contains("+        builder.httpRetryOptions(null);");
+    }
+
+    private void git(String... args) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>(Arrays.asList("git", "-c", "user.name=test", "-c", "user.email=test@example.com"));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(root.toFile()).inheritIO().start();
+        assertThat(process.waitFor()).isEqualTo(0);
+    }
+
+    private static String gunzip(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private void compile(String fileName, String source, Path outputDirectory) throws IOException {
+        Path sourceFile = root.resolve("compile").resolve(Integer.toHexString(source.hashCode())).resolve(fileName);
+        Files.createDirectories(sourceFile.getParent());
+        Files.createDirectories(outputDirectory);
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        assertThat(compiler.run(null, null, null, "-cp", outputDirectory.toString(), "-d", outputDirectory.toString(),
+                sourceFile.toString())).isEqualTo(0);
+    }
+
+    private Path writeModule(String module, String fileName, String source) throws IOException {
+        Path moduleDirectory = root.resolve(module);
+        Path sourceFile = moduleDirectory.resolve("src/main/java/com/example").resolve(fileName);
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(moduleDirectory.resolve("pom.xml"), "<project/>".getBytes(StandardCharsets.UTF_8));
+        Files.write(sourceFile, source.getBytes(StandardCharsets.UTF_8));
+        return sourceFile;
+    }
+}
@@ -0,0 +1,138 @@
+package com.azure.recipes.core.v2.runtime;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+/**
+ * Types is the factory that code migrated by TypeReferenceRecipe with parameterizedTypeFactory calls instead of
+ * declaring an anonymous ParameterizedType class at every call site.
+ * For example:
+ * --------------------------------------------------
+ *  Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Foo.class))
+ * --------------------------------------------------
+ * returns the type of Map&lt;String, List&lt;Foo&gt;&gt;. Equal types are interned, so every call for the same
+ * generic type returns the same instance and serializers that cache per type hit the same entry.
+ * The returned types are equal to the ones of the JDK, e.g. to the generic type of a field, by the
+ * equals contract of ParameterizedType.
+ * --------------------------------------------------
+ * The interned types are held weakly, in a table per raw type attached to its class with a ClassValue:
+ * a type is dropped once nothing else refers to it, and the table of a raw type is dropped with its class,
+ * so interning does not keep the classes of an unloaded class loader, e.g. of an undeployed application.
+ * --------------------------------------------------
+ */
+public final class Types {
+
+    // The interned types of each raw type, by themselves; both the keys and the values are weak
+    private static final ClassValue<Map<ParameterizedType, WeakReference<ParameterizedType>>> INTERNED =
+            new ClassValue<Map<ParameterizedType, WeakReference<ParameterizedType>>>() {
+                @Override
+                protected Map<ParameterizedType, WeakReference<ParameterizedType>> computeValue(Class<?> rawType) {
+                    return new WeakHashMap<>();
+                }
+            };
+
+    private Types() {
+    }
+
+    /**
+     * Method to return the parameterized type of a raw type and its type arguments
+     * @param rawType the raw type, e.g. List.class
+     * @param typeArguments the type arguments, e.g. String.class
+     * @return the interned parameterized type, owned by the declaring class of the raw type, if any
+     */
+    public static ParameterizedType parameterized(Class<?> rawType, Type... typeArguments) {
+        Objects.requireNonNull(rawType, "'rawType' cannot be null.");
+        for (Type typeArgument : typeArguments) {
+            Objects.requireNonNull(typeArgument, "'typeArguments' cannot contain null.");
+        }
+        ParameterizedType type = new ParameterizedTypeImpl(rawType, typeArguments.clone());
+        Map<ParameterizedType, WeakReference<ParameterizedType>> interned = INTERNED.get(rawType);
+        synchronized (interned) {
+            WeakReference<ParameterizedType> reference = interned.get(type);
+            ParameterizedType existing = reference == null ? null : reference.get();
+            if (existing != null) {
+                return existing;
+            }
+            interned.put(type, new WeakReference<>(type));
+            return type;
+        }
+    }
+
+    /**
+     * Method to return the number of interned types of a raw type that are still referenced
+     * @param rawType the raw type
+     * @return the number of types
+     */
+    static int internedCount(Class<?> rawType) {
+        Map<ParameterizedType, WeakReference<ParameterizedType>> interned = INTERNED.get(rawType);
+        synchronized (interned) {
+            return interned.size();
+        }
+    }
+
+    private static final class ParameterizedTypeImpl implements ParameterizedType {
+        private final Class<?> rawType;
+        private final Type[] typeArguments;
+        private final Class<?> ownerType;
+        private final int hashCode;
+
+        private ParameterizedTypeImpl(Class<?> rawType, Type[] typeArguments) {
+            this.rawType = rawType;
+            this.typeArguments = typeArguments;
+            // Same owner and hash code as the JDK implementation, e.g. Map for Map.Entry
+            this.ownerType = rawType.getDeclaringClass();
+            this.hashCode = Arrays.hashCode(typeArguments) ^ Objects.hashCode(ownerType) ^ rawType.hashCode();
+        }
+
+        @Override
+        public Type[] getActualTypeArguments() {
+            return typeArguments.clone();
+        }
+
+        @Override
+        public Type getRawType() {
+            return rawType;
+        }
+
+        @Override
+        public Type getOwnerType() {
+            return ownerType;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ParameterizedType)) {
+                return false;
+            }
+            ParameterizedType other = (ParameterizedType) o;
+            return Objects.equals(ownerType, other.getOwnerType())
+                    && rawType.equals(other.getRawType())
+                    && Arrays.equals(typeArguments, other.getActualTypeArguments());
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder name = new StringBuilder(rawType.getTypeName()).append('<');
+            for (int i = 0; i < typeArguments.length; i++) {
+                if (i > 0) {
+                    name.append(", ");
+                }
+                name.append(typeArguments[i].getTypeName());
+            }
+            return name.append('>').toString();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.azure.recipes.core.v2.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TypesTest is used to test out the ParameterizedType factory that migrated TypeReferences call
+ */
+public class TypesTest {
+
+    private Map<String, List<Integer>> field;
+
+    private Map.Entry<String, Integer> entry;
+
+    /**
+     * This test method is used to make sure that the same generic type is returned as the same instance
+     */
+    @Test
+    void testEqualTypesAreInterned() {
+        ParameterizedType first = Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Integer.class));
+        int count = Types.internedCount(Map.class);
+        ParameterizedType second = Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Integer.class));
+
+        assertThat(second).isSameAs(first);
+        assertThat(Types.internedCount(Map.class)).isEqualTo(count);
+        assertThat(Types.parameterized(List.class, String.class)).isNotEqualTo(Types.parameterized(List.class, Integer.class));
+    }
+
+    /**
+     * This test method is used to make sure that the returned type is equal to the one of the JDK
+     */
+    @Test
+    void testEqualToReflectedType() throws NoSuchFieldException {
+        Type reflected = TypesTest.class.getDeclaredField("field").getGenericType();
+        ParameterizedType type = Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Integer.class));
+
+        assertThat(type).isEqualTo(reflected);
+        assertThat(reflected).isEqualTo(type);
+        assertThat(type.hashCode()).isEqualTo(reflected.hashCode());
+        assertThat(type.getTypeName()).isEqualTo(reflected.getTypeName())
+                .isEqualTo("java.util.Map<java.lang.String, java.util.List<java.lang.Integer>>");
+        assertThat(type.getRawType()).isEqualTo(Map.class);
+        assertThat(type.getOwnerType()).isNull();
+    }
+
+    /**
+     * This test method is used to make sure that the type of a member class is owned by its declaring class and
+     * equal to the one of the JDK
+     */
+    @Test
+    void testEqualToReflectedNestedType() throws NoSuchFieldException {
+        Type reflected = TypesTest.class.getDeclaredField("entry").getGenericType();
+        ParameterizedType type = Types.parameterized(Map.Entry.class, String.class, Integer.class);
+
+        assertThat(type).isEqualTo(reflected);
+        assertThat(reflected).isEqualTo(type);
+        assertThat(type.hashCode()).isEqualTo(reflected.hashCode());
+        assertThat(type.getTypeName()).isEqualTo(reflected.getTypeName())
+                .isEqualTo("java.util.Map$Entry<java.lang.String, java.lang.Integer>");
+        assertThat(type.getRawType()).isEqualTo(Map.Entry.class);
+        assertThat(type.getOwnerType()).isEqualTo(Map.class);
+    }
+
+    /**
+     * This test method is used to make sure that callers cannot change the type arguments of an interned type
+     */
+    @Test
+    void testTypeArgumentsAreCopied() {
+        Type[] typeArguments = { String.class };
+        ParameterizedType type = Types.parameterized(List.class, typeArguments);
+        typeArguments[0] = Integer.class;
+        type.getActualTypeArguments()[0] = Integer.class;
+
+        assertThat(type.getActualTypeArguments()).containsExactly(String.class);
+    }
+}
@@ -0,0 +1,405 @@
+package com.azure.recipes.core.v2;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * TypeTableGenerator turns a classpath jar into a type table: a jar of the same classes that only keeps
+ * what a parser needs to attribute types, i.e. the signatures of the classes and of their non-private members.
+ * Method bodies, debug information and private members are removed, the way the JDK strips its ct.sym
+ * classes. Javac resolves types, methods, fields, generics, constants and annotations from the table as it
+ * does from the original jar.
+ * The parameter names of a method are kept in a MethodParameters attribute, built from the LocalVariableTable of
+ * its Code attribute, so that parsers read the same names as from the original jar instead of arg0 to argN.
+ * Methods that already have a MethodParameters attribute, and classes older than Java 8, keep what they have.
+ * --------------------------------------------------
+ * The build runs it on src/main/typetable/core-1.0.0-beta.1.jar, see pom.xml, and packages the table as
+ * META-INF/rewrite/classpath/core-1.0.0-beta.1.jar, where JavaParser.Builder.classpathFromResources finds it.
+ * The generator is in the src/build/java source set, which the build compiles to run it and the tests compile to
+ * test it, and is not packaged with the recipes.
+ * --------------------------------------------------
+ * Usage:
+ * java com.azure.recipes.core.v2.TypeTableGenerator input.jar output.jar
+ * --------------------------------------------------
+ */
+public final class TypeTableGenerator {
+
+    private static final int ACC_PRIVATE = 0x0002;
+
+    private static final int ACC_STATIC = 0x0008;
+
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    private static final int ACC_MANDATED = 0x8000;
+
+    // The first class file version with MethodParameters attributes, Java 8
+    private static final int MAJOR_VERSION_METHOD_PARAMETERS = 52;
+
+    private static final String METHOD_PARAMETERS = "MethodParameters";
+
+    // Attributes that only matter to the JVM running the code or to a debugger
+    private static final Set<String> STRIPPED_ATTRIBUTES = new HashSet<>(Arrays.asList(
+            "Code", "SourceFile", "SourceDebugExtension", "BootstrapMethods"));
+
+    // Entries are dated at the start of the zip epoch so that the table of the same jar is always the same
+    private static final long ENTRY_TIME = 315532800000L;
+
+    private TypeTableGenerator() {
+    }
+
+    /**
+     * Entry point of the generator
+     * @param args the jar to read and the type table to write
+     * @throws IOException if the jar cannot be read or the table cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: java " + TypeTableGenerator.class.getName() + " input.jar output.jar");
+            System.exit(2);
+            return;
+        }
+        generate(Paths.get(args[0]), Paths.get(args[1]));
+    }
+
+    /**
+     * Method to write the type table of a jar
+     * @param jar the jar to read
+     * @param table the type table to write, replaced if it exists
+     * @throws IOException if the jar cannot be read, holds a malformed class, or the table cannot be written
+     */
+    public static void generate(Path jar, Path table) throws IOException {
+        // Sorted so that the table does not depend on the order of the entries in the jar
+        Map<String, byte[]> classes = new TreeMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(jar))) {
+            for (ZipEntry entry = in.getNextEntry(); entry != null; entry = in.getNextEntry()) {
+                if (!entry.isDirectory() && entry.getName().endsWith(".class")) {
+                    classes.put(entry.getName(), strip(readAll(in)));
+                }
+            }
+        }
+        if (table.getParent() != null) {
+            Files.createDirectories(table.getParent());
+        }
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(table))) {
+            out.setLevel(9);
+            for (Map.Entry<String, byte[]> entry : classes.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                zipEntry.setTime(ENTRY_TIME);
+                out.putNextEntry(zipEntry);
+                out.write(entry.getValue());
+                out.closeEntry();
+            }
+        }
+    }
+
+    /**
+     * Method to remove the method bodies, the debug attributes and the private members of a class file.
+     * The constant pool is copied as is, so the indexes of the remaining structures stay valid; only a
+     * MethodParameters name is added at its end if a method needs one.
+     * @param classFile the bytes of the class file
+     * @return the bytes of the stripped class file
+     * @throws IOException if the class file is malformed
+     */
+    static byte[] strip(byte[] classFile) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(classFile));
+        int magic = in.readInt();
+        if (magic != 0xCAFEBABE) {
+            throw new IOException("Not a class file");
+        }
+        int minorVersion = in.readUnsignedShort();
+        int majorVersion = in.readUnsignedShort();
+        ByteArrayOutputStream poolBytes = new ByteArrayOutputStream();
+        ConstantPool pool = copyConstantPool(in, new DataOutputStream(poolBytes),
+                majorVersion >= MAJOR_VERSION_METHOD_PARAMETERS);
+
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream(classFile.length);
+        DataOutputStream body = new DataOutputStream(bodyBytes);
+        // Access flags, this class and super class
+        copy(in, body, 6);
+        int interfaces = in.readUnsignedShort();
+        body.writeShort(interfaces);
+        copy(in, body, 2 * interfaces);
+        copyMembers(in, body, pool, false);
+        copyMembers(in, body, pool, true);
+        copyAttributes(in, body, pool, null);
+        body.flush();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(classFile.length);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(magic);
+        out.writeShort(minorVersion);
+        out.writeShort(majorVersion);
+        out.writeShort(pool.count);
+        poolBytes.writeTo(out);
+        if (pool.addedMethodParameters) {
+            out.writeByte(1);
+            out.writeUTF(METHOD_PARAMETERS);
+        }
+        bodyBytes.writeTo(out);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Method to copy the entries of the constant pool and return its UTF-8 entries by index, to look up
+     * attribute names; the count is left to the caller, since an entry may be added
+     */
+    private static ConstantPool copyConstantPool(DataInputStream in, DataOutputStream out, boolean methodParameters)
+            throws IOException {
+        int count = in.readUnsignedShort();
+        String[] utf8 = new String[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            out.writeByte(tag);
+            switch (tag) {
+                case 1:
+                    utf8[i] = in.readUTF();
+                    out.writeUTF(utf8[i]);
+                    break;
+                case 7: case 8: case 16: case 19: case 20:
+                    copy(in, out, 2);
+                    break;
+                case 15:
+                    copy(in, out, 3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    copy(in, out, 4);
+                    break;
+                case 5: case 6:
+                    // Longs and doubles take two entries
+                    copy(in, out, 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Unknown constant pool tag " + tag);
+            }
+        }
+        out.flush();
+        return new ConstantPool(utf8, methodParameters);
+    }
+
+    /**
+     * Method to copy the fields or the methods of a class, without the private ones
+     */
+    private static void copyMembers(DataInputStream in, DataOutputStream out, ConstantPool pool, boolean methods)
+            throws IOException {
+        int count = in.readUnsignedShort();
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        DataOutputStream keptOut = new DataOutputStream(kept);
+        int keptCount = 0;
+        for (int i = 0; i < count; i++) {
+            int accessFlags = in.readUnsignedShort();
+            int nameIndex = in.readUnsignedShort();
+            int descriptorIndex = in.readUnsignedShort();
+            ByteArrayOutputStream member = new ByteArrayOutputStream();
+            DataOutputStream memberOut = new DataOutputStream(member);
+            memberOut.writeShort(accessFlags);
+            memberOut.writeShort(nameIndex);
+            memberOut.writeShort(descriptorIndex);
+            int[] parameterSlots = methods && pool.methodParameters
+                    ? parameterSlots(pool.utf8[descriptorIndex], (accessFlags & ACC_STATIC) != 0) : null;
+            copyAttributes(in, memberOut, pool, parameterSlots);
+            if ((accessFlags & ACC_PRIVATE) == 0) {
+                memberOut.flush();
+                member.writeTo(keptOut);
+                keptCount++;
+            }
+        }
+        keptOut.flush();
+        out.writeShort(keptCount);
+        kept.writeTo(out);
+    }
+
+    /**
+     * Method to copy the attributes of a class or member, without the stripped ones
+     * @param parameterSlots the local variable slots of the parameters of a method, to name them in a
+     *                       MethodParameters attribute when its Code is stripped, or null
+     */
+    private static void copyAttributes(DataInputStream in, DataOutputStream out, ConstantPool pool,
+                                       int[] parameterSlots) throws IOException {
+        int count = in.readUnsignedShort();
+        ByteArrayOutputStream kept = new ByteArrayOutputStream();
+        DataOutputStream keptOut = new DataOutputStream(kept);
+        int keptCount = 0;
+        int[] parameterNames = null;
+        boolean hasMethodParameters = false;
+        for (int i = 0; i < count; i++) {
+            int nameIndex = in.readUnsignedShort();
+            int length = in.readInt();
+            byte[] info = new byte[length];
+            in.readFully(info);
+            String name = pool.utf8[nameIndex];
+            if (METHOD_PARAMETERS.equals(name)) {
+                hasMethodParameters = true;
+            } else if ("Code".equals(name) && parameterSlots != null && parameterSlots.length > 0) {
+                parameterNames = parameterNames(info, pool, parameterSlots);
+            }
+            if (!STRIPPED_ATTRIBUTES.contains(name)) {
+                keptOut.writeShort(nameIndex);
+                keptOut.writeInt(length);
+                keptOut.write(info);
+                keptCount++;
+            }
+        }
+        if (parameterNames != null && !hasMethodParameters) {
+            keptOut.writeShort(pool.methodParametersIndex());
+            keptOut.writeInt(1 + 4 * parameterNames.length);
+            keptOut.writeByte(parameterNames.length);
+            for (int nameIndex : parameterNames) {
+                keptOut.writeShort(nameIndex);
+                keptOut.writeShort(nameIndex == 0 ? 0 : parameterFlags(pool.utf8[nameIndex]));
+            }
+            keptCount++;
+        }
+        keptOut.flush();
+        out.writeShort(keptCount);
+        kept.writeTo(out);
+    }
+
+    /**
+     * Method to return the local variable slot of each parameter of a method descriptor, e.g. 1 and 2 for
+     * (JI)V of a static method
+     */
+    private static int[] parameterSlots(String descriptor, boolean isStatic) {
+        List<Integer> slots = new ArrayList<>();
+        int slot = isStatic ? 0 : 1;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            slots.add(slot);
+            char type = descriptor.charAt(i);
+            slot += type == 'J' || type == 'D' ? 2 : 1;
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            i = descriptor.charAt(i) == 'L' ? descriptor.indexOf(';', i) + 1 : i + 1;
+        }
+        int[] result = new int[slots.size()];
+        for (int j = 0; j < result.length; j++) {
+            result[j] = slots.get(j);
+        }
+        return result;
+    }
+
+    /**
+     * Method to look up the names of the parameters of a method in the LocalVariableTable of its Code attribute,
+     * i.e. the variables that start at the first instruction in the slot of a parameter
+     * @return the constant pool index of the name of each parameter, 0 for an unnamed one, or null if the code
+     * has no LocalVariableTable
+     */
+    private static int[] parameterNames(byte[] code, ConstantPool pool, int[] parameterSlots) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(code));
+        // Max stack and max locals, the code and the exception table
+        in.skipBytes(4);
+        in.skipBytes(in.readInt());
+        in.skipBytes(8 * in.readUnsignedShort());
+        int[] names = null;
+        int attributes = in.readUnsignedShort();
+        for (int i = 0; i < attributes; i++) {
+            int nameIndex = in.readUnsignedShort();
+            int length = in.readInt();
+            if (!"LocalVariableTable".equals(pool.utf8[nameIndex])) {
+                in.skipBytes(length);
+                continue;
+            }
+            if (names == null) {
+                names = new int[parameterSlots.length];
+            }
+            int variables = in.readUnsignedShort();
+            for (int j = 0; j < variables; j++) {
+                int startPc = in.readUnsignedShort();
+                // Length of the range of the variable
+                in.skipBytes(2);
+                int variableName = in.readUnsignedShort();
+                // Descriptor of the variable
+                in.skipBytes(2);
+                int slot = in.readUnsignedShort();
+                if (startPc == 0) {
+                    for (int k = 0; k < parameterSlots.length; k++) {
+                        if (parameterSlots[k] == slot) {
+                            names[k] = variableName;
+                        }
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Method to return the MethodParameters flags of a parameter by its name, as javac writes them for the
+     * parameters it adds: the outer instance of an inner class constructor is mandated, and the name and
+     * ordinal of an enum constructor and the captured variables of a local class are synthetic
+     */
+    private static int parameterFlags(String name) {
+        if (name == null) {
+            return 0;
+        }
+        if (name.startsWith("this$")) {
+            return ACC_MANDATED;
+        }
+        return name.startsWith("$enum$") || name.startsWith("val$") ? ACC_SYNTHETIC : 0;
+    }
+
+    private static void copy(DataInputStream in, DataOutputStream out, int length) throws IOException {
+        byte[] buffer = new byte[length];
+        in.readFully(buffer);
+        out.write(buffer);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+            bytes.write(buffer, 0, read);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The UTF-8 entries of a constant pool, and the index of the MethodParameters name, added at the end of the
+     * pool the first time a method needs it if the pool does not have it
+     */
+    private static final class ConstantPool {
+        private final String[] utf8;
+        private final boolean methodParameters;
+        private int count;
+        private int methodParametersIndex;
+        private boolean addedMethodParameters;
+
+        private ConstantPool(String[] utf8, boolean methodParameters) {
+            this.utf8 = utf8;
+            this.methodParameters = methodParameters;
+            this.count = utf8.length;
+            for (int i = 1; i < utf8.length; i++) {
+                if (METHOD_PARAMETERS.equals(utf8[i])) {
+                    methodParametersIndex = i;
+                }
+            }
+        }
+
+        private int methodParametersIndex() {
+            if (methodParametersIndex == 0) {
+                methodParametersIndex = count++;
+                addedMethodParameters = true;
+            }
+            return methodParametersIndex;
+        }
+    }
+}
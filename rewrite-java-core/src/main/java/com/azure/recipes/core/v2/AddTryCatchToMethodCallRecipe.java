@@ -10,17 +10,25 @@ import org.openrewrite.internal.lang.Nullable;
 import org.openrewrite.java.JavaIsoVisitor;
 import org.openrewrite.java.JavaTemplate;
 import org.openrewrite.java.MethodMatcher;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.marker.SearchResult;
 
+import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.Value;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.MethodCall;
 import org.openrewrite.java.tree.Statement;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Supplier;
 import java.util.regex.Pattern;
 
@@ -63,6 +71,19 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
     @NonNull
     String fullyQualifiedExceptionName;
 
+    /**
+     * Try-catch skeleton shared by every visitor of this recipe instance. Not an option of the recipe.
+     */
+    @Getter(AccessLevel.NONE)
+    transient TemplateCache templateCache = new TemplateCache();
+
+    /**
+     * Simple name of the method in methodPattern, which calls are matched by when excludeOwner is set.
+     * Derived once per recipe instance. Not an option of the recipe.
+     */
+    @Getter(AccessLevel.NONE)
+    transient String methodName;
+
     /**
      * All recipes must be serializable. This is verified by RewriteTest.rewriteRun() in your tests.
      * Json creator allows your recipes to be used from a yaml file.
@@ -76,6 +97,7 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
         this.excludeOwner = excludeOwner;
         this.catchTemplateString = catchTemplateString;
         this.fullyQualifiedExceptionName = fullyQualifiedExceptionName;
+        this.methodName = methodName(methodPattern);
     }
 
 
@@ -91,12 +113,69 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
 
     /**
      * Method to return the visitor that performs the checks and changes
+     * Only files that call the method are visited. When the owner is excluded, calls are also matched
+     * by method name, so that code without type attribution is still visited.
      *
      * @return Returns the visitor that performs the checks and changes
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new AddTryCatchVisitor();
+        TreeVisitor<?, ExecutionContext> usesMethod = new UsesMethod<>(methodPattern, true);
+        if (excludeOwner) {
+            usesMethod = Preconditions.or(usesMethod, new UsesMethodNameVisitor(methodName));
+        }
+        return Preconditions.check(usesMethod, new AddTryCatchVisitor());
+    }
+
+    /**
+     * Method to extract the method name from a method pattern, e.g. toObject from
+     * com.azure.core.util.BinaryData toObject(..)
+     */
+    private static String methodName(String methodPattern) {
+        String[] parts = methodPattern.replaceAll("\\(.*?\\)", "").replaceAll("\\*", "").trim().split(" ");
+        return parts[parts.length - 1];
+    }
+
+    /**
+     * Visitor that marks a file if it contains a call to a method with the given name, whatever its owner
+     * or type attribution. Stops descending once a call has been found.
+     */
+    private static class UsesMethodNameVisitor extends JavaIsoVisitor<ExecutionContext> {
+
+        private final String methodName;
+
+        private boolean found;
+
+        UsesMethodNameVisitor(String methodName) {
+            this.methodName = methodName;
+        }
+
+        @Override
+        public J preVisit(J tree, ExecutionContext context) {
+            if (found) {
+                stopAfterPreVisit();
+            }
+            return tree;
+        }
+
+        @Override
+        public J.@NotNull CompilationUnit visitCompilationUnit(J.@NotNull CompilationUnit cu, @NotNull ExecutionContext context) {
+            found = false;
+            J.CompilationUnit visitedCu = super.visitCompilationUnit(cu, context);
+            return found ? SearchResult.found(visitedCu) : visitedCu;
+        }
+
+        @Override
+        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext context) {
+            found |= method.getSimpleName().equals(methodName);
+            return super.visitMethodInvocation(method, context);
+        }
+
+        @Override
+        public J.MemberReference visitMemberReference(J.MemberReference memberRef, ExecutionContext context) {
+            found |= memberRef.getReference().getSimpleName().equals(methodName);
+            return super.visitMemberReference(memberRef, context);
+        }
     }
 
     /**
@@ -123,15 +202,12 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
             Tree parent = getCursor().pollMessage("PARENT");
             // Get the first statement parent of method
             Statement parentStatement = getCursor().pollMessage("STATEMENT");
+            // Get the statement of this block that contains the method
+            Statement blockStatement = getCursor().pollMessage("BLOCK_STATEMENT");
 
-            JavaTemplate tryCatchTemplate = JavaTemplate.builder("try { int a = null; a = 3; } " + catchTemplateString)
-                    .imports(fullyQualifiedExceptionName)
-                    .build();
-
-            // Create an empty block to apply the try-catch template based off the cursor values from the main body
+            // Apply the try-catch template to an empty block based off the cursor values from the main body
             // This should create the correct formatting.
-            J.Block b = J.Block.createEmptyBlock();
-            b = tryCatchTemplate.apply(new Cursor(getCursor(),b), b.getCoordinates().firstStatement());
+            J.Block b = templateCache.applySkeleton(catchTemplateString, fullyQualifiedExceptionName, getCursor());
             int parentIndex;
 
             // Extract the try-catch block and dummy elements
@@ -203,30 +279,23 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
 
             }
             else { // Wrap method call in try catch for all other cases
-                int i = 0;
+                // Find the statement by id, its children may have been changed while visiting the block
                 int index = -1;
-                for (Statement statement : body.getStatements()) {
-                    if (statement.print().contains(method.print())) {
+                for (int i = 0; blockStatement != null && i < bodyStatements.size(); i++) {
+                    if (bodyStatements.get(i).getId().equals(blockStatement.getId())) {
                         index = i;
+                        break;
                     }
-                    i ++;
                 }
-                String tryCatchBlock = String.format(
-                        "try { %s; } %s", body.getStatements().get(index), catchTemplateString
-                );
-                JavaTemplate tryCatchNewTemplate = JavaTemplate.builder(tryCatchBlock)
-                        .imports(fullyQualifiedExceptionName)
-                        .build();
-
-                // Create an empty block to apply the try-catch template based off the cursor values from the main body
-                // This should create the correct formatting.
-                J.Block newBlock = J.Block.createEmptyBlock();
-                newBlock = tryCatchNewTemplate.apply(new Cursor(getCursor(),newBlock), newBlock.getCoordinates().firstStatement());
-
-                bodyStatements.remove(index);
-                for (Statement statement : newBlock.getStatements()) {
-                    bodyStatements.add(index, statement);
+                if (index == -1) {
+                    return body;
                 }
+                // Reuse the skeleton rather than parsing a template per statement
+                Statement enclosingStatement = bodyStatements.get(index).withPrefix(dummyVarDec.getPrefix());
+                _try = _try.withBody(_try.getBody().withStatements(ListUtils.insert(
+                        new ArrayList<>(), enclosingStatement, 0 )));
+
+                bodyStatements.set(index, _try);
             }
 
             // Update the body block with the new set of statements and return.
@@ -235,9 +304,34 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
             maybeAddImport(fullyQualifiedExceptionName,false);
             return body;
         }
-        public boolean containsSubstringWithParenthesis(String input, String substring) {
-            String regex = substring + "\\s*\\(";
-            return input.matches(".*" + regex + ".*");
+        /**
+         * Method to check if a call, or a call of its select chain, calls the method by name, e.g.
+         * data.toObject(type) or data.toObject(type).size(), without printing the call
+         * Calls in the arguments are visited, and checked, on their own.
+         */
+        private boolean callsMethodByName(@Nullable J tree) {
+            while (tree != null) {
+                if (tree instanceof J.MethodInvocation) {
+                    J.MethodInvocation invocation = (J.MethodInvocation) tree;
+                    if (invocation.getSimpleName().equals(methodName)) {
+                        return true;
+                    }
+                    tree = invocation.getSelect();
+                } else if (tree instanceof J.FieldAccess) {
+                    tree = ((J.FieldAccess) tree).getTarget();
+                } else if (tree instanceof J.Parentheses) {
+                    tree = (J) ((J.Parentheses<?>) tree).getTree();
+                } else if (tree instanceof J.TypeCast) {
+                    tree = ((J.TypeCast) tree).getExpression();
+                } else if (tree instanceof J.ArrayAccess) {
+                    tree = ((J.ArrayAccess) tree).getIndexed();
+                } else if (tree instanceof J.NewClass) {
+                    tree = ((J.NewClass) tree).getEnclosing();
+                } else {
+                    return false;
+                }
+            }
+            return false;
         }
 
 
@@ -250,8 +344,7 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
                     // Make no changes
                     return visitSuper.get();
                 }
-                if (!containsSubstringWithParenthesis(methodCall.toString(), methodPattern.replaceAll("\\(.*?\\)", "").
-                        replaceAll("\\*", "").trim().split(" ")[1])){
+                if (!callsMethodByName((J) methodCall)) {
                     // Make no changes
                     return visitSuper.get();
                 }
@@ -289,11 +382,33 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
                     Statement statement = getCursor().dropParentUntil(it -> it instanceof Statement).getValue();
                     getCursor().putMessageOnFirstEnclosing(J.Block.class, "STATEMENT", statement);
                 } catch (IllegalStateException ignored) {}
+                // And the statement of the enclosing block that contains the method
+                Statement blockStatement = enclosingBlockStatement();
+                if (blockStatement != null) {
+                    getCursor().putMessageOnFirstEnclosing(J.Block.class, "BLOCK_STATEMENT", blockStatement);
+                }
             }
 
             return visitSuper.get();
         }
 
+        /**
+         * Method to find the statement of the first enclosing block that the current tree is part of,
+         * by walking up the cursor rather than searching the block.
+         */
+        private @Nullable Statement enclosingBlockStatement() {
+            Cursor cursor = getCursor();
+            Cursor parent = cursor.getParentTreeCursor();
+            while (!(parent.getValue() instanceof J.Block)) {
+                if (parent.getParent() == null) {
+                    return null;
+                }
+                cursor = parent;
+                parent = cursor.getParentTreeCursor();
+            }
+            return cursor.getValue() instanceof Statement ? cursor.getValue() : null;
+        }
+
         /**
          * The Suppliers that traverse the LST and redirect all types of method calls through visitMethodCall.
          */
@@ -315,4 +430,46 @@ public class AddTryCatchToMethodCallRecipe extends Recipe {
 
     } // end catchUncheckedVisitor
 
+    /**
+     * Cache of the try-catch templates applied by a recipe instance, keyed by catch template and exception name.
+     * JavaTemplate keeps the stubs it has parsed on the root cursor, and every source file is visited
+     * with a new root cursor. Templates are applied below a root cursor owned by this cache instead, so
+     * the skeleton is parsed once per recipe instance rather than once per source file.
+     */
+    private static final class TemplateCache {
+
+        private final Map<String, JavaTemplate> templates = new ConcurrentHashMap<>();
+
+        private final Cursor root = new Cursor(null, Cursor.ROOT_VALUE);
+
+        /**
+         * Method to apply the try-catch skeleton to an empty block placed below the cursor
+         * @return the block holding the formatted try-catch statement
+         */
+        synchronized J.Block applySkeleton(String catchTemplateString, String fullyQualifiedExceptionName, Cursor cursor) {
+            JavaTemplate tryCatchTemplate = templates.computeIfAbsent(catchTemplateString + '\n' + fullyQualifiedExceptionName,
+                    key -> JavaTemplate.builder("try { int a = null; a = 3; } " + catchTemplateString)
+                            .imports(fullyQualifiedExceptionName)
+                            .doBeforeParseTemplate(TemplateApplications::record)
+                            .build());
+            J.Block b = J.Block.createEmptyBlock();
+            return tryCatchTemplate.apply(new Cursor(rebase(cursor), b), b.getCoordinates().firstStatement());
+        }
+
+        /**
+         * Method to copy the path of a cursor below the root cursor of the cache
+         */
+        private Cursor rebase(Cursor cursor) {
+            Deque<Object> path = new ArrayDeque<>();
+            for (Cursor c = cursor; c.getParent() != null; c = c.getParent()) {
+                path.push(c.getValue());
+            }
+            Cursor rebased = root;
+            for (Object value : path) {
+                rebased = new Cursor(rebased, value);
+            }
+            return rebased;
+        }
+    }
+
 }
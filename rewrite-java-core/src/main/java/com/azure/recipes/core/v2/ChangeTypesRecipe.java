@@ -0,0 +1,439 @@
+package com.azure.recipes.core.v2;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
+import org.jetbrains.annotations.NotNull;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Preconditions;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.NonNull;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaVisitor;
+import org.openrewrite.java.search.UsesType;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * ChangeTypesRecipe changes the types and packages of a mapping table in a single pass over each file,
+ * where a list of org.openrewrite.java.ChangeType and org.openrewrite.java.ChangePackage steps would visit
+ * each file once per step. Every type met in the file is looked up in the tables by its fully qualified
+ * name, and for a package by its package and parent packages.
+ * Type attribution, imports, fully qualified references and package declarations are updated.
+ * A type mapping takes precedence over a package mapping of the same type.
+ * --------------------------------------------------
+ * Usage in rewrite.yml:
+ * - com.azure.recipes.core.v2.ChangeTypesRecipe:
+ *     typeMappings:
+ *       com.azure.core.http.HttpHeaderName: io.clientcore.core.http.models.HttpHeaderName
+ *     packageMappings:
+ *       com.azure.core.credential: io.clientcore.core.credential
+ * --------------------------------------------------
+ * Before applying this recipe:
+ * import com.azure.core.http.HttpHeaderName;
+ * --------------------------------------------------
+ * After applying this recipe:
+ * import io.clientcore.core.http.models.HttpHeaderName;
+ * --------------------------------------------------
+ * As with ChangeType, a file that declares a mapped type is changed too: the type is renamed, and its package
+ * declaration and source path follow the new name. The definitions of the types listed in ignoredDefinitions
+ * are left unchanged instead, as with ChangeType and ignoreDefinition: files that declare one of them are not
+ * visited.
+ */
+@Value
+@EqualsAndHashCode(callSuper = false)
+public class ChangeTypesRecipe extends Recipe {
+
+    @Option(displayName = "Type mappings",
+            description = "The fully qualified names of the types to change, mapped to their new fully qualified names.",
+            example = "com.azure.core.http.HttpHeaderName: io.clientcore.core.http.models.HttpHeaderName")
+    @NonNull
+    Map<String, String> typeMappings;
+
+    @Option(displayName = "Package mappings",
+            description = "The packages to change, mapped to their new names. Subpackages are changed as well.",
+            example = "com.azure.core.credential: io.clientcore.core.credential",
+            required = false)
+    @Nullable
+    Map<String, String> packageMappings;
+
+    @Option(displayName = "Ignored definitions",
+            description = "The types of the type mappings whose definitions are left unchanged, as with the ignoreDefinition " +
+                    "option of ChangeType. Files that declare one of them are not changed. By default, definitions are changed.",
+            example = "com.azure.core.http.HttpHeaderName",
+            required = false)
+    @Nullable
+    List<String> ignoredDefinitions;
+
+    /**
+     * Creates the recipe that changes the definitions of the mapped types as well
+     */
+    public ChangeTypesRecipe(@NonNull Map<String, String> typeMappings, @Nullable Map<String, String> packageMappings) {
+        this(typeMappings, packageMappings, null);
+    }
+
+    /**
+     * All recipes must be serializable. This is verified by RewriteTest.rewriteRun() in your tests.
+     * Json creator allows your recipes to be used from a yaml file.
+     */
+    @JsonCreator
+    public ChangeTypesRecipe(@NonNull @JsonProperty("typeMappings") Map<String, String> typeMappings,
+                             @Nullable @JsonProperty("packageMappings") Map<String, String> packageMappings,
+                             @Nullable @JsonProperty("ignoredDefinitions") List<String> ignoredDefinitions) {
+        this.typeMappings = typeMappings;
+        this.packageMappings = packageMappings == null ? Collections.emptyMap() : packageMappings;
+        this.ignoredDefinitions = ignoredDefinitions == null ? Collections.emptyList() : ignoredDefinitions;
+    }
+
+    /**
+     * Method to return a simple short description of ChangeTypesRecipe
+     * @return A simple short description/name of the recipe
+     */
+    @Override
+    public @NotNull String getDisplayName() {
+        return "Change types and packages";
+    }
+    /**
+     * Method to return a description of ChangeTypesRecipe
+     * @return A short description of the recipe
+     */
+    @Override
+    public @NotNull String getDescription() {
+        return "This recipe changes every type and package of a mapping table to its new name in a single pass.";
+    }
+    /**
+     * Method to return the visitor that changes the types
+     * Only files that use one of the mapped types or packages are visited.
+     * @return A TreeVisitor to change the mapped types
+     */
+    @Override
+    public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
+        List<TreeVisitor<?, ExecutionContext>> uses = new ArrayList<>();
+        for (String type : typeMappings.keySet()) {
+            uses.add(new UsesType<>(type, true));
+        }
+        for (String packageName : packageMappings.keySet()) {
+            uses.add(new UsesType<>(packageName + "..*", true));
+        }
+        @SuppressWarnings("unchecked")
+        TreeVisitor<?, ExecutionContext>[] usesAny = uses.toArray(new TreeVisitor[0]);
+        return Preconditions.check(Preconditions.or(usesAny), new ChangeTypesVisitor(typeMappings, packageMappings,
+                new HashSet<>(ignoredDefinitions)));
+    }
+
+    /**
+     * Method to look up the new name of a type
+     * Nested types follow their outer type, and types of a mapped package or subpackage follow the package.
+     * @param typeMappings the type table
+     * @param packageMappings the package table
+     * @param fullyQualifiedName the name of the type, with $ before nested type names
+     * @return the new name of the type, or null if it is not changed
+     */
+    static String changedTypeName(Map<String, String> typeMappings, Map<String, String> packageMappings,
+                                  String fullyQualifiedName) {
+        String changed = typeMappings.get(fullyQualifiedName);
+        if (changed != null) {
+            return changed;
+        }
+        int nested = fullyQualifiedName.indexOf('$');
+        String topLevel = nested < 0 ? fullyQualifiedName : fullyQualifiedName.substring(0, nested);
+        if (nested > 0) {
+            changed = typeMappings.get(topLevel);
+            if (changed != null) {
+                return changed + fullyQualifiedName.substring(nested);
+            }
+        }
+        int dot = topLevel.lastIndexOf('.');
+        if (dot < 0) {
+            return null;
+        }
+        String changedPackage = changedPackageName(packageMappings, topLevel.substring(0, dot));
+        return changedPackage == null ? null : changedPackage + fullyQualifiedName.substring(dot);
+    }
+
+    /**
+     * Method to look up the new name of a package, or of the package it is a subpackage of
+     * @return the new name of the package, or null if it is not changed
+     */
+    static String changedPackageName(Map<String, String> packageMappings, String packageName) {
+        if (packageMappings.isEmpty()) {
+            return null;
+        }
+        for (int end = packageName.length(); end > 0; end = packageName.lastIndexOf('.', end - 1)) {
+            String changed = packageMappings.get(packageName.substring(0, end));
+            if (changed != null) {
+                return changed + packageName.substring(end);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Visitor to change the types of the mapping tables
+     */
+    private static class ChangeTypesVisitor extends JavaVisitor<ExecutionContext> {
+
+        private final Map<String, String> typeMappings;
+
+        private final Map<String, String> packageMappings;
+
+        private final Set<String> ignoredDefinitions;
+
+        /**
+         * Updated type of every type met in the current file, so that shared types are updated once
+         */
+        private final Map<JavaType, JavaType> updatedTypes = new IdentityHashMap<>();
+
+        /**
+         * Old and new names of the types changed in the current file, used to fix its imports
+         */
+        private final Map<String, String> changedTypes = new LinkedHashMap<>();
+
+        ChangeTypesVisitor(Map<String, String> typeMappings, Map<String, String> packageMappings,
+                           Set<String> ignoredDefinitions) {
+            this.typeMappings = typeMappings;
+            this.packageMappings = packageMappings;
+            this.ignoredDefinitions = ignoredDefinitions;
+        }
+
+        /**
+         * Method to change the package declaration and the types of a file, then add the imports of the
+         * new types and remove the imports of the old ones that are no longer used
+         */
+        @Override
+        public @NotNull J visitCompilationUnit(J.@NotNull CompilationUnit cu, @NotNull ExecutionContext ctx) {
+            updatedTypes.clear();
+            changedTypes.clear();
+            String definedType = null;
+            for (J.ClassDeclaration classDeclaration : cu.getClasses()) {
+                if (classDeclaration.getType() != null) {
+                    String typeName = classDeclaration.getType().getFullyQualifiedName();
+                    if (ignoredDefinitions.contains(typeName)) {
+                        return cu;
+                    }
+                    if (definedType == null && typeMappings.containsKey(typeName)) {
+                        definedType = typeName;
+                    }
+                }
+            }
+            J.CompilationUnit visitedCu = (J.CompilationUnit) super.visitCompilationUnit(cu, ctx);
+            J.Package packageDeclaration = visitedCu.getPackageDeclaration();
+            if (packageDeclaration != null) {
+                String oldPackage = packageDeclaration.getPackageName();
+                String newPackage = changedPackageName(packageMappings, oldPackage);
+                String changedDefinition = definedType == null ? null : typeMappings.get(definedType);
+                if (changedDefinition != null) {
+                    // The definition of a mapped type moves to the package of its new name, as with ChangeType
+                    newPackage = changedDefinition.lastIndexOf('.') < 0 ? oldPackage
+                            : changedDefinition.substring(0, changedDefinition.lastIndexOf('.'));
+                }
+                if (newPackage != null && !newPackage.equals(oldPackage)) {
+                    visitedCu = visitedCu.withPackageDeclaration(packageDeclaration.withExpression(
+                            TypeTree.build(newPackage).withPrefix(packageDeclaration.getExpression().getPrefix())));
+                    visitedCu = visitedCu.withSourcePath(Paths.get(visitedCu.getSourcePath().toString().replace('\\', '/')
+                            .replace(oldPackage.replace('.', '/') + "/", newPackage.replace('.', '/') + "/")));
+                }
+                if (changedDefinition != null && !simpleName(definedType).equals(simpleName(changedDefinition))) {
+                    String sourcePath = visitedCu.getSourcePath().toString().replace('\\', '/');
+                    String oldFile = "/" + simpleName(definedType) + ".java";
+                    if (sourcePath.endsWith(oldFile) || sourcePath.equals(oldFile.substring(1))) {
+                        visitedCu = visitedCu.withSourcePath(Paths.get(sourcePath.substring(0, sourcePath.length()
+                                - oldFile.length() + 1) + simpleName(changedDefinition) + ".java"));
+                    }
+                }
+            }
+            Set<String> usedTypes = new HashSet<>();
+            for (Map.Entry<String, String> changedType : changedTypes.entrySet()) {
+                usedTypes.add(topLevel(changedType.getKey()));
+                maybeRemoveImport(topLevel(changedType.getKey()));
+                maybeAddImport(topLevel(changedType.getValue()));
+            }
+            return visitedCu.withImports(ListUtils.map(visitedCu.getImports(), anImport -> changeUnusedImport(anImport, usedTypes)));
+        }
+
+        /**
+         * Method to change the import of a mapped type that is not used in the file in place, which RemoveImport
+         * and AddImport would otherwise leave with the old name
+         * @param usedTypes the top level types changed in the file, whose imports are removed and added instead
+         */
+        private J.Import changeUnusedImport(J.Import anImport, Set<String> usedTypes) {
+            J.FieldAccess qualid = anImport.getQualid();
+            if (anImport.isStatic() || "*".equals(qualid.getSimpleName())) {
+                return anImport;
+            }
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(qualid.getType());
+            String typeName = type != null ? type.getFullyQualifiedName() : printedName(qualid);
+            if (typeName == null || !typeMappings.containsKey(topLevel(typeName)) || usedTypes.contains(topLevel(typeName))) {
+                return anImport;
+            }
+            String changed = changedTypeName(typeMappings, packageMappings, typeName);
+            J.FieldAccess changedQualid = TypeTree.<J.FieldAccess>build(changed.replace('$', '.')).withPrefix(qualid.getPrefix());
+            return anImport.withQualid(changedQualid.withType(updateType(qualid.getType())));
+        }
+
+        /**
+         * Method to change the static imports of mapped types and the imports of mapped packages in place
+         * Imports of mapped types are left to visitCompilationUnit, which removes and adds them with the
+         * formatting of RemoveImport and AddImport, as ChangeType does, or changes them in place if the type is
+         * not used in the file.
+         */
+        @Override
+        public @NotNull J visitImport(J.@NotNull Import anImport, @NotNull ExecutionContext ctx) {
+            J.FieldAccess qualid = anImport.getQualid();
+            String name = qualid.getSimpleName();
+            String target = printedName(qualid.getTarget());
+            if (target == null) {
+                return anImport;
+            }
+            String changed = null;
+            if (anImport.isStatic()) {
+                String changedTarget = changedTypeName(typeMappings, packageMappings, target);
+                changed = changedTarget == null ? null : changedTarget.replace('$', '.') + "." + name;
+            } else if ("*".equals(name)) {
+                String changedTarget = changedPackageName(packageMappings, target);
+                changed = changedTarget == null ? null : changedTarget + ".*";
+            } else {
+                JavaType.FullyQualified type = TypeUtils.asFullyQualified(qualid.getType());
+                String typeName = type != null ? type.getFullyQualifiedName() : target + "." + name;
+                if (!typeMappings.containsKey(topLevel(typeName))) {
+                    String changedPackage = changedPackageName(packageMappings, target);
+                    changed = changedPackage == null ? null : changedPackage + "." + name;
+                }
+            }
+            if (changed == null) {
+                return anImport;
+            }
+            J.FieldAccess changedQualid = TypeTree.<J.FieldAccess>build(changed).withPrefix(qualid.getPrefix());
+            return anImport.withQualid(changedQualid.withType(updateType(qualid.getType())));
+        }
+
+        /**
+         * Method to change fully qualified references to mapped types, e.g. com.azure.core.util.Configuration
+         */
+        @Override
+        public @NotNull J visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(fieldAccess.getType());
+            if (type != null && fieldAccess.getName().getFieldType() == null
+                    && !(fieldAccess.getTarget().getType() instanceof JavaType.FullyQualified)) {
+                String changed = changedTypeName(typeMappings, packageMappings, type.getFullyQualifiedName());
+                if (changed != null && fieldAccess.getSimpleName().equals(simpleName(type.getFullyQualifiedName()))) {
+                    return TypeTree.<J.FieldAccess>build(changed.replace('$', '.'))
+                            .withPrefix(fieldAccess.getPrefix())
+                            .withType(updateType(type));
+                }
+            }
+            return super.visitFieldAccess(fieldAccess, ctx);
+        }
+
+        /**
+         * Method to rename simple name references to a mapped type whose simple name changes
+         */
+        @Override
+        public @NotNull J visitIdentifier(J.@NotNull Identifier identifier, @NotNull ExecutionContext ctx) {
+            J.Identifier visitedIdentifier = (J.Identifier) super.visitIdentifier(identifier, ctx);
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(identifier.getType());
+            if (type != null && identifier.getFieldType() == null && visitedIdentifier.getType() != identifier.getType()
+                    && identifier.getSimpleName().equals(simpleName(type.getFullyQualifiedName()))) {
+                JavaType.FullyQualified changedType = TypeUtils.asFullyQualified(visitedIdentifier.getType());
+                if (changedType != null) {
+                    return visitedIdentifier.withSimpleName(simpleName(changedType.getFullyQualifiedName()));
+                }
+            }
+            return visitedIdentifier;
+        }
+
+        /**
+         * Method to update the type attribution of every tree of the file
+         */
+        @Override
+        public JavaType visitType(JavaType javaType, @NotNull ExecutionContext ctx) {
+            return updateType(javaType);
+        }
+
+        /**
+         * Method to replace the mapped types in a type, its type parameters and, for methods and variables,
+         * their declaring types, return types and parameter types
+         */
+        private JavaType updateType(JavaType type) {
+            if (type == null || type instanceof JavaType.Unknown || type instanceof JavaType.Primitive) {
+                return type;
+            }
+            JavaType updated = updatedTypes.get(type);
+            if (updated != null) {
+                return updated;
+            }
+            // Recursive types resolve to themselves while they are being updated
+            updatedTypes.put(type, type);
+            updated = type;
+            if (type instanceof JavaType.Parameterized) {
+                JavaType.Parameterized parameterized = (JavaType.Parameterized) type;
+                updated = parameterized.withType((JavaType.FullyQualified) updateType(parameterized.getType()))
+                        .withTypeParameters(ListUtils.map(parameterized.getTypeParameters(), this::updateType));
+            } else if (type instanceof JavaType.Class) {
+                JavaType.Class clazz = (JavaType.Class) type;
+                String changed = changedTypeName(typeMappings, packageMappings, clazz.getFullyQualifiedName());
+                if (changed != null) {
+                    changedTypes.put(clazz.getFullyQualifiedName(), changed);
+                    updated = JavaType.ShallowClass.build(changed);
+                }
+            } else if (type instanceof JavaType.GenericTypeVariable) {
+                JavaType.GenericTypeVariable variable = (JavaType.GenericTypeVariable) type;
+                updated = variable.withBounds(ListUtils.map(variable.getBounds(), this::updateType));
+            } else if (type instanceof JavaType.Array) {
+                JavaType.Array array = (JavaType.Array) type;
+                updated = array.withElemType(updateType(array.getElemType()));
+            } else if (type instanceof JavaType.Method) {
+                JavaType.Method method = (JavaType.Method) type;
+                updated = method.withDeclaringType((JavaType.FullyQualified) updateType(method.getDeclaringType()))
+                        .withReturnType(updateType(method.getReturnType()))
+                        .withParameterTypes(ListUtils.map(method.getParameterTypes(), this::updateType));
+            } else if (type instanceof JavaType.Variable) {
+                JavaType.Variable variable = (JavaType.Variable) type;
+                updated = variable.withOwner(updateType(variable.getOwner()))
+                        .withType(updateType(variable.getType()));
+            }
+            updatedTypes.put(type, updated);
+            return updated;
+        }
+
+        /**
+         * Method to return the dotted name of a package or type reference without printing it
+         * @return the name, or null if the expression is not made of identifiers
+         */
+        private static String printedName(J tree) {
+            if (tree instanceof J.Identifier) {
+                return ((J.Identifier) tree).getSimpleName();
+            }
+            if (tree instanceof J.FieldAccess) {
+                String target = printedName(((J.FieldAccess) tree).getTarget());
+                return target == null ? null : target + "." + ((J.FieldAccess) tree).getSimpleName();
+            }
+            return null;
+        }
+
+        private static String simpleName(String fullyQualifiedName) {
+            return fullyQualifiedName.substring(Math.max(fullyQualifiedName.lastIndexOf('.'), fullyQualifiedName.lastIndexOf('$')) + 1);
+        }
+
+        private static String topLevel(String fullyQualifiedName) {
+            int nested = fullyQualifiedName.indexOf('$');
+            return nested < 0 ? fullyQualifiedName : fullyQualifiedName.substring(0, nested);
+        }
+    }
+}
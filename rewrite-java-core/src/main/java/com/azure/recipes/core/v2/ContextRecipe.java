@@ -1,13 +1,17 @@
 package com.azure.recipes.core.v2;
 
 import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeTree;
 
+import java.util.Collections;
+
 /**
  * ContextRecipe changes all instances of Context.NONE (from azure core v1) to Context.none() (from azure core v2).
  * This recipe also updates the import statements for the aforementioned class.
@@ -46,30 +50,44 @@ public class ContextRecipe extends Recipe {
     }
     /**
      * Method to return the visitor that visits the Context.NONE identifier
+     * Only files that use Context or RequestOptions are visited.
      * @return A TreeVisitor to visit the NONE identifier and change it to none()
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new ChangeStaticFieldToMethodVisitor();
+        return new MigrationRuleVisitor(Collections.singletonList(ContextRule::new));
     }
     /**
-     * Visitor to change NONE identifier to none()
+     * Rule to change NONE identifier to none(), also run by MigrationRulesRecipe
      */
-    private static class ChangeStaticFieldToMethodVisitor extends JavaIsoVisitor<ExecutionContext> {
+    static class ContextRule extends MigrationRule {
+
+        private static final FullyQualifiedNameMatcher REQUEST_OPTIONS =
+                new FullyQualifiedNameMatcher("com.azure.core.http.rest.RequestOptions");
+        private static final FullyQualifiedNameMatcher CONTEXT =
+                new FullyQualifiedNameMatcher("com.azure.core.util.Context");
+        private static final FullyQualifiedNameMatcher CONTEXT_NONE =
+                new FullyQualifiedNameMatcher("Context.NONE");
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return Preconditions.or(
+                    new UsesType<>("com.azure.core.util.Context", true),
+                    new UsesType<>("com.azure.core.http.rest.RequestOptions", true));
+        }
+
         /**
          * Method to change com.azure.core.util.Context to io.clientcore.core.util.Context
          */
         @Override
-        public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
-            J.FieldAccess visitedFieldAccess = super.visitFieldAccess(fieldAccess, ctx);
-            String fullyQualified = visitedFieldAccess.getTarget() + "." + visitedFieldAccess.getSimpleName();
-            if (fullyQualified.equals("com.azure.core.http.rest.RequestOptions")) {
+        public J.FieldAccess visitFieldAccess(J.FieldAccess visitedFieldAccess, Cursor cursor, ExecutionContext ctx) {
+            if (REQUEST_OPTIONS.matches(visitedFieldAccess)) {
                 return TypeTree.build(" io.clientcore.core.http.models.RequestOptions");
             }
-            if (fullyQualified.equals("com.azure.core.util.Context")) {
+            if (CONTEXT.matches(visitedFieldAccess)) {
                 return TypeTree.build(" io.clientcore.core.util.Context");
             }
-            if (fullyQualified.equals("Context.NONE")){
+            if (CONTEXT_NONE.matches(visitedFieldAccess)){
                 return TypeTree.build("Context.none()");
             }
             return visitedFieldAccess;
@@ -0,0 +1,105 @@
+package com.azure.recipes.core.v2;
+
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+/**
+ * FullyQualifiedNameMatcher checks whether a J.FieldAccess refers to a given dotted name such as
+ * com.azure.core.util.Context or Context.NONE without printing the field access.
+ * When the field access refers to a type and is type-attributed, the fully qualified name of the
+ * attributed type is compared. Otherwise, e.g. for references to static fields, for trees built
+ * with TypeTree.build, for trees renamed by an earlier visit or when the classpath is incomplete,
+ * the identifiers of the field access are compared segment by segment against the expected name.
+ * Neither path allocates, so a matcher can be called on every field access of every file.
+ * --------------------------------------------------
+ * Replaces code such as:
+ * String fullyQualified = fieldAccess.getTarget() + "." + fieldAccess.getSimpleName();
+ * if (fullyQualified.equals("com.azure.core.util.Context")) { ... }
+ * --------------------------------------------------
+ * With:
+ * private static final FullyQualifiedNameMatcher CONTEXT = new FullyQualifiedNameMatcher("com.azure.core.util.Context");
+ * if (CONTEXT.matches(fieldAccess)) { ... }
+ * --------------------------------------------------
+ */
+public final class FullyQualifiedNameMatcher {
+
+    private final String name;
+
+    /**
+     * Creates a matcher for a dotted name
+     * @param name the dotted name, e.g. com.azure.core.util.Context
+     */
+    public FullyQualifiedNameMatcher(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Method to return the name this matcher looks for
+     * @return the dotted name
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Method to check if a field access refers to the name of this matcher
+     * @param fieldAccess the field access to check
+     * @return true if the field access refers to the name
+     */
+    public boolean matches(J.FieldAccess fieldAccess) {
+        JavaType.FullyQualified type = attributedType(fieldAccess.getType());
+        if (type != null && denotesType(fieldAccess, type)) {
+            return name.equals(type.getFullyQualifiedName());
+        }
+        return matchesSegments(fieldAccess, name.length());
+    }
+
+    /**
+     * Method to check if a field access is a reference to its type, e.g. com.azure.core.util.Context,
+     * rather than to a field of that type, e.g. Context.NONE, or a tree whose name was changed
+     * without updating its type
+     */
+    private static boolean denotesType(J.FieldAccess fieldAccess, JavaType.FullyQualified type) {
+        if (fieldAccess.getName().getFieldType() != null) {
+            return false;
+        }
+        String simpleName = fieldAccess.getSimpleName();
+        String typeName = type.getFullyQualifiedName();
+        int start = typeName.length() - simpleName.length();
+        return start > 0 && typeName.regionMatches(start, simpleName, 0, simpleName.length())
+                && (typeName.charAt(start - 1) == '.' || typeName.charAt(start - 1) == '$');
+    }
+
+    /**
+     * Method to check if the printed form of an expression, ignoring whitespace and comments, is
+     * equal to name.substring(0, end)
+     */
+    private boolean matchesSegments(Expression expression, int end) {
+        if (expression instanceof J.Identifier) {
+            String simpleName = ((J.Identifier) expression).getSimpleName();
+            return end == simpleName.length() && name.startsWith(simpleName);
+        }
+        if (expression instanceof J.FieldAccess) {
+            J.FieldAccess fieldAccess = (J.FieldAccess) expression;
+            String simpleName = fieldAccess.getSimpleName();
+            int start = end - simpleName.length();
+            if (start < 2 || name.charAt(start - 1) != '.' || !name.regionMatches(start, simpleName, 0, simpleName.length())) {
+                return false;
+            }
+            return matchesSegments(fieldAccess.getTarget(), start - 1);
+        }
+        return false;
+    }
+
+    /**
+     * Method to return the type of a tree if it is usable for matching
+     * @return the fully qualified type, or null if the type is missing or unknown
+     */
+    private static JavaType.FullyQualified attributedType(JavaType type) {
+        if (type instanceof JavaType.FullyQualified && !(type instanceof JavaType.Unknown)) {
+            return (JavaType.FullyQualified) type;
+        }
+        return null;
+    }
+}
@@ -1,17 +1,26 @@
 package com.azure.recipes.core.v2;
 
 import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.AddImport;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
 import org.openrewrite.java.tree.TypeTree;
+import org.openrewrite.java.tree.TypeUtils;
+
+import java.util.Collections;
 
 /**
  * HttpLogOptionsRecipe change usage of the com.azure.core.http.policy.HttpLogDetailLevel while also changing
  * the com.azure.core.http.policy.HttpLogOptions Type.
  * The import statements are also updated.
+ * HttpLogDetailLevel references by simple name are qualified with HttpLogOptions, and the HttpLogOptions import
+ * is added when the file did not import it.
  * Changes:
  * com.azure.core.http.policy.HttpLogDetailLevel -> io.clientcore.core.http.models.HttpLogOptions.HttpLogDetailLevel
  * com.azure.core.http.policy.HttpLogOptions     -> io.clientcore.core.http.models.HttpLogOptions
@@ -49,29 +58,44 @@ public class HttpLogOptionsRecipe extends Recipe {
     }
     /**
      * Method to return the visitor that visits the usages of HttpLogOptions and HttpLogDetailLevel
+     * Only files that use HttpLogOptions or HttpLogDetailLevel are visited.
      * @return A TreeVisitor to visit the usages of HttpLogOptions and HttpLogDetailLevel
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new HttpLogOptionsVisitor();
+        return new MigrationRuleVisitor(Collections.singletonList(HttpLogOptionsRule::new));
     }
     /**
-     * Visitor to change HttpLogOptions type and change usage of HttpLogDetailLevel
+     * Rule to change HttpLogOptions type and change usage of HttpLogDetailLevel, also run by MigrationRulesRecipe
      */
-    private static class HttpLogOptionsVisitor extends JavaIsoVisitor<ExecutionContext> {
+    static class HttpLogOptionsRule extends MigrationRule {
+
+        private static final FullyQualifiedNameMatcher HTTP_LOG_OPTIONS =
+                new FullyQualifiedNameMatcher("com.azure.core.http.policy.HttpLogOptions");
+        private static final FullyQualifiedNameMatcher HTTP_LOG_DETAIL_LEVEL =
+                new FullyQualifiedNameMatcher("com.azure.core.http.policy.HttpLogDetailLevel");
+
+        private static final JavaType.FullyQualified DETAIL_LEVEL_V2 =
+                JavaType.ShallowClass.build("io.clientcore.core.http.models.HttpLogOptions$HttpLogDetailLevel");
+
+        private boolean qualifiedDetailLevel;
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return Preconditions.or(
+                    new UsesType<>("com.azure.core.http.policy.HttpLogOptions", true),
+                    new UsesType<>("com.azure.core.http.policy.HttpLogDetailLevel", true));
+        }
+
         /**
          * Method to change usage of the HttpLogDetailLevel while also changing the HttpLogOptions Type
          */
         @Override
-        public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
-            J.FieldAccess visitedFieldAccess = super.visitFieldAccess(fieldAccess, ctx);
-            String fullyQualified = visitedFieldAccess.getTarget() + "." + visitedFieldAccess.getSimpleName();
-            if (fullyQualified.equals("com.azure.core.http.policy.HttpLogOptions")) {
+        public J.FieldAccess visitFieldAccess(J.FieldAccess visitedFieldAccess, Cursor cursor, ExecutionContext ctx) {
+            if (HTTP_LOG_OPTIONS.matches(visitedFieldAccess)) {
                return TypeTree.build(" io.clientcore.core.http.models.HttpLogOptions");
             }
-            if (fullyQualified.equals("com.azure.core.http.policy.HttpLogDetailLevel") &&
-                    visitedFieldAccess.getSimpleName().equals("HttpLogDetailLevel") &&
-                    visitedFieldAccess.print().contains("com.azure")){
+            if (HTTP_LOG_DETAIL_LEVEL.matches(visitedFieldAccess)){
                 return TypeTree.build(" io.clientcore.core.http.models.HttpLogOptions.HttpLogDetailLevel");
             }
             return visitedFieldAccess;
@@ -80,12 +104,60 @@ public class HttpLogOptionsRecipe extends Recipe {
          * Method to remove unnecessary import fo HttpLogDetailLevel as the class is already included in client-core HttpLogOptions class
          */
         @Override
-        public J.Import visitImport(J.Import _import, ExecutionContext executionContext) {
-            J.Import visitedImport = super.visitImport(_import, executionContext);
+        public J.Import visitImport(J.Import visitedImport, Cursor cursor, ExecutionContext executionContext) {
             if (visitedImport.getQualid().getSimpleName().contains("HttpLogDetailLevel")){
                 return null;
             }
             return visitedImport;
         }
+        /**
+         * Method to qualify every reference to HttpLogDetailLevel by simple name, wherever it is used as a type or
+         * an expression: field accesses, static calls, variable and parameter types, return types, type arguments,
+         * casts, instanceof checks and array types.
+         * The name of a field access, e.g. in com.azure.core.http.policy.HttpLogDetailLevel, is left to visitFieldAccess.
+         * As ChangeType does for nested types, the identifier takes the class name HttpLogOptions.HttpLogDetailLevel.
+         */
+        @Override
+        public J.Identifier visitIdentifier(J.Identifier identifier, Cursor cursor, ExecutionContext ctx) {
+            if (!isDetailLevelReference(identifier)) {
+                return identifier;
+            }
+            Object parent = cursor.getParentTreeCursor().getValue();
+            if (parent instanceof J.FieldAccess
+                    && ((J.FieldAccess) parent).getName().getId().equals(identifier.getId())) {
+                return identifier;
+            }
+            qualifiedDetailLevel = true;
+            return identifier.withSimpleName("HttpLogOptions.HttpLogDetailLevel").withType(DETAIL_LEVEL_V2);
+        }
+        /**
+         * Method to add the HttpLogOptions import once HttpLogDetailLevel has been qualified with it
+         */
+        @Override
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, Cursor cursor, ExecutionContext ctx) {
+            if (!qualifiedDetailLevel) {
+                return cu;
+            }
+            for (J.Import anImport : cu.getImports()) {
+                if (!anImport.isStatic() && anImport.getQualid().getSimpleName().equals("HttpLogOptions")) {
+                    return cu;
+                }
+            }
+            return (J.CompilationUnit) new AddImport<>("io.clientcore.core.http.models.HttpLogOptions", null, false)
+                    .visitNonNull(cu, ctx);
+        }
+
+        /**
+         * Method to check if an identifier is the simple name HttpLogDetailLevel referring to the azure core v1 type.
+         * Names that are not attributed, e.g. when azure-core is not on the classpath, are matched by name only.
+         */
+        private static boolean isDetailLevelReference(J.Identifier identifier) {
+            if (!identifier.getSimpleName().equals("HttpLogDetailLevel")) {
+                return false;
+            }
+            JavaType.FullyQualified type = TypeUtils.asFullyQualified(identifier.getType());
+            return type == null || type instanceof JavaType.Unknown
+                    || type.getFullyQualifiedName().equals("com.azure.core.http.policy.HttpLogDetailLevel");
+        }
     }
 }
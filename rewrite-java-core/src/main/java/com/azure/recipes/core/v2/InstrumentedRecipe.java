@@ -0,0 +1,252 @@
+package com.azure.recipes.core.v2;
+
+import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Maintainer;
+import org.openrewrite.Recipe;
+import org.openrewrite.ScanningRecipe;
+import org.openrewrite.SourceFile;
+import org.openrewrite.Tree;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.Validated;
+import org.openrewrite.config.DataTableDescriptor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * InstrumentedRecipe wraps a recipe and records, for every source file it runs on, the time spent in its
+ * visitor, the number of LST nodes of the file, the number of nodes it edited and the number of templates
+ * it applied, see TemplateApplications. The rows are written to a single RecipeVisitStats data table.
+ * Composite recipes, such as the steps of a declarative recipe in rewrite.yml, are instrumented step by step,
+ * so that the rows show which step of MigrateAzureCoreSamplesToAzureCoreV2 dominates the run time.
+ * --------------------------------------------------
+ * Usage:
+ * Recipe recipe = InstrumentedRecipe.instrument(environment.activateRecipes(name));
+ * --------------------------------------------------
+ * Counting nodes and edits walks the source file outside of the timed visit, which makes an instrumented
+ * run slower than a plain one. Scanning recipes are not instrumented.
+ */
+public class InstrumentedRecipe extends Recipe {
+
+    private final Recipe delegate;
+
+    private final RecipeVisitStats visitStats;
+
+    // The instrumented recipes of the recipe list, built once so that every call returns the same instances
+    private final List<Recipe> recipeList;
+
+    private InstrumentedRecipe(Recipe delegate) {
+        this.delegate = delegate;
+        this.visitStats = new RecipeVisitStats(this);
+        this.recipeList = instrumentList(delegate, visitStats);
+    }
+
+    private InstrumentedRecipe(Recipe delegate, RecipeVisitStats visitStats) {
+        this.delegate = delegate;
+        this.visitStats = visitStats;
+        this.recipeList = instrumentList(delegate, visitStats);
+    }
+
+    /**
+     * Method to instrument a recipe and the recipes of its recipe list
+     * @param recipe the recipe to instrument
+     * @return the instrumented recipe, or the recipe itself if it is a scanning recipe
+     */
+    public static Recipe instrument(Recipe recipe) {
+        if (recipe instanceof InstrumentedRecipe || recipe instanceof ScanningRecipe) {
+            return recipe;
+        }
+        return new InstrumentedRecipe(recipe);
+    }
+
+    /**
+     * Method to return the name of the wrapped recipe
+     * @return the name of the wrapped recipe, so that the rows identify it
+     */
+    @Override
+    public @NotNull String getName() {
+        return delegate.getName();
+    }
+
+    /**
+     * Method to return the display name of the wrapped recipe
+     * @return the display name of the wrapped recipe
+     */
+    @Override
+    public @NotNull String getDisplayName() {
+        return delegate.getDisplayName();
+    }
+
+    /**
+     * Method to return the description of the wrapped recipe
+     * @return the description of the wrapped recipe
+     */
+    @Override
+    public @NotNull String getDescription() {
+        return delegate.getDescription();
+    }
+
+    /**
+     * Method to return the tags of the wrapped recipe
+     * @return the tags of the wrapped recipe
+     */
+    @Override
+    public @NotNull Set<String> getTags() {
+        return delegate.getTags();
+    }
+
+    /**
+     * Method to return the estimated effort of the wrapped recipe
+     * @return the estimated time to fix an occurrence by hand, or null if the wrapped recipe has none
+     */
+    @Override
+    public @Nullable Duration getEstimatedEffortPerOccurrence() {
+        return delegate.getEstimatedEffortPerOccurrence();
+    }
+
+    /**
+     * Method to return the maintainers of the wrapped recipe
+     * @return the maintainers of the wrapped recipe
+     */
+    @Override
+    public @NotNull List<Maintainer> getMaintainers() {
+        return delegate.getMaintainers();
+    }
+
+    /**
+     * Method to validate the options of the wrapped recipe
+     * @return the validation of the wrapped recipe
+     */
+    @Override
+    public @NotNull Validated<Object> validate() {
+        return delegate.validate();
+    }
+
+    /**
+     * Method to return the data tables of the wrapped recipe, and the RecipeVisitStats table of this one
+     * @return the data table descriptors
+     */
+    @Override
+    public @NotNull List<DataTableDescriptor> getDataTableDescriptors() {
+        return ListUtils.concatAll(delegate.getDataTableDescriptors(), super.getDataTableDescriptors());
+    }
+
+    /**
+     * Method to return the recipes of the wrapped recipe, each of them instrumented
+     * All of them write to the data table of this recipe.
+     * @return the instrumented recipe list
+     */
+    @Override
+    public @NotNull List<Recipe> getRecipeList() {
+        return recipeList;
+    }
+
+    /**
+     * Method to tell if the wrapped recipe asks for another cycle
+     * @return true if the wrapped recipe causes another cycle
+     */
+    @Override
+    public boolean causesAnotherCycle() {
+        return delegate.causesAnotherCycle();
+    }
+
+    /**
+     * Method to return the visitor of the wrapped recipe, timed and counted
+     * Composite recipes are not timed themselves; their steps are.
+     * @return the visitor of the wrapped recipe
+     */
+    @Override
+    public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
+        TreeVisitor<?, ExecutionContext> visitor = delegate.getVisitor();
+        if (!recipeList.isEmpty()) {
+            return visitor;
+        }
+        return new InstrumentedVisitor(delegate.getName(), visitor, visitStats);
+    }
+
+    private static List<Recipe> instrumentList(Recipe delegate, RecipeVisitStats visitStats) {
+        return delegate.getRecipeList().stream()
+                .map(recipe -> recipe instanceof ScanningRecipe ? recipe : new InstrumentedRecipe(recipe, visitStats))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Visitor that records a RecipeVisitStats row for every source file visited by the wrapped visitor
+     */
+    private static class InstrumentedVisitor extends TreeVisitor<Tree, ExecutionContext> {
+
+        private final String recipeName;
+
+        private final TreeVisitor<?, ExecutionContext> delegate;
+
+        private final RecipeVisitStats visitStats;
+
+        InstrumentedVisitor(String recipeName, TreeVisitor<?, ExecutionContext> delegate, RecipeVisitStats visitStats) {
+            this.recipeName = recipeName;
+            this.delegate = delegate;
+            this.visitStats = visitStats;
+        }
+
+        @Override
+        public boolean isAcceptable(@NotNull SourceFile sourceFile, @NotNull ExecutionContext ctx) {
+            return delegate.isAcceptable(sourceFile, ctx);
+        }
+
+        /**
+         * Method to visit a source file with the wrapped visitor and record its statistics
+         * Trees other than source files are passed to the wrapped visitor unchanged.
+         */
+        @Override
+        public @Nullable Tree visit(@Nullable Tree tree, @NotNull ExecutionContext ctx) {
+            if (!(tree instanceof SourceFile)) {
+                return delegate.visit(tree, ctx, getCursor());
+            }
+            int[] previousCounter = TemplateApplications.start();
+            long start = System.nanoTime();
+            Tree after;
+            int templateApplications;
+            try {
+                after = delegate.visit(tree, ctx, getCursor());
+            } finally {
+                templateApplications = TemplateApplications.stop(previousCounter);
+            }
+            long visitNanos = System.nanoTime() - start;
+
+            Set<Tree> nodes = collectNodes(tree, null);
+            int edits = after == null || after == tree ? 0 : collectNodes(after, nodes).size();
+            visitStats.insertRow(ctx, new RecipeVisitStats.Row(recipeName, ((SourceFile) tree).getSourcePath().toString(),
+                    visitNanos, nodes.size(), edits, templateApplications));
+            return after;
+        }
+
+        /**
+         * Method to collect the nodes of a Java tree that are not in a set of excluded nodes
+         * @return the nodes, compared by identity; empty for trees that are not Java
+         */
+        private static Set<Tree> collectNodes(Tree tree, @Nullable Set<Tree> excluded) {
+            Set<Tree> nodes = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (tree instanceof J) {
+                new JavaIsoVisitor<Set<Tree>>() {
+                    @Override
+                    public J preVisit(@NotNull J j, @NotNull Set<Tree> collected) {
+                        if (excluded == null || !excluded.contains(j)) {
+                            collected.add(j);
+                        }
+                        return j;
+                    }
+                }.visit(tree, nodes, new Cursor(null, Cursor.ROOT_VALUE));
+            }
+            return nodes;
+        }
+    }
+}
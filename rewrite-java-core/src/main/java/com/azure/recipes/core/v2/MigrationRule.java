@@ -0,0 +1,125 @@
+package com.azure.recipes.core.v2;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.tree.J;
+
+/**
+ * MigrationRule is one rewrite of the azure-core migration, run by a MigrationRuleVisitor together with
+ * other rules in a single traversal of each file.
+ * The visitor calls the hooks of a rule on the way back up the tree, once the children of a node have been
+ * visited by every rule, the same order in which a JavaIsoVisitor that calls super first sees them.
+ * Each hook returns the node unchanged by default; a rule overrides the hooks of the node kinds it rewrites.
+ * Returning null removes the node, where the LST allows it, and skips the rules that follow.
+ * --------------------------------------------------
+ * A new rule instance is created for every file, so rules may keep state about the file they visit.
+ * --------------------------------------------------
+ */
+public abstract class MigrationRule {
+
+    /**
+     * Method to return the visitor that decides if the rule applies to a file
+     * The rule is only run on files that the precondition marks, as with Preconditions.check.
+     * @return A TreeVisitor that marks the files to visit
+     */
+    public abstract TreeVisitor<?, ExecutionContext> getPrecondition();
+
+    /**
+     * Method to rewrite a compilation unit after all its children have been visited
+     */
+    public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, Cursor cursor, ExecutionContext ctx) {
+        return cu;
+    }
+
+    /**
+     * Method to rewrite an import
+     */
+    public J.Import visitImport(J.Import anImport, Cursor cursor, ExecutionContext ctx) {
+        return anImport;
+    }
+
+    /**
+     * Method to rewrite a field access, which includes fully qualified type names
+     */
+    public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, Cursor cursor, ExecutionContext ctx) {
+        return fieldAccess;
+    }
+
+    /**
+     * Method to rewrite an identifier
+     */
+    public J.Identifier visitIdentifier(J.Identifier identifier, Cursor cursor, ExecutionContext ctx) {
+        return identifier;
+    }
+
+    /**
+     * Method to rewrite a constructor call
+     */
+    public J.NewClass visitNewClass(J.NewClass newClass, Cursor cursor, ExecutionContext ctx) {
+        return newClass;
+    }
+
+    /**
+     * Method to rewrite a method call
+     */
+    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Cursor cursor, ExecutionContext ctx) {
+        return method;
+    }
+
+    /**
+     * Method to rewrite a class declaration, once its body has been visited
+     */
+    public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, Cursor cursor, ExecutionContext ctx) {
+        return classDecl;
+    }
+
+    /**
+     * Method to rewrite a block, once all its statements have been visited
+     */
+    public J.Block visitBlock(J.Block block, Cursor cursor, ExecutionContext ctx) {
+        return block;
+    }
+
+    /**
+     * Method to rewrite a method declaration, once its parameters and body have been visited
+     */
+    public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, Cursor cursor, ExecutionContext ctx) {
+        return method;
+    }
+
+    /**
+     * Method to rewrite a lambda, once its parameters and body have been visited
+     */
+    public J.Lambda visitLambda(J.Lambda lambda, Cursor cursor, ExecutionContext ctx) {
+        return lambda;
+    }
+
+    /**
+     * Method to rewrite a for loop, once its control and body have been visited
+     */
+    public J.ForLoop visitForLoop(J.ForLoop forLoop, Cursor cursor, ExecutionContext ctx) {
+        return forLoop;
+    }
+
+    /**
+     * Method to rewrite a for each loop, once its control and body have been visited
+     */
+    public J.ForEachLoop visitForEachLoop(J.ForEachLoop forEachLoop, Cursor cursor, ExecutionContext ctx) {
+        return forEachLoop;
+    }
+
+    /**
+     * Method to rewrite a try statement, once its resources, body, catches and finally block have been visited
+     */
+    public J.Try visitTry(J.Try tryStatement, Cursor cursor, ExecutionContext ctx) {
+        return tryStatement;
+    }
+
+    /**
+     * Method to rewrite a variable declaration
+     */
+    public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, Cursor cursor, ExecutionContext ctx) {
+        return multiVariable;
+    }
+}
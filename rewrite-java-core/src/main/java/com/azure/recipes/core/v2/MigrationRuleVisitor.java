@@ -0,0 +1,207 @@
+package com.azure.recipes.core.v2;
+
+import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * MigrationRuleVisitor runs a list of MigrationRules in one traversal of each file.
+ * At every node it visits the children first and then hands the node to the hook of each rule for that node
+ * kind, in the order of the list, so that a rule sees the changes of the rules before it on the same node.
+ * Rules whose precondition does not mark the file are not run, and a file marked by none of them is not
+ * traversed at all.
+ * --------------------------------------------------
+ * Preconditions are evaluated like those of a list of recipes run one after the other: a rule whose
+ * precondition does not mark the file is checked again against the file as rewritten by the rules before it,
+ * and run in another traversal if it now marks the file. A rule before every rule that ran is not checked
+ * again, since nothing was rewritten before it.
+ * Ordering contract: a rule does not remove what the precondition of a later rule looks for, so that running
+ * a later rule in the same traversal gives the file a sequential run would give it.
+ * --------------------------------------------------
+ */
+public class MigrationRuleVisitor extends JavaIsoVisitor<ExecutionContext> {
+
+    private final List<Supplier<MigrationRule>> ruleFactories;
+
+    private List<MigrationRule> rules = Collections.emptyList();
+
+    /**
+     * Creates a visitor for a list of rules
+     * @param ruleFactories the factories of the rules, in the order in which they are applied to a node
+     */
+    public MigrationRuleVisitor(List<Supplier<MigrationRule>> ruleFactories) {
+        this.ruleFactories = ruleFactories;
+    }
+
+    /**
+     * Method to select the rules that apply to the file, visit it and let the rules rewrite the compilation unit,
+     * then to visit it again with the rules that only apply to the rewritten file
+     */
+    @Override
+    public J.@NotNull CompilationUnit visitCompilationUnit(J.@NotNull CompilationUnit cu, @NotNull ExecutionContext ctx) {
+        List<MigrationRule> pending = new ArrayList<>(ruleFactories.size());
+        for (Supplier<MigrationRule> ruleFactory : ruleFactories) {
+            pending.add(ruleFactory.get());
+        }
+        Cursor cursor = getCursor();
+        J.CompilationUnit visitedCu = cu;
+        boolean visited = false;
+        try {
+            while (true) {
+                List<MigrationRule> applicable = new ArrayList<>(pending.size());
+                for (Iterator<MigrationRule> iterator = pending.iterator(); iterator.hasNext(); ) {
+                    MigrationRule rule = iterator.next();
+                    if (rule.getPrecondition().visit(visitedCu, ctx) != visitedCu) {
+                        applicable.add(rule);
+                        iterator.remove();
+                    } else if (!visited && applicable.isEmpty()) {
+                        // No rule runs before it, so the file it would see is the one it was checked against
+                        iterator.remove();
+                    }
+                }
+                if (applicable.isEmpty()) {
+                    return visitedCu;
+                }
+                J.CompilationUnit checkedCu = visitedCu;
+                rules = applicable;
+                setCursor(new Cursor(cursor.getParent(), checkedCu));
+                visitedCu = super.visitCompilationUnit(checkedCu, ctx);
+                for (MigrationRule rule : rules) {
+                    visitedCu = rule.visitCompilationUnit(visitedCu, getCursor(), ctx);
+                }
+                visited = true;
+                if (visitedCu == checkedCu || pending.isEmpty()) {
+                    return visitedCu;
+                }
+            }
+        } finally {
+            rules = Collections.emptyList();
+            setCursor(cursor);
+        }
+    }
+
+    @Override
+    public J.Import visitImport(J.Import anImport, ExecutionContext ctx) {
+        J.Import visitedImport = super.visitImport(anImport, ctx);
+        for (int i = 0; i < rules.size() && visitedImport != null; i++) {
+            visitedImport = rules.get(i).visitImport(visitedImport, getCursor(), ctx);
+        }
+        return visitedImport;
+    }
+
+    @Override
+    public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
+        J.FieldAccess visitedFieldAccess = super.visitFieldAccess(fieldAccess, ctx);
+        for (int i = 0; i < rules.size() && visitedFieldAccess != null; i++) {
+            visitedFieldAccess = rules.get(i).visitFieldAccess(visitedFieldAccess, getCursor(), ctx);
+        }
+        return visitedFieldAccess;
+    }
+
+    @Override
+    public J.@NotNull Identifier visitIdentifier(J.@NotNull Identifier identifier, @NotNull ExecutionContext ctx) {
+        J.Identifier visitedIdentifier = super.visitIdentifier(identifier, ctx);
+        for (int i = 0; i < rules.size() && visitedIdentifier != null; i++) {
+            visitedIdentifier = rules.get(i).visitIdentifier(visitedIdentifier, getCursor(), ctx);
+        }
+        return visitedIdentifier;
+    }
+
+    @Override
+    public J.@NotNull NewClass visitNewClass(J.@NotNull NewClass newClass, @NotNull ExecutionContext ctx) {
+        J.NewClass visitedNewClass = super.visitNewClass(newClass, ctx);
+        for (int i = 0; i < rules.size() && visitedNewClass != null; i++) {
+            visitedNewClass = rules.get(i).visitNewClass(visitedNewClass, getCursor(), ctx);
+        }
+        return visitedNewClass;
+    }
+
+    @Override
+    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext ctx) {
+        J.MethodInvocation visitedMethod = super.visitMethodInvocation(method, ctx);
+        for (int i = 0; i < rules.size() && visitedMethod != null; i++) {
+            visitedMethod = rules.get(i).visitMethodInvocation(visitedMethod, getCursor(), ctx);
+        }
+        return visitedMethod;
+    }
+
+    @Override
+    public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, ExecutionContext ctx) {
+        J.ClassDeclaration visitedClass = super.visitClassDeclaration(classDecl, ctx);
+        for (int i = 0; i < rules.size() && visitedClass != null; i++) {
+            visitedClass = rules.get(i).visitClassDeclaration(visitedClass, getCursor(), ctx);
+        }
+        return visitedClass;
+    }
+
+    @Override
+    public J.Block visitBlock(J.Block block, ExecutionContext ctx) {
+        J.Block visitedBlock = super.visitBlock(block, ctx);
+        for (int i = 0; i < rules.size() && visitedBlock != null; i++) {
+            visitedBlock = rules.get(i).visitBlock(visitedBlock, getCursor(), ctx);
+        }
+        return visitedBlock;
+    }
+
+    @Override
+    public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, ExecutionContext ctx) {
+        J.MethodDeclaration visitedMethod = super.visitMethodDeclaration(method, ctx);
+        for (int i = 0; i < rules.size() && visitedMethod != null; i++) {
+            visitedMethod = rules.get(i).visitMethodDeclaration(visitedMethod, getCursor(), ctx);
+        }
+        return visitedMethod;
+    }
+
+    @Override
+    public J.Lambda visitLambda(J.Lambda lambda, ExecutionContext ctx) {
+        J.Lambda visitedLambda = super.visitLambda(lambda, ctx);
+        for (int i = 0; i < rules.size() && visitedLambda != null; i++) {
+            visitedLambda = rules.get(i).visitLambda(visitedLambda, getCursor(), ctx);
+        }
+        return visitedLambda;
+    }
+
+    @Override
+    public J.ForLoop visitForLoop(J.ForLoop forLoop, ExecutionContext ctx) {
+        J.ForLoop visitedForLoop = super.visitForLoop(forLoop, ctx);
+        for (int i = 0; i < rules.size() && visitedForLoop != null; i++) {
+            visitedForLoop = rules.get(i).visitForLoop(visitedForLoop, getCursor(), ctx);
+        }
+        return visitedForLoop;
+    }
+
+    @Override
+    public J.ForEachLoop visitForEachLoop(J.ForEachLoop forEachLoop, ExecutionContext ctx) {
+        J.ForEachLoop visitedForEachLoop = super.visitForEachLoop(forEachLoop, ctx);
+        for (int i = 0; i < rules.size() && visitedForEachLoop != null; i++) {
+            visitedForEachLoop = rules.get(i).visitForEachLoop(visitedForEachLoop, getCursor(), ctx);
+        }
+        return visitedForEachLoop;
+    }
+
+    @Override
+    public J.Try visitTry(J.Try tryStatement, ExecutionContext ctx) {
+        J.Try visitedTry = super.visitTry(tryStatement, ctx);
+        for (int i = 0; i < rules.size() && visitedTry != null; i++) {
+            visitedTry = rules.get(i).visitTry(visitedTry, getCursor(), ctx);
+        }
+        return visitedTry;
+    }
+
+    @Override
+    public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, ExecutionContext ctx) {
+        J.VariableDeclarations visitedVariables = super.visitVariableDeclarations(multiVariable, ctx);
+        for (int i = 0; i < rules.size() && visitedVariables != null; i++) {
+            visitedVariables = rules.get(i).visitVariableDeclarations(visitedVariables, getCursor(), ctx);
+        }
+        return visitedVariables;
+    }
+}
@@ -0,0 +1,57 @@
+package com.azure.recipes.core.v2;
+
+import org.jetbrains.annotations.NotNull;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * MigrationRulesRecipe runs the rules of ResponseRecipe, ContextRecipe, RetryOptionsConstructorRecipe,
+ * TypeReferenceRecipe, HttpLogOptionsRecipe and RemoveFixedDelayRecipe in a single traversal of each file,
+ * instead of one traversal per recipe.
+ * At every node the rules are applied in the order of the list below, which is the order in which
+ * rewrite.yml used to run the recipes.
+ * --------------------------------------------------
+ * Each rule can still be run, and tested, on its own through the recipe that declares it.
+ * --------------------------------------------------
+ */
+public class MigrationRulesRecipe extends Recipe {
+
+    private static final List<Supplier<MigrationRule>> RULES = Arrays.asList(
+            ResponseRecipe.ResponseRule::new,
+            ContextRecipe.ContextRule::new,
+            RetryOptionsConstructorRecipe.RetryOptionsRule::new,
+            TypeReferenceRecipe.TypeReferenceRule::new,
+            HttpLogOptionsRecipe.HttpLogOptionsRule::new,
+            RemoveFixedDelayRecipe.FixedDelayRule::new);
+
+    /**
+     * Method to return a simple short description of MigrationRulesRecipe
+     * @return A simple short description/name of the recipe
+     */
+    @Override
+    public @NotNull String getDisplayName() {
+        return "Apply the azure-core migration rules in a single pass";
+    }
+    /**
+     * Method to return a description of MigrationRulesRecipe
+     * @return A short description of the recipe
+     */
+    @Override
+    public @NotNull String getDescription() {
+        return "This recipe applies the Response, Context, RetryOptions, TypeReference, HttpLogOptions and FixedDelay\n" +
+                "migration rules in one traversal of each file.";
+    }
+    /**
+     * Method to return the visitor that applies every migration rule
+     * @return A TreeVisitor that runs the rules whose precondition matches the file
+     */
+    @Override
+    public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new MigrationRuleVisitor(RULES);
+    }
+}
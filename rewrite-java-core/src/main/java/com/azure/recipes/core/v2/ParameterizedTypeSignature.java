@@ -0,0 +1,289 @@
+package com.azure.recipes.core.v2;
+
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ParameterizedTypeSignature is the raw type and the type arguments of the type argument of a TypeReference,
+ * e.g. Map and [String, List&lt;Foo&gt;] for new TypeReference&lt;Map&lt;String, List&lt;Foo&gt;&gt;&gt;() { }.
+ * Type arguments are signatures themselves, so generics are handled at any depth.
+ * The signature is read from the attributed type of the TypeReference when it is available, and from the
+ * type tree of the source otherwise, e.g. when the parser could not attribute a TypeReference passed as a
+ * method argument. Neither path throws or prints the tree.
+ * --------------------------------------------------
+ * Type variables, wildcards and diamonds have no class literal, so a type argument using them has no signature.
+ * --------------------------------------------------
+ */
+final class ParameterizedTypeSignature {
+
+    private final String rawType;
+    private final List<ParameterizedTypeSignature> typeArguments;
+
+    ParameterizedTypeSignature(String rawType, List<ParameterizedTypeSignature> typeArguments) {
+        this.rawType = rawType;
+        this.typeArguments = typeArguments;
+    }
+
+    /**
+     * Method to return the name of the raw type, as it is written in a class literal
+     * @return the raw type, e.g. List or java.util.List
+     */
+    String getRawType() {
+        return rawType;
+    }
+
+    /**
+     * Method to return the signatures of the type arguments
+     * @return the type arguments, empty for a type that is not parameterized
+     */
+    List<ParameterizedTypeSignature> getTypeArguments() {
+        return typeArguments;
+    }
+
+    /**
+     * Method to return the type arguments as the elements of a Type[] initializer.
+     * A type argument that is not parameterized is a class literal; a parameterized one is an anonymous
+     * ParameterizedType, the same as the one that replaces the TypeReference.
+     * @return the comma-separated elements, empty for a type that is not parameterized
+     */
+    String typeArgumentsExpression() {
+        StringBuilder expression = new StringBuilder();
+        appendTypeArguments(expression);
+        return expression.toString();
+    }
+
+    /**
+     * Method to return an anonymous ParameterizedType for this signature, even if it has no type arguments
+     * @return the instantiation expression
+     */
+    String parameterizedTypeExpression() {
+        StringBuilder expression = new StringBuilder();
+        appendParameterizedType(expression);
+        return expression.toString();
+    }
+
+    /**
+     * Method to return a call to the interning factory of rewrite-java-core-runtime for this signature,
+     * e.g. Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Foo.class))
+     * @return the call expression
+     */
+    String factoryExpression() {
+        StringBuilder expression = new StringBuilder();
+        appendFactoryCall(expression);
+        return expression.toString();
+    }
+
+    /**
+     * Method to return an upper snake case name for a constant of this signature,
+     * e.g. MAP_STRING_LIST_TRANSLATED_TEXT_ITEM_TYPE for Map&lt;String, List&lt;TranslatedTextItem&gt;&gt;
+     * @return the constant name
+     */
+    String constantName() {
+        StringBuilder name = new StringBuilder();
+        appendConstantName(name);
+        return name.append("_TYPE").toString();
+    }
+
+    /**
+     * Method to return the signature as it is written in source without whitespace, e.g. Map&lt;String,List&lt;Foo&gt;&gt;.
+     * Two TypeReferences of the same generic type have equal strings.
+     * @return the signature
+     */
+    @Override
+    public String toString() {
+        if (typeArguments.isEmpty()) {
+            return rawType;
+        }
+        StringBuilder signature = new StringBuilder(rawType).append('<');
+        for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0) {
+                signature.append(',');
+            }
+            signature.append(typeArguments.get(i));
+        }
+        return signature.append('>').toString();
+    }
+
+    /**
+     * Method to extract the signature of the type argument of a TypeReference instantiation
+     * @param newClass the instantiation, e.g. new TypeReference&lt;List&lt;Foo&gt;&gt;() { }
+     * @return the signature of the type argument, or null if it cannot be written with class literals
+     */
+    @Nullable
+    static ParameterizedTypeSignature fromTypeReference(J.NewClass newClass) {
+        if (!(newClass.getClazz() instanceof J.ParameterizedType)) {
+            return null;
+        }
+        J.ParameterizedType clazz = (J.ParameterizedType) newClass.getClazz();
+        if (clazz.getType() instanceof JavaType.Parameterized) {
+            List<JavaType> typeParameters = ((JavaType.Parameterized) clazz.getType()).getTypeParameters();
+            if (typeParameters.size() == 1) {
+                ParameterizedTypeSignature signature = fromType(typeParameters.get(0));
+                if (signature != null) {
+                    return signature;
+                }
+            }
+        }
+        if (clazz.getTypeParameters() == null || clazz.getTypeParameters().size() != 1) {
+            return null;
+        }
+        return fromTree(clazz.getTypeParameters().get(0));
+    }
+
+    /**
+     * Method to read a signature from an attributed type
+     */
+    @Nullable
+    static ParameterizedTypeSignature fromType(JavaType type) {
+        if (type instanceof JavaType.Parameterized) {
+            JavaType.Parameterized parameterized = (JavaType.Parameterized) type;
+            List<ParameterizedTypeSignature> typeArguments = new ArrayList<>(parameterized.getTypeParameters().size());
+            for (JavaType typeParameter : parameterized.getTypeParameters()) {
+                ParameterizedTypeSignature typeArgument = fromType(typeParameter);
+                if (typeArgument == null) {
+                    return null;
+                }
+                typeArguments.add(typeArgument);
+            }
+            return new ParameterizedTypeSignature(parameterized.getClassName(), typeArguments);
+        }
+        if (type instanceof JavaType.Class) {
+            return new ParameterizedTypeSignature(((JavaType.Class) type).getClassName(), Collections.emptyList());
+        }
+        if (type instanceof JavaType.Array) {
+            return arrayOf(fromType(((JavaType.Array) type).getElemType()));
+        }
+        if (type instanceof JavaType.Primitive) {
+            // Only reached for the element type of an array, e.g. List<int[]>
+            return new ParameterizedTypeSignature(((JavaType.Primitive) type).getKeyword(), Collections.emptyList());
+        }
+        return null;
+    }
+
+    /**
+     * Method to read a signature from the type tree of the source
+     */
+    @Nullable
+    static ParameterizedTypeSignature fromTree(J tree) {
+        if (tree instanceof J.ParameterizedType) {
+            J.ParameterizedType parameterized = (J.ParameterizedType) tree;
+            String rawType = name(parameterized.getClazz());
+            if (rawType == null) {
+                return null;
+            }
+            if (parameterized.getTypeParameters() == null) {
+                return new ParameterizedTypeSignature(rawType, Collections.emptyList());
+            }
+            List<ParameterizedTypeSignature> typeArguments = new ArrayList<>(parameterized.getTypeParameters().size());
+            for (J typeParameter : parameterized.getTypeParameters()) {
+                ParameterizedTypeSignature typeArgument = fromTree(typeParameter);
+                if (typeArgument == null) {
+                    return null;
+                }
+                typeArguments.add(typeArgument);
+            }
+            return new ParameterizedTypeSignature(rawType, typeArguments);
+        }
+        if (tree instanceof J.ArrayType) {
+            return arrayOf(fromTree(((J.ArrayType) tree).getElementType()));
+        }
+        if (tree instanceof J.Primitive) {
+            return new ParameterizedTypeSignature(((J.Primitive) tree).getType().getKeyword(), Collections.emptyList());
+        }
+        String rawType = name(tree);
+        return rawType == null ? null : new ParameterizedTypeSignature(rawType, Collections.emptyList());
+    }
+
+    /**
+     * Method to return the dotted name of an identifier or field access without its whitespace and comments,
+     * or null for a type variable
+     */
+    @Nullable
+    private static String name(J tree) {
+        if (tree instanceof J.Identifier) {
+            J.Identifier identifier = (J.Identifier) tree;
+            return identifier.getType() instanceof JavaType.GenericTypeVariable ? null : identifier.getSimpleName();
+        }
+        if (tree instanceof J.FieldAccess) {
+            J.FieldAccess fieldAccess = (J.FieldAccess) tree;
+            String target = name(fieldAccess.getTarget());
+            return target == null ? null : target + "." + fieldAccess.getSimpleName();
+        }
+        return null;
+    }
+
+    /**
+     * Method to return the signature of an array of a type; arrays of parameterized types have no class literal
+     */
+    @Nullable
+    private static ParameterizedTypeSignature arrayOf(@Nullable ParameterizedTypeSignature elementType) {
+        if (elementType == null || !elementType.typeArguments.isEmpty()) {
+            return null;
+        }
+        return new ParameterizedTypeSignature(elementType.rawType + "[]", Collections.emptyList());
+    }
+
+    private void appendTypeArguments(StringBuilder expression) {
+        for (int i = 0; i < typeArguments.size(); i++) {
+            if (i > 0) {
+                expression.append(',');
+            }
+            typeArguments.get(i).appendTypeExpression(expression);
+        }
+    }
+
+    private void appendTypeExpression(StringBuilder expression) {
+        if (typeArguments.isEmpty()) {
+            expression.append(rawType).append(".class");
+            return;
+        }
+        appendParameterizedType(expression);
+    }
+
+    private void appendParameterizedType(StringBuilder expression) {
+        expression.append("new ParameterizedType() {")
+                .append(" @Override public Type getRawType() { return ").append(rawType).append(".class; }")
+                .append(" @Override public Type[] getActualTypeArguments() { return new Type[] { ");
+        appendTypeArguments(expression);
+        expression.append(" }; }")
+                .append(" @Override public Type getOwnerType() { return null; } }");
+    }
+
+    private void appendFactoryCall(StringBuilder expression) {
+        expression.append("Types.parameterized(").append(rawType).append(".class");
+        for (ParameterizedTypeSignature typeArgument : typeArguments) {
+            expression.append(", ");
+            if (typeArgument.typeArguments.isEmpty()) {
+                expression.append(typeArgument.rawType).append(".class");
+            } else {
+                typeArgument.appendFactoryCall(expression);
+            }
+        }
+        expression.append(')');
+    }
+
+    private void appendConstantName(StringBuilder name) {
+        String simpleName = rawType.substring(rawType.lastIndexOf('.') + 1);
+        for (int i = 0; i < simpleName.length(); i++) {
+            char c = simpleName.charAt(i);
+            if (c == '[') {
+                name.append("_ARRAY");
+                i++;
+            } else {
+                if (i > 0 && Character.isUpperCase(c) && !Character.isUpperCase(simpleName.charAt(i - 1))) {
+                    name.append('_');
+                }
+                name.append(Character.toUpperCase(c));
+            }
+        }
+        for (ParameterizedTypeSignature typeArgument : typeArguments) {
+            name.append('_');
+            typeArgument.appendConstantName(name);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.azure.recipes.core.v2;
+
+import lombok.Value;
+import org.openrewrite.Column;
+import org.openrewrite.DataTable;
+import org.openrewrite.Recipe;
+
+/**
+ * RecipeVisitStats is the data table filled by InstrumentedRecipe.
+ * It has one row per recipe and per source file the recipe was run on.
+ */
+public class RecipeVisitStats extends DataTable<RecipeVisitStats.Row> {
+
+    /**
+     * Creates the data table
+     * @param recipe the recipe that owns the data table
+     */
+    public RecipeVisitStats(Recipe recipe) {
+        super(recipe,
+                "Recipe visit statistics",
+                "The time spent, the LST nodes visited, the edits made and the templates applied by each recipe in each source file.");
+    }
+
+    /**
+     * Row of the data table
+     */
+    @Value
+    public static class Row {
+        @Column(displayName = "Recipe",
+                description = "The fully qualified name of the recipe.")
+        String recipe;
+
+        @Column(displayName = "Source path",
+                description = "The path of the source file before the recipe ran.")
+        String sourcePath;
+
+        @Column(displayName = "Visit time (ns)",
+                description = "The time spent in the visitor of the recipe, preconditions included.")
+        long visitNanos;
+
+        @Column(displayName = "Visited nodes",
+                description = "The number of LST nodes of the source file the visitor was run on.")
+        int visitedNodes;
+
+        @Column(displayName = "Edits",
+                description = "The number of LST nodes of the result that are not in the source file, 0 if it is unchanged.")
+        int edits;
+
+        @Column(displayName = "Template applications",
+                description = "The number of JavaTemplate applications of the recipe, whether or not their stub was parsed again.")
+        int templateApplications;
+    }
+}
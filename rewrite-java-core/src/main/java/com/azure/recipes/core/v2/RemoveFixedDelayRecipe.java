@@ -1,12 +1,15 @@
 package com.azure.recipes.core.v2;
 
 import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 
+import java.util.Collections;
+
 /**
  * RemoveFixedDelayRecipe removes any leftover imports for FixedDelayOptions
  * and any variables declared with the FixedDelayOptions type.
@@ -37,22 +40,28 @@ public class RemoveFixedDelayRecipe extends Recipe {
     }
     /**
      * Method to return the visitor that visits the usages of FixedDelayOptions
+     * Only files that use FixedDelay or FixedDelayOptions are visited.
      * @return A TreeVisitor to visit the usages of FixedDelayOptions
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new FixedDelayVisitor();
+        return new MigrationRuleVisitor(Collections.singletonList(FixedDelayRule::new));
     }
     /**
-     * Visitor to remove FixedDelayOptions
+     * Rule to remove FixedDelayOptions, also run by MigrationRulesRecipe
      */
-    private static class FixedDelayVisitor extends JavaIsoVisitor<ExecutionContext> {
+    static class FixedDelayRule extends MigrationRule {
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return new UsesType<>("com.azure.core.http.policy.FixedDelay*", true);
+        }
+
         /**
          * Method to remove unnecessary import for FixedDelay
          */
         @Override
-        public J.Import visitImport(J.Import _import, ExecutionContext executionContext) {
-            J.Import visitedImport = super.visitImport(_import, executionContext);
+        public J.Import visitImport(J.Import visitedImport, Cursor cursor, ExecutionContext executionContext) {
             if (visitedImport.getQualid() != null){
                 if (visitedImport.getQualid().getSimpleName().contains("FixedDelay")){
                     return null;
@@ -64,8 +73,7 @@ public class RemoveFixedDelayRecipe extends Recipe {
          * Method to remove unnecessary variable declarations for FixedDelay
          */
         @Override
-        public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, ExecutionContext executionContext) {
-            J.VariableDeclarations visitedVar = super.visitVariableDeclarations(multiVariable, executionContext);
+        public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations visitedVar, Cursor cursor, ExecutionContext executionContext) {
             if (visitedVar.getTypeExpression() == null) {
                 return visitedVar;
             }
@@ -1,13 +1,16 @@
 package com.azure.recipes.core.v2;
 
 import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeTree;
 
+import java.util.Collections;
+
 /**
  * ResponseRecipe changes all instances of Response (from azure core v1) to Response (from azure core v2).
  * This recipe also updates the import statements for the aforementioned class.
@@ -39,27 +42,35 @@ public class ResponseRecipe extends Recipe {
     }
     /**
      * Method to return the visitor that visits the Response class
+     * Only files that use Response are visited.
      * @return A TreeVisitor to visit the Response class and update it
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new UpdateResponseVisitor();
+        return new MigrationRuleVisitor(Collections.singletonList(ResponseRule::new));
     }
     /**
-     * Visitor to update Response
+     * Rule to update Response, also run by MigrationRulesRecipe
      */
-    private static class UpdateResponseVisitor extends JavaIsoVisitor<ExecutionContext> {
+    static class ResponseRule extends MigrationRule {
+
+        private static final FullyQualifiedNameMatcher RESPONSE =
+                new FullyQualifiedNameMatcher("com.azure.core.http.rest.Response");
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return new UsesType<>("com.azure.core.http.rest.Response", true);
+        }
+
         /**
          * Method to change com.azure.core.http.rest.Response to io.clientcore.core.http.models.Response
          */
         @Override
-        public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
-            J.FieldAccess visitedFieldAccess = super.visitFieldAccess(fieldAccess, ctx);
-            String fullyQualified = visitedFieldAccess.getTarget() + "." + visitedFieldAccess.getSimpleName();
-            if (fullyQualified.equals("com.azure.core.http.rest.Response")) {
+        public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, Cursor cursor, ExecutionContext ctx) {
+            if (RESPONSE.matches(fieldAccess)) {
                 return TypeTree.build(" io.clientcore.core.http.models.Response");
             }
-            return visitedFieldAccess;
+            return fieldAccess;
         }
     }
 }
@@ -1,18 +1,20 @@
 package com.azure.recipes.core.v2;
 
 import org.jetbrains.annotations.NotNull;
+import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.search.UsesMethod;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.tree.Expression;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.TypeTree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.HashMap;
-import java.util.Map;
 /**
  * RetryOptionsRecipe changes RetryOptions constructor to HttpRetryOptions constructor.
  * It also removes any references to FixedDelay and ExponentialDelay and changes
@@ -51,41 +53,57 @@ public class RetryOptionsConstructorRecipe extends Recipe {
     }
     /**
      * Method to return the visitor that changes RetryOptions constructor to HttpRetryOptions constructor
+     * Only files that use a type from the Azure SDK, or call retryOptions on an Azure SDK client builder, are visited.
+     * The visitor renames every retryOptions call in those files by name, so that calls on builders that are not
+     * attributed, e.g. missing from the classpath, are still renamed.
      * @return A TreeVisitor to change RetryOptions constructor to HttpRetryOptions constructor
      */
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new RetryVisitor();
+        return new MigrationRuleVisitor(Collections.singletonList(RetryOptionsRule::new));
     }
     /**
-     * Visitor to change RetryOptions constructor to HttpRetryOptions constructor
+     * Rule to change RetryOptions constructor to HttpRetryOptions constructor, also run by MigrationRulesRecipe
      */
-    private static class RetryVisitor extends JavaIsoVisitor<ExecutionContext> {
+    static class RetryOptionsRule extends MigrationRule {
 
-        private final Map<String, List<Expression>> variableToArgsMap = new HashMap<>();
+        private static final FullyQualifiedNameMatcher RETRY_OPTIONS =
+                new FullyQualifiedNameMatcher("com.azure.core.http.policy.RetryOptions");
+        // visitIdentifier renames the simple name before the enclosing field access is visited,
+        // so without type attribution the field access is only recognizable by its new name
+        private static final FullyQualifiedNameMatcher RENAMED_RETRY_OPTIONS =
+                new FullyQualifiedNameMatcher("com.azure.core.http.policy.HttpRetryOptions");
+
+        private static final String RETRY_OPTIONS_METHOD = "com.azure..*ClientBuilder retryOptions(..)";
+
+        // Arguments of the FixedDelayOptions and ExponentialDelayOptions variables in the scopes around the node
+        // being visited; every other variable is declared without arguments so that it shadows outer ones
+        private final ScopedSymbolTable<List<Expression>> delayOptionArgs = new ScopedSymbolTable<>();
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return Preconditions.or(
+                    new UsesType<>("com.azure..*", true),
+                    new UsesMethod<>(RETRY_OPTIONS_METHOD, true));
+        }
 
         /**
          * Method to visit variable declaration for FixedDelay or ExponentialDelay
          */
         @Override
-        public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations variableDeclarations, ExecutionContext executionContext) {
-            J.VariableDeclarations vd = super.visitVariableDeclarations(variableDeclarations, executionContext);
+        public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations vd, Cursor cursor, ExecutionContext executionContext) {
             for (J.VariableDeclarations.NamedVariable variable : vd.getVariables()) {
-                J.NewClass newClass = null;
-                try {
-                    newClass = (J.NewClass) variable.getInitializer();
-                } catch (Exception e) {
-                    return vd;
-                }
-                if (newClass != null) {
+                List<Expression> args = null;
+                if (variable.getInitializer() instanceof J.NewClass) {
+                    J.NewClass newClass = (J.NewClass) variable.getInitializer();
                     if (newClass.getType() != null) {
                         String className = newClass.getType().toString();
                         if (className.contains("FixedDelayOptions") || className.contains("ExponentialDelayOptions")) {
-                            List<Expression> args = new ArrayList<>(newClass.getArguments());
-                            variableToArgsMap.put(variable.getSimpleName(), args);
+                            args = new ArrayList<>(newClass.getArguments());
                         }
                     }
                 }
+                delayOptionArgs.declare(cursor, variable.getSimpleName(), args);
             }
             return vd;
         }
@@ -94,14 +112,13 @@ public class RetryOptionsConstructorRecipe extends Recipe {
          * Method to visit constructor for RetryOptions
          */
         @Override
-        public J.NewClass visitNewClass(J.NewClass newClass, ExecutionContext executionContext) {
-            J.NewClass visitedNewClass = super.visitNewClass(newClass, executionContext);
+        public J.NewClass visitNewClass(J.NewClass visitedNewClass, Cursor cursor, ExecutionContext executionContext) {
             if (visitedNewClass.toString().contains("new HttpRetryOptions")) {
                 if (visitedNewClass.getArguments().size() == 1) {
                     Expression constructorArg = visitedNewClass.getArguments().get(0);
                     if (constructorArg instanceof J.Identifier) {
                         String variableName = ((J.Identifier) constructorArg).getSimpleName();
-                        List<Expression> args = variableToArgsMap.get(variableName);
+                        List<Expression> args = delayOptionArgs.resolve(cursor, variableName);
                         if (args != null) {
                             return visitedNewClass.withArguments(args);
                         }
@@ -115,12 +132,65 @@ public class RetryOptionsConstructorRecipe extends Recipe {
             return visitedNewClass;
         }
 
+        /**
+         * Method to release the variables declared in a block
+         */
+        @Override
+        public J.Block visitBlock(J.Block block, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(block);
+            return block;
+        }
+
+        /**
+         * Method to release the parameters of a method
+         */
+        @Override
+        public J.MethodDeclaration visitMethodDeclaration(J.MethodDeclaration method, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(method);
+            return method;
+        }
+
+        /**
+         * Method to release the parameters of a lambda
+         */
+        @Override
+        public J.Lambda visitLambda(J.Lambda lambda, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(lambda);
+            return lambda;
+        }
+
+        /**
+         * Method to release the variables declared in the control of a for loop
+         */
+        @Override
+        public J.ForLoop visitForLoop(J.ForLoop forLoop, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(forLoop);
+            return forLoop;
+        }
+
+        /**
+         * Method to release the variable of a for each loop
+         */
+        @Override
+        public J.ForEachLoop visitForEachLoop(J.ForEachLoop forEachLoop, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(forEachLoop);
+            return forEachLoop;
+        }
+
+        /**
+         * Method to release the resources of a try statement
+         */
+        @Override
+        public J.Try visitTry(J.Try tryStatement, Cursor cursor, ExecutionContext ctx) {
+            delayOptionArgs.release(tryStatement);
+            return tryStatement;
+        }
+
         /**
          * Method to change RetryOptions to HttpRetryOptions
          */
         @Override
-        public J.@NotNull Identifier visitIdentifier(J.@NotNull Identifier identifier, @NotNull ExecutionContext ctx) {
-            J.Identifier visitedIdentifier = super.visitIdentifier(identifier, ctx);
+        public J.Identifier visitIdentifier(J.Identifier visitedIdentifier, Cursor cursor, ExecutionContext ctx) {
             if (visitedIdentifier.getSimpleName().equals("RetryOptions")) {
                 return visitedIdentifier.withSimpleName("HttpRetryOptions");
             }
@@ -131,10 +201,8 @@ public class RetryOptionsConstructorRecipe extends Recipe {
          * Method to change import to HttpRetryOptions
          */
         @Override
-        public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
-            J.FieldAccess visitedFieldAccess = super.visitFieldAccess(fieldAccess, ctx);
-            String fullyQualified = visitedFieldAccess.getTarget() + "." + visitedFieldAccess.getSimpleName();
-            if (fullyQualified.equals("com.azure.core.http.policy.HttpRetryOptions")) {
+        public J.FieldAccess visitFieldAccess(J.FieldAccess visitedFieldAccess, Cursor cursor, ExecutionContext ctx) {
+            if (RENAMED_RETRY_OPTIONS.matches(visitedFieldAccess) || RETRY_OPTIONS.matches(visitedFieldAccess)) {
                 return TypeTree.build(" io.clientcore.core.http.models.HttpRetryOptions");
             }
             return visitedFieldAccess;
@@ -144,8 +212,7 @@ public class RetryOptionsConstructorRecipe extends Recipe {
          * Method to change usages of retryOptions builder method to httpRetryOptions
          */
         @Override
-        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, ExecutionContext executionContext) {
-            J.MethodInvocation visitedMethodInv = super.visitMethodInvocation(method, executionContext);
+        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation visitedMethodInv, Cursor cursor, ExecutionContext executionContext) {
             if (visitedMethodInv.getSimpleName().equals("retryOptions")) {
                 return visitedMethodInv.withName(visitedMethodInv.getName().withSimpleName("httpRetryOptions"));
             }
@@ -0,0 +1,92 @@
+package com.azure.recipes.core.v2;
+
+import org.openrewrite.Cursor;
+import org.openrewrite.Tree;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.tree.J;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * ScopedSymbolTable maps variable names to values per lexical scope of a compilation unit.
+ * A name is declared in the innermost scope around the declaration: a block, a method (for its parameters),
+ * a lambda, a for loop or a try with resources. A name is resolved by walking the scopes around the use from
+ * the innermost outwards, so that a local variable or parameter shadows a field or a variable of the same
+ * name in another method.
+ * A name declared without a value still shadows outer declarations and resolves to null.
+ * --------------------------------------------------
+ * The entries of a scope are dropped when release is called for it, which visitors do when they leave
+ * the block, method, lambda, loop or try, so that the table only holds the scopes that enclose the node
+ * being visited.
+ * --------------------------------------------------
+ * @param <V> the type of the values
+ */
+final class ScopedSymbolTable<V> {
+
+    private final Map<UUID, Map<String, V>> scopes = new HashMap<>();
+
+    /**
+     * Method to declare a name in the innermost scope around a declaration
+     * @param cursor the cursor of the declaration
+     * @param name the declared name
+     * @param value the value of the name, or null if the declaration only shadows outer names
+     */
+    void declare(Cursor cursor, String name, @Nullable V value) {
+        Tree scope = enclosingScope(cursor.getParent());
+        if (scope != null) {
+            scopes.computeIfAbsent(scope.getId(), id -> new HashMap<>()).put(name, value);
+        }
+    }
+
+    /**
+     * Method to resolve a name from the innermost scope around its use outwards
+     * @param cursor the cursor of the use
+     * @param name the name to resolve
+     * @return the value of the innermost declaration, or null if the name is not declared or has no value
+     */
+    @Nullable
+    V resolve(Cursor cursor, String name) {
+        for (Cursor c = cursor; c != null; c = c.getParent()) {
+            if (isScope(c.getValue())) {
+                Map<String, V> symbols = scopes.get(((Tree) c.getValue()).getId());
+                if (symbols != null && symbols.containsKey(name)) {
+                    return symbols.get(name);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method to drop the names declared in a scope
+     * @param scope the block, method, lambda, loop or try that the visitor leaves
+     */
+    void release(Tree scope) {
+        scopes.remove(scope.getId());
+    }
+
+    /**
+     * Method to return the number of scopes that currently hold names
+     * @return the number of scopes
+     */
+    int scopeCount() {
+        return scopes.size();
+    }
+
+    @Nullable
+    private static Tree enclosingScope(@Nullable Cursor cursor) {
+        for (Cursor c = cursor; c != null; c = c.getParent()) {
+            if (isScope(c.getValue())) {
+                return c.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static boolean isScope(Object value) {
+        return value instanceof J.Block || value instanceof J.MethodDeclaration || value instanceof J.Lambda
+                || value instanceof J.ForLoop || value instanceof J.ForEachLoop || value instanceof J.Try;
+    }
+}
@@ -0,0 +1,57 @@
+package com.azure.recipes.core.v2;
+
+import org.openrewrite.internal.lang.Nullable;
+
+/**
+ * TemplateApplications counts the JavaTemplate applications of the recipe visiting on the current thread.
+ * Recipes register record on their templates with JavaTemplate.Builder.doBeforeParseTemplate, which runs every
+ * time a template is applied, whether its stub is then parsed or found in the template cache of OpenRewrite.
+ * --------------------------------------------------
+ * Nothing is counted unless a counter was started on the thread, which only InstrumentedRecipe does, so the
+ * recipes do not depend on being instrumented.
+ * --------------------------------------------------
+ */
+final class TemplateApplications {
+
+    private static final ThreadLocal<int[]> COUNTER = new ThreadLocal<>();
+
+    private TemplateApplications() {
+    }
+
+    /**
+     * Method to count a template application, if a counter was started on the current thread
+     * @param stub the template stub about to be parsed or looked up
+     */
+    static void record(String stub) {
+        int[] counter = COUNTER.get();
+        if (counter != null) {
+            counter[0]++;
+        }
+    }
+
+    /**
+     * Method to start a new counter on the current thread
+     * @return the counter that was started before, or null, to pass to stop
+     */
+    @Nullable
+    static int[] start() {
+        int[] previous = COUNTER.get();
+        COUNTER.set(new int[1]);
+        return previous;
+    }
+
+    /**
+     * Method to stop the counter of the current thread and restore the one started before it
+     * @param previous the counter returned by start
+     * @return the number of template applications since start
+     */
+    static int stop(@Nullable int[] previous) {
+        int count = COUNTER.get()[0];
+        if (previous == null) {
+            COUNTER.remove();
+        } else {
+            COUNTER.set(previous);
+        }
+        return count;
+    }
+}
@@ -1,19 +1,39 @@
 package com.azure.recipes.core.v2;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.EqualsAndHashCode;
+import lombok.Value;
 import org.jetbrains.annotations.NotNull;
 import org.openrewrite.Cursor;
 import org.openrewrite.ExecutionContext;
+import org.openrewrite.Option;
+import org.openrewrite.Preconditions;
 import org.openrewrite.Recipe;
 import org.openrewrite.TreeVisitor;
-import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.internal.ListUtils;
+import org.openrewrite.internal.lang.Nullable;
+import org.openrewrite.java.AddImport;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.search.UsesType;
 import org.openrewrite.java.JavaTemplate;
+import org.openrewrite.java.tree.Expression;
+import org.openrewrite.java.tree.Flag;
 import org.openrewrite.java.tree.J;
 import org.openrewrite.java.tree.JavaType;
+import org.openrewrite.java.tree.Statement;
 import org.openrewrite.java.tree.TypeTree;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
 
 /**
  * Recipe to convert TypeReference to ParameterizedType and remove TypeReference import statements.
@@ -44,10 +64,65 @@ import java.util.Set;
     }
     });
  * --------------------------------------------------
+ * With hoistToConstants, a TypeReference passed as a method argument or assigned to a local variable is
+ * replaced by a private static final Type constant of the outermost class instead, one per distinct generic
+ * type, so that the call does not allocate an anonymous class instance each time it runs. TypeReferences in an
+ * enum, interface or record, and those with a local or inner class as a type argument, which a constant of the
+ * outermost class cannot name, are converted in place:
+ *  private static final Type LIST_TRANSLATED_TEXT_ITEM_TYPE = new ParameterizedType() { ... };
+ *  ...
+ *  result = binaryDataResponse.getValue().toObject(LIST_TRANSLATED_TEXT_ITEM_TYPE);
+ * --------------------------------------------------
+ * With parameterizedTypeFactory, such TypeReferences, and the constants above, call the interning factory of
+ * rewrite-java-core-runtime instead of declaring an anonymous ParameterizedType class each:
+ *  import com.azure.recipes.core.v2.runtime.Types;
+ *  ...
+ *  result = binaryDataResponse.getValue().toObject(Types.parameterized(List.class, TranslatedTextItem.class));
+ * --------------------------------------------------
+ * Migrated code then needs com.azure:rewrite-java-core-runtime:1.0.0 on its classpath. The recipe does not add the
+ * dependency, since the build files are scanned before the TypeReferences are rewritten; add it to the build of
+ * each migrated module, see the README.
+ * --------------------------------------------------
  * @author Ali Soltanian Fard Jahromi
  */
+@Value
+@EqualsAndHashCode(callSuper = false)
 public class TypeReferenceRecipe extends Recipe {
 
+    @Option(displayName = "Hoist to constants",
+            description = "When enabled, TypeReferences passed as method arguments or assigned to local variables are " +
+                    "replaced by a static final Type constant per distinct generic type and class.",
+            required = false)
+    @Nullable
+    Boolean hoistToConstants;
+
+    @Option(displayName = "Use the ParameterizedType factory",
+            description = "When enabled, TypeReferences passed as method arguments or assigned to variables are replaced by " +
+                    "calls to com.azure.recipes.core.v2.runtime.Types.parameterized from rewrite-java-core-runtime. " +
+                    "Migrated code then depends on com.azure:rewrite-java-core-runtime:1.0.0, which the recipe does not " +
+                    "add to the build.",
+            required = false)
+    @Nullable
+    Boolean parameterizedTypeFactory;
+
+    /**
+     * Creates the recipe that converts every TypeReference in place
+     */
+    public TypeReferenceRecipe() {
+        this(null, null);
+    }
+
+    /**
+     * All recipes must be serializable. This is verified by RewriteTest.rewriteRun() in your tests.
+     * Json creator allows your recipes to be used from a yaml file.
+     */
+    @JsonCreator
+    public TypeReferenceRecipe(@Nullable @JsonProperty("hoistToConstants") Boolean hoistToConstants,
+                               @Nullable @JsonProperty("parameterizedTypeFactory") Boolean parameterizedTypeFactory) {
+        this.hoistToConstants = hoistToConstants;
+        this.parameterizedTypeFactory = parameterizedTypeFactory;
+    }
+
     @Override
     public @NotNull String getDisplayName() {
         return "Convert TypeReference to ParameterizedType and remove imports";
@@ -60,17 +135,60 @@ public class TypeReferenceRecipe extends Recipe {
 
     @Override
     public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
-        return new ConvertTypeReferenceVisitor();
+        boolean hoist = Boolean.TRUE.equals(hoistToConstants);
+        boolean factory = Boolean.TRUE.equals(parameterizedTypeFactory);
+        return new MigrationRuleVisitor(Collections.singletonList(() -> new TypeReferenceRule(hoist, factory)));
     }
 
-    private static class ConvertTypeReferenceVisitor extends JavaIsoVisitor<ExecutionContext> {
+    /**
+     * Rule to convert TypeReference to ParameterizedType, also run by MigrationRulesRecipe
+     */
+    static class TypeReferenceRule extends MigrationRule {
+
+        private static final FullyQualifiedNameMatcher BINARY_DATA =
+                new FullyQualifiedNameMatcher("com.azure.core.util.BinaryData");
+
+        private static final Pattern LOCAL_CLASS_NAME = Pattern.compile("\\$\\d");
+
+        private static final String TYPES = "com.azure.recipes.core.v2.runtime.Types";
+        // Signature of the runtime factory, so that templates calling it are attributed without the runtime jar
+        private static final String TYPES_STUB = "package com.azure.recipes.core.v2.runtime;\n" +
+                "public final class Types {\n" +
+                "    public static java.lang.reflect.ParameterizedType parameterized(Class<?> rawType, java.lang.reflect.Type... typeArguments) {\n" +
+                "        return null;\n" +
+                "    }\n" +
+                "}\n";
+
+        private final boolean hoistToConstants;
+        private final boolean parameterizedTypeFactory;
+        private boolean usedFactory;
+
+        // Constants to add to each outermost class, by the signature of their generic type
+        private final Map<UUID, Map<String, HoistedType>> hoistedTypes = new HashMap<>();
+        private final Map<UUID, Set<String>> constantNames = new HashMap<>();
+
+        TypeReferenceRule() {
+            this(false, false);
+        }
+
+        TypeReferenceRule(boolean hoistToConstants, boolean parameterizedTypeFactory) {
+            this.hoistToConstants = hoistToConstants;
+            this.parameterizedTypeFactory = parameterizedTypeFactory;
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return Preconditions.or(
+                    new UsesType<>("com.azure.core.util.serializer.TypeReference", true),
+                    new UsesType<>("com.azure.core.util.BinaryData", true));
+        }
+
         /**
          * Method to visit instantiation of TypeReference and replace it with ParameterizedType
          * instantiation including override methods.
          * */
         @Override
-        public J.@NotNull NewClass visitNewClass(J.@NotNull NewClass newClass, @NotNull ExecutionContext ctx) {
-            J.NewClass visitedNewClass = super.visitNewClass(newClass, ctx);
+        public J.NewClass visitNewClass(J.NewClass visitedNewClass, Cursor cursor, ExecutionContext ctx) {
 
             // Check if the TypeReference reference has already been transformed
             if (visitedNewClass.getBody() == null){return visitedNewClass;}
@@ -80,54 +198,28 @@ public class TypeReferenceRecipe extends Recipe {
                     .anyMatch(methodDeclaration -> methodDeclaration.getName().getSimpleName().equals("getRawType"));
             if (visitedNewClass.getClazz() == null){return visitedNewClass;}
             if (!alreadyTransformed && visitedNewClass.getClazz().toString().contains("TypeReference")) {
-                // Extract type from generic type in TypeReference declaration
-                String genType = null;
-                String type = null;
-                String type2 = null;
-                List<JavaType> fullType = null;
-
-
-                if(visitedNewClass.getClazz().getType() != null){
-                    try {
-                        fullType = ((JavaType.Parameterized) visitedNewClass.getClazz().getType()).getTypeParameters();
-                        if (fullType.get(0) instanceof JavaType.Parameterized) { // Check if using parameterized type
-                            type = ((JavaType.Class)((JavaType.Parameterized) fullType.get(0)).getTypeParameters().get(0)).getClassName();
-                            if (((JavaType.Parameterized) fullType.get(0)).getTypeParameters().size() > 1) {
-                                type2 = ((JavaType.Class)((JavaType.Parameterized) fullType.get(0)).getTypeParameters().get(1)).getClassName();
-                            }
-                            genType = ((JavaType.Parameterized) fullType.get(0)).getClassName();
-                        } else {
-                            genType = ((JavaType.Class)fullType.get(0)).getClassName();
-                        }
-                    } catch (ClassCastException e) { // OpenRewrite has a bug where parameterized new-classes contained in method arguments can't be parsed, so extract type information using String manipulation instead
-                        genType = visitedNewClass.getClazz().toString().split("<")[1];
-                        if (visitedNewClass.getClazz().toString().contains(",")) {
-                            type = visitedNewClass.getClazz().toString().split("<")[2].replace(">", "").split(",")[0];
-                            type2 = visitedNewClass.getClazz().toString().split("<")[2].replace(">", "").split(",")[1];
-                        }else {
-                            type = visitedNewClass.getClazz().toString().split("<")[2].replace(">", "");
-                        }
-                    }
+                // Extract the raw type and the type arguments of the generic type in the TypeReference declaration
+                ParameterizedTypeSignature signature = ParameterizedTypeSignature.fromTypeReference(visitedNewClass);
+                if (signature != null && isReplaceable(cursor)) {
+                    // Left as is, the method call or variable declaration around it replaces it with a constant or a factory call
+                    return visitedNewClass;
                 }
-                JavaTemplate methodRawTypeTemplate = JavaTemplate.builder("@Override public Type getRawType() { return " + extractTypeArgument(visitedNewClass.toString()) + ".class; }").build();
-                if (genType!=null){
-                    methodRawTypeTemplate = JavaTemplate.builder("@Override public Type getRawType() { return " + genType + ".class; }").build();
-                }
-                JavaTemplate methodActualTypeTemplate = JavaTemplate.builder("@Override public Type[] getActualTypeArguments() { return new Type[] {}; }").build();
-                if (type != null){
-                    methodActualTypeTemplate = JavaTemplate.builder("@Override public Type[] getActualTypeArguments() { return new Type[] {  " + type + ".class  }; }").build();
-                }
-                JavaTemplate methodOwnerTypeTemplate = JavaTemplate.builder("@Override public Type getOwnerType() { return null; }").build();
-                if (type2 != null){ // If TypeReference uses Map<T,V> or any other class with the same structure like Foo<T,V>
-                    methodActualTypeTemplate = JavaTemplate.builder("@Override public Type[] getActualTypeArguments() { return new Type[] {  " + type + ".class," + type2 + ".class  }; }").build();
+                String rawType = signature != null ? signature.getRawType() : extractTypeArgument(visitedNewClass.toString());
+                String typeArguments = signature != null ? signature.typeArgumentsExpression() : "";
+
+                JavaTemplate methodRawTypeTemplate = JavaTemplate.builder("@Override public Type getRawType() { return " + rawType + ".class; }").doBeforeParseTemplate(TemplateApplications::record).build();
+                JavaTemplate methodActualTypeTemplate = JavaTemplate.builder("@Override public Type[] getActualTypeArguments() { return new Type[] {}; }").doBeforeParseTemplate(TemplateApplications::record).build();
+                if (!typeArguments.isEmpty()) {
+                    methodActualTypeTemplate = JavaTemplate.builder("@Override public Type[] getActualTypeArguments() { return new Type[] {  " + typeArguments + "  }; }").doBeforeParseTemplate(TemplateApplications::record).build();
                 }
+                JavaTemplate methodOwnerTypeTemplate = JavaTemplate.builder("@Override public Type getOwnerType() { return null; }").doBeforeParseTemplate(TemplateApplications::record).build();
                 // Apply Templates (add methods to body)
 
-                visitedNewClass = visitedNewClass.withBody(methodRawTypeTemplate.apply(new Cursor(getCursor(), visitedNewClass.getBody()),
+                visitedNewClass = visitedNewClass.withBody(methodRawTypeTemplate.apply(new Cursor(cursor, visitedNewClass.getBody()),
                         visitedNewClass.getBody().getCoordinates().lastStatement()));
-                visitedNewClass = visitedNewClass.withBody(methodActualTypeTemplate.apply(new Cursor(getCursor(), visitedNewClass.getBody()),
+                visitedNewClass = visitedNewClass.withBody(methodActualTypeTemplate.apply(new Cursor(cursor, visitedNewClass.getBody()),
                         visitedNewClass.getBody().getCoordinates().lastStatement()));
-                visitedNewClass = visitedNewClass.withBody(methodOwnerTypeTemplate.apply(new Cursor(getCursor(), visitedNewClass.getBody()),
+                visitedNewClass = visitedNewClass.withBody(methodOwnerTypeTemplate.apply(new Cursor(cursor, visitedNewClass.getBody()),
                         visitedNewClass.getBody().getCoordinates().lastStatement()));
 
                 visitedNewClass = visitedNewClass.withClazz(TypeTree.build(" ParameterizedType")); // Replace TypeReference with Type
@@ -139,7 +231,7 @@ public class TypeReferenceRecipe extends Recipe {
         private final Set<String> importSet = new HashSet<>();
 
         @Override
-        public J.@NotNull Import visitImport(J.@NotNull Import importStmt, @NotNull ExecutionContext ctx) {
+        public J.Import visitImport(J.Import importStmt, Cursor cursor, ExecutionContext ctx) {
             String importQualid = importStmt.getQualid().toString();
 
             // Add the import to the set and check if it already exists
@@ -169,12 +261,22 @@ public class TypeReferenceRecipe extends Recipe {
          * Method to visit variable declaration for TypeReference and make sure it is converted to java.lang.reflect.Type
          */
         @Override
-        public J.@NotNull VariableDeclarations visitVariableDeclarations(J.VariableDeclarations multiVariable, ExecutionContext executionContext) {
-            J.VariableDeclarations visitedDeclarations = super.visitVariableDeclarations(multiVariable, executionContext);
-            if (visitedDeclarations.toString().contains("TypeReference")
+        public J.VariableDeclarations visitVariableDeclarations(J.VariableDeclarations visitedDeclarations, Cursor cursor, ExecutionContext executionContext) {
+            if (hoistToConstants || parameterizedTypeFactory) {
+                boolean constant = isConstant(visitedDeclarations);
+                J.VariableDeclarations replaced = visitedDeclarations.withVariables(ListUtils.map(visitedDeclarations.getVariables(),
+                        variable -> variable.getInitializer() == null ? variable
+                                : variable.withInitializer(replacement(variable.getInitializer(), cursor, constant))));
+                if (replaced != visitedDeclarations && visitedDeclarations.getTypeExpression() != null) {
+                    return replaced.withTypeExpression(TypeTree.<J.Identifier>build("Type")
+                            .withPrefix(visitedDeclarations.getTypeExpression().getPrefix()));
+                }
+            }
+            if (visitedDeclarations.getTypeExpression() != null && visitedDeclarations.toString().contains("TypeReference")
                     && visitedDeclarations.toString().contains("ParameterizedType")) {
-                visitedDeclarations = visitedDeclarations.withTypeExpression(TypeTree.build(" Type"));
-                return visitedDeclarations;
+                // The prefix is kept, a local variable has no modifier before its type
+                return visitedDeclarations.withTypeExpression(TypeTree.<J.Identifier>build("Type")
+                        .withPrefix(visitedDeclarations.getTypeExpression().getPrefix()));
             }
             return visitedDeclarations;
         }
@@ -183,21 +285,202 @@ public class TypeReferenceRecipe extends Recipe {
          * Method to visit BinaryData type and change it to the new version
          */
         @Override
-        public J.@NotNull FieldAccess visitFieldAccess(J.@NotNull FieldAccess fieldAccess, @NotNull ExecutionContext ctx) {
-            J.FieldAccess fa = super.visitFieldAccess(fieldAccess, ctx);
-            String fullyQualified = fa.getTarget() + "." + fa.getSimpleName();
-            if (fullyQualified.equals("com.azure.core.util.BinaryData")) {
+        public J.FieldAccess visitFieldAccess(J.FieldAccess fa, Cursor cursor, ExecutionContext ctx) {
+            if (BINARY_DATA.matches(fa)) {
                 return TypeTree.build(" io.clientcore.core.util.binarydata.BinaryData");
             }
             return fa;
         }
 
         /**
-         * Method to add import for java.lang.reflect.Type if needed
+         * Method to replace TypeReference arguments with references to their constants or with factory calls
+         */
+        @Override
+        public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, Cursor cursor, ExecutionContext ctx) {
+            if (!hoistToConstants && !parameterizedTypeFactory) {
+                return method;
+            }
+            return method.withArguments(ListUtils.map(method.getArguments(), argument -> replacement(argument, cursor, false)));
+        }
+
+        /**
+         * Method to add the constants of the TypeReferences hoisted out of an outermost class to its body
+         */
+        @Override
+        public J.ClassDeclaration visitClassDeclaration(J.ClassDeclaration classDecl, Cursor cursor, ExecutionContext ctx) {
+            Map<String, HoistedType> constants = hoistedTypes.remove(classDecl.getId());
+            if (constants == null) {
+                return classDecl;
+            }
+            constantNames.remove(classDecl.getId());
+            // Added at the first statement one after the other, so the last constant is added first
+            List<HoistedType> reversed = new ArrayList<>(constants.values());
+            Collections.reverse(reversed);
+            J.ClassDeclaration visitedClass = classDecl;
+            for (HoistedType constant : reversed) {
+                JavaTemplate constantTemplate = parameterizedTypeFactory
+                        ? factoryTemplate("private static final Type " + constant.name + " = " + constant.signature.factoryExpression() + ";")
+                        : JavaTemplate.builder("private static final Type " + constant.name + " = "
+                                + constant.signature.parameterizedTypeExpression() + ";")
+                        .doBeforeParseTemplate(TemplateApplications::record).build();
+                visitedClass = visitedClass.withBody(constantTemplate.apply(new Cursor(cursor, visitedClass.getBody()),
+                        visitedClass.getBody().getCoordinates().firstStatement()));
+            }
+            return visitedClass;
+        }
+
+        /**
+         * Method to check if a TypeReference is replaced by the node around it, which is the case for arguments of
+         * method calls and initializers of variables that can be hoisted to a constant or use the factory
+         */
+        private boolean isReplaceable(Cursor cursor) {
+            if (!hoistToConstants && !parameterizedTypeFactory) {
+                return false;
+            }
+            Cursor parent = cursor.getParentTreeCursor();
+            if (parent.getValue() instanceof J.MethodInvocation) {
+                return ((J.MethodInvocation) parent.getValue()).getArguments().contains(cursor.<J.NewClass>getValue())
+                        && (parameterizedTypeFactory || canHoist(cursor, cursor.getValue(), false));
+            }
+            if (parent.getValue() instanceof J.VariableDeclarations.NamedVariable) {
+                J.VariableDeclarations declarations = parent.getParentTreeCursor().getValue();
+                return parameterizedTypeFactory || canHoist(cursor, cursor.getValue(), isConstant(declarations));
+            }
+            return false;
+        }
+
+        /**
+         * Method to check if a TypeReference can be replaced by a constant: it is not the initializer of a constant
+         * itself, its outermost class is a class, whose first statement can be a field unlike the constants of an
+         * enum, and each of its type arguments is a top-level or static nested type that the constant can name
+         */
+        private boolean canHoist(Cursor cursor, J.NewClass typeReference, boolean constantInitializer) {
+            if (!hoistToConstants || constantInitializer || typeReference.getClazz() == null
+                    || !isStaticallyNamed(typeReference.getClazz().getType())) {
+                return false;
+            }
+            J.ClassDeclaration outermostClass = outermostClass(cursor);
+            return outermostClass != null && outermostClass.getKind() == J.ClassDeclaration.Kind.Type.Class;
+        }
+
+        /**
+         * Method to check if a type and its type arguments are top-level or static nested types, and not local,
+         * anonymous or inner classes
+         */
+        private static boolean isStaticallyNamed(@Nullable JavaType type) {
+            if (type instanceof JavaType.Parameterized) {
+                for (JavaType typeParameter : ((JavaType.Parameterized) type).getTypeParameters()) {
+                    if (!isStaticallyNamed(typeParameter)) {
+                        return false;
+                    }
+                }
+                return isStaticallyNamed(((JavaType.Parameterized) type).getType());
+            }
+            if (type instanceof JavaType.Array) {
+                return isStaticallyNamed(((JavaType.Array) type).getElemType());
+            }
+            if (type instanceof JavaType.FullyQualified) {
+                JavaType.FullyQualified fullyQualified = (JavaType.FullyQualified) type;
+                // Local and anonymous classes are named after their outer class and a number, e.g. Outer$1Local
+                if (LOCAL_CLASS_NAME.matcher(fullyQualified.getFullyQualifiedName()).find()) {
+                    return false;
+                }
+                for (JavaType.FullyQualified nested = fullyQualified; nested.getOwningClass() != null;
+                     nested = nested.getOwningClass()) {
+                    if (!nested.hasFlags(Flag.Static)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        private static boolean isConstant(J.VariableDeclarations declarations) {
+            return declarations.hasModifier(J.Modifier.Type.Static) && declarations.hasModifier(J.Modifier.Type.Final);
+        }
+
+        /**
+         * Method to return the replacement of a TypeReference left in place by visitNewClass, either the reference to
+         * its constant or a factory call, or the expression unchanged if it is anything else
+         */
+        private Expression replacement(Expression expression, Cursor cursor, boolean constantInitializer) {
+            if (!(expression instanceof J.NewClass) || ((J.NewClass) expression).getBody() == null
+                    || ((J.NewClass) expression).getClazz() == null
+                    || !((J.NewClass) expression).getClazz().toString().contains("TypeReference")) {
+                return expression;
+            }
+            ParameterizedTypeSignature signature = ParameterizedTypeSignature.fromTypeReference((J.NewClass) expression);
+            if (signature == null) {
+                return expression;
+            }
+            if (canHoist(cursor, (J.NewClass) expression, constantInitializer)) {
+                J.ClassDeclaration outermostClass = outermostClass(cursor);
+                HoistedType constant = hoistedTypes.computeIfAbsent(outermostClass.getId(), id -> new LinkedHashMap<>())
+                        .computeIfAbsent(signature.toString(), key -> new HoistedType(
+                                uniqueName(outermostClass, signature.constantName()), signature));
+                return TypeTree.<J.Identifier>build(constant.name).withPrefix(expression.getPrefix());
+            }
+            if (parameterizedTypeFactory) {
+                return factoryTemplate(signature.factoryExpression())
+                        .apply(new Cursor(cursor, expression), expression.getCoordinates().replace());
+            }
+            return expression;
+        }
+
+        /**
+         * Method to build a template that calls Types.parameterized, and to remember that the file needs its import
+         */
+        private JavaTemplate factoryTemplate(String code) {
+            usedFactory = true;
+            return JavaTemplate.builder(code)
+                    .imports(TYPES)
+                    .javaParser(JavaParser.fromJavaVersion().dependsOn(TYPES_STUB))
+                    .doBeforeParseTemplate(TemplateApplications::record)
+                    .build();
+        }
+
+        /**
+         * Method to return a constant name that no field of the class and no other constant uses
+         */
+        private String uniqueName(J.ClassDeclaration outermostClass, String name) {
+            Set<String> names = constantNames.computeIfAbsent(outermostClass.getId(), id -> {
+                Set<String> fieldNames = new HashSet<>();
+                for (Statement statement : outermostClass.getBody().getStatements()) {
+                    if (statement instanceof J.VariableDeclarations) {
+                        for (J.VariableDeclarations.NamedVariable variable : ((J.VariableDeclarations) statement).getVariables()) {
+                            fieldNames.add(variable.getSimpleName());
+                        }
+                    }
+                }
+                return fieldNames;
+            });
+            String unique = name;
+            for (int i = 2; !names.add(unique); i++) {
+                unique = name + "_" + i;
+            }
+            return unique;
+        }
+
+        @Nullable
+        private static J.ClassDeclaration outermostClass(Cursor cursor) {
+            J.ClassDeclaration outermostClass = null;
+            for (Cursor c = cursor; c != null; c = c.getParent()) {
+                if (c.getValue() instanceof J.ClassDeclaration) {
+                    outermostClass = c.getValue();
+                }
+            }
+            return outermostClass;
+        }
+
+        /**
+         * Method to add import for java.lang.reflect.Type if needed, and the import of Types if the factory is used
          */
         @Override
-        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit cu, ExecutionContext executionContext) {
-            J.CompilationUnit visitedCompilationUnit = super.visitCompilationUnit(cu, executionContext);
+        public J.CompilationUnit visitCompilationUnit(J.CompilationUnit visitedCompilationUnit, Cursor cursor, ExecutionContext executionContext) {
+            if (usedFactory) {
+                visitedCompilationUnit = (J.CompilationUnit) new AddImport<>(TYPES, null, false)
+                        .visitNonNull(visitedCompilationUnit, executionContext);
+            }
             J.Import newImport = null;
             boolean addTypeImport = false;
             if (visitedCompilationUnit.getImports().isEmpty()){return visitedCompilationUnit;}
@@ -231,6 +514,19 @@ public class TypeReferenceRecipe extends Recipe {
             // Extract the substring between the angle brackets
             return text.substring(startIndex + 1, endIndex).trim();
         }
+
+        /**
+         * A constant hoisted out of a class for the TypeReferences of one generic type
+         */
+        private static final class HoistedType {
+            private final String name;
+            private final ParameterizedTypeSignature signature;
+
+            private HoistedType(String name, ParameterizedTypeSignature signature) {
+                this.name = name;
+                this.signature = signature;
+            }
+        }
     }
 
 }
@@ -0,0 +1,45 @@
+package com.azure.recipes.core.v2;
+
+import org.jetbrains.annotations.NotNull;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.java.search.UsesType;
+
+/**
+ * UsesAzureSdkRecipe marks every Java file that uses a type from the Azure SDK (com.azure..*).
+ * It is meant to be used as a precondition of declarative recipes, so that files which never
+ * mention the Azure SDK are skipped by every recipe of the composite.
+ * Only the types in use and the imports of a file are checked; the file itself is not visited.
+ * --------------------------------------------------
+ * Usage in rewrite.yml:
+ * preconditions:
+ *   - com.azure.recipes.core.v2.UsesAzureSdkRecipe
+ * --------------------------------------------------
+ */
+public class UsesAzureSdkRecipe extends Recipe {
+    /**
+     * Method to return a simple short description of UsesAzureSdkRecipe
+     * @return A simple short description/name of the recipe
+     */
+    @Override
+    public @NotNull String getDisplayName() {
+        return "Find files that use the Azure SDK";
+    }
+    /**
+     * Method to return a description of UsesAzureSdkRecipe
+     * @return A short description of the recipe
+     */
+    @Override
+    public @NotNull String getDescription() {
+        return "This recipe marks Java files that use or import any type in the com.azure package or its subpackages.";
+    }
+    /**
+     * Method to return the visitor that checks the types used by a file
+     * @return A TreeVisitor that marks files using a com.azure type
+     */
+    @Override
+    public @NotNull TreeVisitor<?, ExecutionContext> getVisitor() {
+        return new UsesType<>("com.azure..*", true);
+    }
+}
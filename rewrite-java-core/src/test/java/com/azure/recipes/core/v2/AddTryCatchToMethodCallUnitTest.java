@@ -71,6 +71,52 @@ public class AddTryCatchToMethodCallUnitTest implements RewriteTest {
         );
     }
 
+    @Test
+    void testAddTryCatchMethodIsArgument() {
+        @Language("java") String before =
+                "public class UserClass {\n" +
+                "    \n" +
+                "    private int myMethod() {\n" +
+                "        return 1 + 1;\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void print(int value) {\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void anotherMethod(){\n" +
+                "        int b = 2 + 2;\n" +
+                "        print(myMethod());\n" +
+                "        int c = 3;\n" +
+                "    }\n" +
+                "}\n";
+
+        @Language("java") String after = "import java.io.IOException;\n" +
+                "\n" +
+                "public class UserClass {\n" +
+                "    \n" +
+                "    private int myMethod() {\n" +
+                "        return 1 + 1;\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void print(int value) {\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void anotherMethod(){\n" +
+                "        int b = 2 + 2;\n" +
+                "        try {\n" +
+                "            print(myMethod());\n" +
+                "        } catch (IOException e) {\n" +
+                "            e.printStackTrace();\n" +
+                "        }\n" +
+                "        int c = 3;\n" +
+                "    }\n" +
+                "}\n";
+
+        rewriteRun(
+                java(before,after)
+        );
+    }
+
     @Test
     void testAddTryCatchMethodInVarDeclaration() {
         @Language("java") String before =
@@ -289,4 +335,45 @@ public class AddTryCatchToMethodCallUnitTest implements RewriteTest {
                 java(before,after)
         );
     }
+
+    @Test
+    void testAddTryCatchExcludeOwnerIgnoresNameInText() {
+        @Language("java") String before =
+                "public class UserClass {\n" +
+                "    \n" +
+                "    private void myMethod() {\n" +
+                "        int a = 1 + 1;\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void anotherMethod(){\n" +
+                "        myMethod();\n" +
+                "        System.out.println(\"myMethod()\");\n" +
+                "    }\n" +
+                "}\n";
+
+        @Language("java") String after = "import java.io.IOException;\n" +
+                "\n" +
+                "public class UserClass {\n" +
+                "    \n" +
+                "    private void myMethod() {\n" +
+                "        int a = 1 + 1;\n" +
+                "    }\n" +
+                "    \n" +
+                "    private void anotherMethod(){\n" +
+                "        try {\n" +
+                "            myMethod();\n" +
+                "        } catch (IOException e) {\n" +
+                "            e.printStackTrace();\n" +
+                "        }\n" +
+                "        System.out.println(\"myMethod()\");\n" +
+                "    }\n" +
+                "}\n";
+
+        rewriteRun(
+                spec -> spec.recipe(new AddTryCatchToMethodCallRecipe("OtherClass myMethod(..)",
+                        "catch (IOException e) { e.printStackTrace(); }",
+                        "java.io.IOException", true)),
+                java(before,after)
+        );
+    }
 }
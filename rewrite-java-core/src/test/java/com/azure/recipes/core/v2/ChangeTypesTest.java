@@ -0,0 +1,203 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+/**
+ * ChangeTypesTest is used to test out the recipe that changes the types and packages of a mapping
+ * table in a single pass.
+ */
+public class ChangeTypesTest implements RewriteTest {
+
+    private static final Map<String, String> TYPE_MAPPINGS = new HashMap<>();
+
+    private static final Map<String, String> PACKAGE_MAPPINGS =
+            Collections.singletonMap("com.azure.core.credential", "io.clientcore.core.credential");
+
+    static {
+        TYPE_MAPPINGS.put("com.azure.core.util.Configuration", "io.clientcore.core.util.configuration.Configuration");
+        TYPE_MAPPINGS.put("com.azure.core.credential.KeyCredential", "io.clientcore.core.credential.KeyCredential");
+        TYPE_MAPPINGS.put("com.azure.core.exception.HttpResponseException", "io.clientcore.core.http.exception.HttpResponseException");
+    }
+
+    /**
+     * This method sets which recipe should be used for testing
+     * @param spec stores settings for testing environment; e.g. which recipes to use for testing
+     */
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new ChangeTypesRecipe(TYPE_MAPPINGS, PACKAGE_MAPPINGS));
+    }
+
+    /**
+     * This test method is used to make sure that several mapped types are changed in the same file
+     */
+    @Test
+    void testChangeSeveralTypesWithFullyQualifiedNames() {
+        @Language("java") String before = "public class Testing {";
+        before += "\n  public Testing(){";
+        before += "\n    com.azure.core.util.Configuration c = new com.azure.core.util.Configuration();";
+        before += "\n    com.azure.core.exception.HttpResponseException e = null;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "public class Testing {";
+        after += "\n  public Testing(){";
+        after += "\n    io.clientcore.core.util.configuration.Configuration c = new io.clientcore.core.util.configuration.Configuration();";
+        after += "\n    io.clientcore.core.http.exception.HttpResponseException e = null;";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the import of a mapped type is changed
+     */
+    @Test
+    void testChangeTypeWithImport() {
+        @Language("java") String before = "import com.azure.core.util.Configuration;";
+        before += "\npublic class Testing {";
+        before += "\n  public Testing(){";
+        before += "\n    Configuration c = new Configuration();";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.util.configuration.Configuration;";
+        after += "\n\npublic class Testing {";
+        after += "\n  public Testing(){";
+        after += "\n    Configuration c = new Configuration();";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the import of a mapped type that is not used in the file is
+     * changed in place instead of keeping the old name
+     */
+    @Test
+    void testChangeUnusedImportOfMappedType() {
+        @Language("java") String before = "import com.azure.core.util.Configuration;";
+        before += "\nimport com.azure.core.exception.HttpResponseException;";
+        before += "\n\npublic class Testing {";
+        before += "\n  public Testing(){";
+        before += "\n    HttpResponseException e = null;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.util.configuration.Configuration;";
+        after += "\nimport io.clientcore.core.http.exception.HttpResponseException;";
+        after += "\n\npublic class Testing {";
+        after += "\n  public Testing(){";
+        after += "\n    HttpResponseException e = null;";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that a star import of a mapped package is changed in place
+     */
+    @Test
+    void testChangePackageWithStarImport() {
+        @Language("java") String before = "import com.azure.core.credential.*;";
+        before += "\n\npublic class Testing {";
+        before += "\n  public Testing(){";
+        before += "\n    AzureKeyCredential kc = new AzureKeyCredential(\"<api-key>\");";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.credential.*;";
+        after += "\n\npublic class Testing {";
+        after += "\n  public Testing(){";
+        after += "\n    AzureKeyCredential kc = new AzureKeyCredential(\"<api-key>\");";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the definition of a mapped type is moved to the package of its
+     * new name, as with ChangeType
+     */
+    @Test
+    void testChangeDefinitionOfMappedType() {
+        @Language("java") String before = "package com.azure.core.util;";
+        before += "\n\npublic class Configuration {";
+        before += "\n}";
+
+        @Language("java") String after = "package io.clientcore.core.util.configuration;";
+        after += "\n\npublic class Configuration {";
+        after += "\n}";
+        rewriteRun(
+                java(before, after, spec -> spec.afterRecipe(cu -> assertThat(cu.getSourcePath())
+                        .isEqualTo(Paths.get("io/clientcore/core/util/configuration/Configuration.java"))))
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the definitions of the types of ignoredDefinitions are not changed
+     */
+    @Test
+    void testIgnoredDefinitionNotChanged() {
+        @Language("java") String before = "package com.azure.core.util;";
+        before += "\n\npublic class Configuration {";
+        before += "\n  com.azure.core.exception.HttpResponseException e = null;";
+        before += "\n}";
+        rewriteRun(
+                spec -> spec.recipe(new ChangeTypesRecipe(TYPE_MAPPINGS, PACKAGE_MAPPINGS,
+                        Collections.singletonList("com.azure.core.util.Configuration"))),
+                java(before)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that files without mapped types are not changed
+     */
+    @Test
+    void testNoChangeWithoutMappedTypes() {
+        @Language("java") String before = "import com.azure.core.util.Context;";
+        before += "\n\npublic class Testing {";
+        before += "\n  Context context = Context.NONE;";
+        before += "\n}";
+        rewriteRun(
+                java(before)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that type mappings take precedence over package mappings,
+     * and that nested types and subpackages follow their mapping
+     */
+    @Test
+    void testChangedTypeNameLookup() {
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.credential.KeyCredential"))
+                .isEqualTo("io.clientcore.core.credential.KeyCredential");
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.credential.AzureKeyCredential"))
+                .isEqualTo("io.clientcore.core.credential.AzureKeyCredential");
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.credential.sub.Token$Inner"))
+                .isEqualTo("io.clientcore.core.credential.sub.Token$Inner");
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.util.Configuration$Builder"))
+                .isEqualTo("io.clientcore.core.util.configuration.Configuration$Builder");
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.util.Context")).isNull();
+        assertThat(ChangeTypesRecipe.changedTypeName(TYPE_MAPPINGS, PACKAGE_MAPPINGS, "com.azure.core.credentials.Other")).isNull();
+    }
+}
@@ -11,7 +11,7 @@ public class ExceptionTypesTest implements RewriteTest {
     /**
      * ExceptionTypesTest tests exception migrations from azure-core v1
      * to azure-core-v2 and client-core.
-     * Recipes used: ChangeType
+     * Recipes used: ChangeTypesRecipe
      * From:
      * com.azure.core.exception
      *      ClientAuthenticationException
@@ -36,7 +36,7 @@ public class ExceptionTypesTest implements RewriteTest {
                 "com.azure.rewrite.java.core.MigrateAzureCoreSamplesToAzureCoreV2");
     }
 
-    /* Testing ChangeType recipes */
+    /* Testing ChangeTypesRecipe type mappings */
     @Test
     public void testClientAuthenticationExceptionChanged() {
         @Language("java") String before = "import com.azure.core.exception.ClientAuthenticationException;";
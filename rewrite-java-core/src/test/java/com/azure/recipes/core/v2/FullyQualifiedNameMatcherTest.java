@@ -0,0 +1,82 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.TypeTree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * FullyQualifiedNameMatcherTest is used to test that field accesses are matched by their
+ * attributed type, and by their identifiers when type attribution is not available.
+ */
+public class FullyQualifiedNameMatcherTest {
+
+    @Language("java")
+    private static final String SOURCE = "import com.azure.core.util.Context;\n" +
+            "public class Testing {\n" +
+            "  public Context testing() {\n" +
+            "    com.azure.core.http.rest.RequestOptions options = null;\n" +
+            "    return Context.NONE;\n" +
+            "  }\n" +
+            "}\n";
+
+    /**
+     * This test method is used to make sure that type-attributed field accesses are matched
+     */
+    @Test
+    void testMatchesAttributedType() {
+        List<J.FieldAccess> fieldAccesses = fieldAccesses(SOURCE);
+
+        assertThat(fieldAccesses).anyMatch(new FullyQualifiedNameMatcher("com.azure.core.util.Context")::matches);
+        assertThat(fieldAccesses).anyMatch(new FullyQualifiedNameMatcher("com.azure.core.http.rest.RequestOptions")::matches);
+        assertThat(fieldAccesses).noneMatch(new FullyQualifiedNameMatcher("com.azure.core.util.Configuration")::matches);
+        assertThat(fieldAccesses).noneMatch(new FullyQualifiedNameMatcher("core.util.Context")::matches);
+    }
+
+    /**
+     * This test method is used to make sure that references to static fields are matched by name
+     */
+    @Test
+    void testMatchesStaticField() {
+        List<J.FieldAccess> fieldAccesses = fieldAccesses(SOURCE);
+
+        assertThat(fieldAccesses).anyMatch(new FullyQualifiedNameMatcher("Context.NONE")::matches);
+        assertThat(fieldAccesses).noneMatch(new FullyQualifiedNameMatcher("Context.none")::matches);
+    }
+
+    /**
+     * This test method is used to make sure that field accesses without type attribution are matched by name
+     */
+    @Test
+    void testMatchesWithoutTypeAttribution() {
+        J.FieldAccess built = TypeTree.build(" io.clientcore.core.util.Context");
+
+        assertThat(new FullyQualifiedNameMatcher("io.clientcore.core.util.Context").matches(built)).isTrue();
+        assertThat(new FullyQualifiedNameMatcher("clientcore.core.util.Context").matches(built)).isFalse();
+        assertThat(new FullyQualifiedNameMatcher("io.clientcore.core.util.Contex").matches(built)).isFalse();
+        assertThat(new FullyQualifiedNameMatcher("xio.clientcore.core.util.Context").matches(built)).isFalse();
+    }
+
+    private static List<J.FieldAccess> fieldAccesses(String source) {
+        List<J.FieldAccess> fieldAccesses = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        JavaParser.fromJavaVersion().build().parse(ctx, source).forEach(sourceFile ->
+                new JavaIsoVisitor<List<J.FieldAccess>>() {
+                    @Override
+                    public J.FieldAccess visitFieldAccess(J.FieldAccess fieldAccess, List<J.FieldAccess> found) {
+                        found.add(fieldAccess);
+                        return super.visitFieldAccess(fieldAccess, found);
+                    }
+                }.visit(sourceFile, fieldAccesses));
+        return fieldAccesses;
+    }
+}
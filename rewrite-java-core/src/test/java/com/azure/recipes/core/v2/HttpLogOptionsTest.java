@@ -63,4 +63,110 @@ public class HttpLogOptionsTest implements RewriteTest {
         );
     }
 
+    /* Test to make sure HttpLogDetailLevel variables are qualified while strings and other names are not changed*/
+    @Test
+    public void testHttpLogDetailLevelVariableQualified() {
+        @Language("java") String before = "import com.azure.core.http.policy.HttpLogOptions;";
+        before += "\nimport com.azure.core.http.policy.HttpLogDetailLevel;";
+        before += "\npublic class Testing {";
+        before += "\n  String name = \"HttpLogDetailLevel\";";
+        before += "\n  public Testing(){";
+        before += "\n    HttpLogDetailLevel level = HttpLogDetailLevel.valueOf(name);";
+        before += "\n    HttpLogOptions h = new HttpLogOptions().setLogLevel(level);";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.HttpLogOptions;";
+        after += "\npublic class Testing {";
+        after += "\n  String name = \"HttpLogDetailLevel\";";
+        after += "\n  public Testing(){";
+        after += "\n    HttpLogOptions.HttpLogDetailLevel level = HttpLogOptions.HttpLogDetailLevel.valueOf(name);";
+        after += "\n    HttpLogOptions h = new HttpLogOptions().setLogLevel(level);";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /* Test to make sure HttpLogOptions is imported when only HttpLogDetailLevel was imported*/
+    @Test
+    public void testHttpLogOptionsImportAdded() {
+        @Language("java") String before = "import com.azure.core.http.policy.HttpLogDetailLevel;";
+        before += "\npublic class Testing {";
+        before += "\n  HttpLogDetailLevel level = HttpLogDetailLevel.BASIC;";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.HttpLogOptions;";
+        after += "\n\npublic class Testing {";
+        after += "\n  HttpLogOptions.HttpLogDetailLevel level = HttpLogOptions.HttpLogDetailLevel.BASIC;";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /* Test to make sure HttpLogDetailLevel is qualified when it is a return type*/
+    @Test
+    public void testHttpLogDetailLevelReturnTypeQualified() {
+        @Language("java") String before = "import com.azure.core.http.policy.HttpLogDetailLevel;";
+        before += "\npublic class Testing {";
+        before += "\n  public HttpLogDetailLevel level() {";
+        before += "\n    return null;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.HttpLogOptions;";
+        after += "\n\npublic class Testing {";
+        after += "\n  public HttpLogOptions.HttpLogDetailLevel level() {";
+        after += "\n    return null;";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /* Test to make sure HttpLogDetailLevel is qualified when it is a type argument*/
+    @Test
+    public void testHttpLogDetailLevelTypeArgumentQualified() {
+        @Language("java") String before = "import com.azure.core.http.policy.HttpLogDetailLevel;";
+        before += "\nimport java.util.ArrayList;";
+        before += "\nimport java.util.List;";
+        before += "\npublic class Testing {";
+        before += "\n  List<HttpLogDetailLevel> levels = new ArrayList<HttpLogDetailLevel>();";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.HttpLogOptions;";
+        after += "\n\nimport java.util.ArrayList;";
+        after += "\nimport java.util.List;";
+        after += "\npublic class Testing {";
+        after += "\n  List<HttpLogOptions.HttpLogDetailLevel> levels = new ArrayList<HttpLogOptions.HttpLogDetailLevel>();";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /* Test to make sure HttpLogDetailLevel is qualified when it is the type of a cast*/
+    @Test
+    public void testHttpLogDetailLevelCastQualified() {
+        @Language("java") String before = "import com.azure.core.http.policy.HttpLogDetailLevel;";
+        before += "\npublic class Testing {";
+        before += "\n  public Object level(Object value) {";
+        before += "\n    return (HttpLogDetailLevel) value;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.HttpLogOptions;";
+        after += "\n\npublic class Testing {";
+        after += "\n  public Object level(Object value) {";
+        after += "\n    return (HttpLogOptions.HttpLogDetailLevel) value;";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
 }
@@ -0,0 +1,163 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Recipe;
+import org.openrewrite.config.DataTableDescriptor;
+import org.openrewrite.config.Environment;
+import org.openrewrite.config.YamlResourceLoader;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.openrewrite.java.Assertions.java;
+
+/**
+ * InstrumentedRecipeTest is used to test that an instrumented recipe records one row per recipe
+ * and source file in the RecipeVisitStats data table without changing the result of the recipe.
+ */
+public class InstrumentedRecipeTest implements RewriteTest {
+
+    private static final String COMPOSITE = "com.azure.rewrite.java.core.MigrateAzureCoreSamplesToAzureCoreV2";
+
+    /**
+     * This method disables the serialization check, since an instrumented recipe wraps a recipe instance
+     * @param spec stores settings for testing environment; e.g. which recipes to use for testing
+     */
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.validateRecipeSerialization(false);
+    }
+
+    /**
+     * This test method is used to make sure that the edits of a recipe are counted in the file it changes only
+     */
+    @Test
+    void testRecordsVisitStats() {
+        @Language("java") String before = "import com.azure.core.http.rest.Response;\n";
+        before += "\npublic class Testing {";
+        before += "\n  Response<String> response;";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.Response;\n";
+        after += "\npublic class Testing {";
+        after += "\n  Response<String> response;";
+        after += "\n}";
+
+        @Language("java") String unchanged = "public class Plain {";
+        unchanged += "\n  String value;";
+        unchanged += "\n}";
+        rewriteRun(
+                spec -> spec.recipe(InstrumentedRecipe.instrument(new ResponseRecipe()))
+                        .dataTable(RecipeVisitStats.Row.class, rows -> {
+                            assertThat(rows).hasSize(2);
+                            assertThat(rows).allSatisfy(row -> {
+                                assertThat(row.getRecipe()).isEqualTo("com.azure.recipes.core.v2.ResponseRecipe");
+                                assertThat(row.getVisitedNodes()).isPositive();
+                            });
+                            assertThat(rows).filteredOn(row -> row.getSourcePath().equals("Testing.java"))
+                                    .singleElement()
+                                    .satisfies(row -> assertThat(row.getEdits()).isPositive());
+                            assertThat(rows).filteredOn(row -> row.getSourcePath().equals("Plain.java"))
+                                    .singleElement()
+                                    .satisfies(row -> assertThat(row.getEdits()).isZero());
+                        }),
+                java(before, after),
+                java(unchanged)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that every step of the declarative composite is instrumented
+     */
+    @Test
+    void testInstrumentsDeclarativeSteps() {
+        Environment environment = Environment.builder()
+                .load(new YamlResourceLoader(InstrumentedRecipeTest.class.getResourceAsStream("/META-INF/rewrite/rewrite.yml"),
+                        URI.create("rewrite.yml"), new Properties()))
+                .build();
+
+        @Language("java") String before = "import com.azure.core.util.Context;\n";
+        before += "\npublic class Testing {";
+        before += "\n  Context context = Context.NONE;";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.util.Context;\n";
+        after += "\npublic class Testing {";
+        after += "\n  Context context = Context.none();";
+        after += "\n}";
+        rewriteRun(
+                spec -> spec.recipe(InstrumentedRecipe.instrument(environment.activateRecipes(COMPOSITE)))
+                        .dataTable(RecipeVisitStats.Row.class, rows -> {
+                            assertThat(rows).extracting(RecipeVisitStats.Row::getRecipe)
+                                    .contains("com.azure.recipes.core.v2.MigrationRulesRecipe", "com.azure.recipes.core.v2.ChangeTypesRecipe")
+                                    .doesNotContain(COMPOSITE);
+                            assertThat(rows).filteredOn(row -> row.getRecipe().equals("com.azure.recipes.core.v2.MigrationRulesRecipe"))
+                                    .anySatisfy(row -> assertThat(row.getEdits()).isPositive());
+                        }),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the instrumented recipe list is built once, so that the
+     * recipes run are the ones returned by every later call
+     */
+    @Test
+    void testRecipeListBuiltOnce() {
+        Environment environment = Environment.builder()
+                .load(new YamlResourceLoader(InstrumentedRecipeTest.class.getResourceAsStream("/META-INF/rewrite/rewrite.yml"),
+                        URI.create("rewrite.yml"), new Properties()))
+                .build();
+        Recipe recipe = InstrumentedRecipe.instrument(environment.activateRecipes(COMPOSITE));
+
+        List<Recipe> recipeList = recipe.getRecipeList();
+        assertThat(recipeList).isNotEmpty();
+        assertThat(recipe.getRecipeList()).isSameAs(recipeList);
+        assertThat(recipeList.get(0).getRecipeList()).isSameAs(recipeList.get(0).getRecipeList());
+    }
+
+    /**
+     * This test method is used to make sure that the metadata and the validation of the wrapped recipe are
+     * returned by the instrumented recipe, along with its own data table
+     */
+    @Test
+    void testForwardsRecipeMetadata() {
+        Recipe tagged = new Recipe() {
+            @Override
+            public String getDisplayName() {
+                return "Tagged recipe";
+            }
+
+            @Override
+            public String getDescription() {
+                return "A recipe with tags and an estimated effort.";
+            }
+
+            @Override
+            public Set<String> getTags() {
+                return Collections.singleton("azure");
+            }
+
+            @Override
+            public Duration getEstimatedEffortPerOccurrence() {
+                return Duration.ofMinutes(2);
+            }
+        };
+        Recipe recipe = InstrumentedRecipe.instrument(tagged);
+
+        assertThat(recipe.getTags()).containsExactly("azure");
+        assertThat(recipe.getEstimatedEffortPerOccurrence()).isEqualTo(Duration.ofMinutes(2));
+        assertThat(recipe.getMaintainers()).isEqualTo(tagged.getMaintainers());
+        assertThat(recipe.getDataTableDescriptors()).extracting(DataTableDescriptor::getName)
+                .contains(RecipeVisitStats.class.getName());
+        assertThat(InstrumentedRecipe.instrument(new ChangeTypesRecipe(null, null)).validate().isInvalid()).isTrue();
+    }
+}
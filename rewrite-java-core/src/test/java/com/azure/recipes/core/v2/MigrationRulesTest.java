@@ -0,0 +1,291 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.Cursor;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.Recipe;
+import org.openrewrite.Result;
+import org.openrewrite.SourceFile;
+import org.openrewrite.TreeVisitor;
+import org.openrewrite.internal.InMemoryLargeSourceSet;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.marker.SearchResult;
+import org.openrewrite.test.RecipeSpec;
+import org.openrewrite.test.RewriteTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.openrewrite.java.Assertions.java;
+
+/**
+ * MigrationRulesTest is used to test out the recipe that applies several migration rules
+ * in a single traversal of each file.
+ */
+public class MigrationRulesTest implements RewriteTest {
+
+    /**
+     * This method sets which recipe should be used for testing
+     * @param spec stores settings for testing environment; e.g. which recipes to use for testing
+     */
+    @Override
+    public void defaults(RecipeSpec spec) {
+        spec.recipe(new MigrationRulesRecipe());
+    }
+
+    /**
+     * This test method is used to make sure that the rewrites of several rules are applied in the same pass
+     */
+    @Test
+    void testAppliesSeveralRulesInOnePass() {
+        @Language("java") String before = "import com.azure.core.http.rest.Response;";
+        before += "\nimport com.azure.core.util.Context;";
+        before += "\n\npublic class Testing {";
+        before += "\n  Response<String> response;";
+        before += "\n  Context context = Context.NONE;";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.Response;";
+        after += "\nimport io.clientcore.core.util.Context;";
+        after += "\n\npublic class Testing {";
+        after += "\n  Response<String> response;";
+        after += "\n  Context context = Context.none();";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that a rule still runs on its own through the recipe that declares it
+     */
+    @Test
+    void testRuleRunsOnItsOwn() {
+        @Language("java") String before = "import com.azure.core.http.rest.Response;";
+        before += "\nimport com.azure.core.util.Context;";
+        before += "\n\npublic class Testing {";
+        before += "\n  Response<String> response;";
+        before += "\n  Context context = Context.NONE;";
+        before += "\n}";
+
+        @Language("java") String after = "import io.clientcore.core.http.models.Response;";
+        after += "\nimport com.azure.core.util.Context;";
+        after += "\n\npublic class Testing {";
+        after += "\n  Response<String> response;";
+        after += "\n  Context context = Context.NONE;";
+        after += "\n}";
+        rewriteRun(
+                spec -> spec.recipe(new ResponseRecipe()),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that files matched by no rule precondition are not changed
+     */
+    @Test
+    void testNoChangeWithoutMatchingRules() {
+        @Language("java") String before = "public class Testing {";
+        before += "\n  String value;";
+        before += "\n}";
+        rewriteRun(
+                java(before)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that the recipe rewrites the fixtures of the rule tests like the
+     * recipes of its rules run one after the other
+     */
+    @Test
+    void testSameOutputAsSequentialRecipes() {
+        List<String> fixtures = new ArrayList<>();
+
+        @Language("java") String response = "import com.azure.core.http.rest.Response;\n";
+        response += "\npublic class Testing {";
+        response += "\n  public Testing(){";
+        response += "\n    Response<String> str = null;";
+        response += "\n  }";
+        response += "\n}";
+        fixtures.add(response);
+
+        @Language("java") String context = "import com.azure.core.util.Context;";
+        context += "\npublic class Testing {";
+        context += "\n  public Testing(){}";
+        context += "\n}";
+        fixtures.add(context);
+
+        @Language("java") String retryOptions = "import com.azure.core.http.policy.ExponentialDelayOptions;";
+        retryOptions += "\nimport com.azure.core.http.policy.FixedDelayOptions;";
+        retryOptions += "\nimport com.azure.core.http.policy.RetryOptions;";
+        retryOptions += "\nimport java.time.Duration;";
+        retryOptions += "\npublic class Testing {";
+        retryOptions += "\n  public void first(){";
+        retryOptions += "\n    FixedDelayOptions f = new FixedDelayOptions(3, Duration.ofMillis(50));";
+        retryOptions += "\n    RetryOptions r = new RetryOptions(f);";
+        retryOptions += "\n  }";
+        retryOptions += "\n  public void second(ExponentialDelayOptions f){";
+        retryOptions += "\n    RetryOptions r = new RetryOptions(f);";
+        retryOptions += "\n  }";
+        retryOptions += "\n}";
+        fixtures.add(retryOptions);
+
+        @Language("java") String typeReference = "";
+        typeReference += "\nimport java.lang.reflect.ParameterizedType;";
+        typeReference += "\nimport java.lang.reflect.Type;";
+        typeReference += "\nimport java.util.List;";
+        typeReference += "\nimport com.azure.core.util.serializer.TypeReference;";
+        typeReference += "\npublic class Testing {";
+        typeReference += "\n  private static final TypeReference<List<String>> TESTING_TYPE = new TypeReference<List<String>>() {\n  };";
+        typeReference += "\n}";
+        fixtures.add(typeReference);
+
+        @Language("java") String httpLogOptions = "import com.azure.core.http.policy.HttpLogOptions;";
+        httpLogOptions += "\nimport com.azure.core.http.policy.HttpLogDetailLevel;";
+        httpLogOptions += "\npublic class Testing {";
+        httpLogOptions += "\n  String name = \"HttpLogDetailLevel\";";
+        httpLogOptions += "\n  public Testing(){";
+        httpLogOptions += "\n    HttpLogDetailLevel level = HttpLogDetailLevel.valueOf(name);";
+        httpLogOptions += "\n    HttpLogOptions h = new HttpLogOptions().setLogLevel(level);";
+        httpLogOptions += "\n  }";
+        httpLogOptions += "\n}";
+        fixtures.add(httpLogOptions);
+
+        @Language("java") String severalRules = "import com.azure.core.http.rest.Response;";
+        severalRules += "\nimport com.azure.core.util.Context;";
+        severalRules += "\nimport com.azure.core.http.policy.HttpLogOptions;";
+        severalRules += "\nimport com.azure.core.http.policy.RetryOptions;";
+        severalRules += "\nimport com.azure.core.http.policy.FixedDelayOptions;";
+        severalRules += "\nimport java.time.Duration;";
+        severalRules += "\n\npublic class Testing {";
+        severalRules += "\n  Response<String> response;";
+        severalRules += "\n  Context context = Context.NONE;";
+        severalRules += "\n  HttpLogOptions logOptions = new HttpLogOptions();";
+        severalRules += "\n  RetryOptions r = new RetryOptions(new FixedDelayOptions(3, Duration.ofMillis(50)));";
+        severalRules += "\n}";
+        fixtures.add(severalRules);
+
+        Recipe sequential = new SequentialRulesRecipe();
+        Recipe fused = new MigrationRulesRecipe();
+        for (String fixture : fixtures) {
+            String sequentialOutput = run(sequential, fixture);
+            assertNotEquals(fixture, sequentialOutput);
+            assertEquals(sequentialOutput, run(fused, fixture));
+        }
+    }
+
+    /**
+     * This test method is used to make sure that a rule whose precondition only marks the file once an earlier
+     * rule rewrote it is still run, and that a rule is not run because of the rewrite of a later rule
+     */
+    @Test
+    void testPreconditionCheckedAgainstRewrittenFile() {
+        @Language("java") String before = "public class Testing {";
+        before += "\n  int first;";
+        before += "\n}";
+
+        @Language("java") String after = "public class Testing {";
+        after += "\n  int third;";
+        after += "\n}";
+
+        @Language("java") String reorderedAfter = "public class Testing {";
+        reorderedAfter += "\n  int second;";
+        reorderedAfter += "\n}";
+
+        List<Supplier<MigrationRule>> rules = Arrays.asList(
+                () -> new RenameRule("first", "second"),
+                () -> new RenameRule("second", "third"));
+        List<Supplier<MigrationRule>> reorderedRules = Arrays.asList(
+                () -> new RenameRule("second", "third"),
+                () -> new RenameRule("first", "second"));
+        rewriteRun(
+                spec -> spec.recipe(RewriteTest.toRecipe(() -> new MigrationRuleVisitor(rules))),
+                java(before, after)
+        );
+        rewriteRun(
+                spec -> spec.recipe(RewriteTest.toRecipe(() -> new MigrationRuleVisitor(reorderedRules))),
+                java(before, reorderedAfter)
+        );
+    }
+
+    /**
+     * Method to parse a source, run a recipe on it and print the result
+     */
+    private static String run(Recipe recipe, String source) {
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        List<SourceFile> sourceFiles = JavaParser.fromJavaVersion()
+                .classpath(JavaParser.runtimeClasspath())
+                .build()
+                .parse(ctx, source)
+                .collect(Collectors.toList());
+        List<Result> results = recipe.run(new InMemoryLargeSourceSet(sourceFiles), ctx).getChangeset().getAllResults();
+        return results.isEmpty() ? sourceFiles.get(0).printAll() : results.get(0).getAfter().printAll();
+    }
+
+    /**
+     * SequentialRulesRecipe runs the recipes of the rules of MigrationRulesRecipe one after the other,
+     * the way they were listed before they were merged into one traversal
+     */
+    private static final class SequentialRulesRecipe extends Recipe {
+
+        @Override
+        public String getDisplayName() {
+            return "Sequential migration rules";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Runs the recipes of the migration rules one after the other.";
+        }
+
+        @Override
+        public List<Recipe> getRecipeList() {
+            return Arrays.asList(
+                    new ResponseRecipe(),
+                    new ContextRecipe(),
+                    new RetryOptionsConstructorRecipe(),
+                    new TypeReferenceRecipe(),
+                    new HttpLogOptionsRecipe(),
+                    new RemoveFixedDelayRecipe());
+        }
+    }
+
+    /**
+     * RenameRule renames the identifiers with a name, and applies to files that have such an identifier
+     */
+    private static final class RenameRule extends MigrationRule {
+
+        private final String from;
+
+        private final String to;
+
+        RenameRule(String from, String to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public TreeVisitor<?, ExecutionContext> getPrecondition() {
+            return new JavaIsoVisitor<ExecutionContext>() {
+                @Override
+                public J.Identifier visitIdentifier(J.Identifier identifier, ExecutionContext ctx) {
+                    return from.equals(identifier.getSimpleName()) ? SearchResult.found(identifier) : identifier;
+                }
+            };
+        }
+
+        @Override
+        public J.Identifier visitIdentifier(J.Identifier identifier, Cursor cursor, ExecutionContext ctx) {
+            return from.equals(identifier.getSimpleName()) ? identifier.withSimpleName(to) : identifier;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * ParameterizedTypeSignatureTest is used to test that the type argument of a TypeReference is extracted
+ * at any depth, from the attributed type and from the type tree, and that unsupported types yield no signature.
+ */
+public class ParameterizedTypeSignatureTest {
+
+    @Language("java")
+    private static final String SOURCE = "import java.util.List;\n" +
+            "import java.util.Map;\n" +
+            "public class Testing<T> {\n" +
+            "  static class TypeReference<R> { }\n" +
+            "  Object simple = new TypeReference<String>() { };\n" +
+            "  Object map = new TypeReference<Map<String, Integer>>() { };\n" +
+            "  Object nested = new TypeReference<Map<String, List<int[]>>>() { };\n" +
+            "  Object variable = new TypeReference<List<T>>() { };\n" +
+            "}\n";
+
+    /**
+     * This test method is used to make sure that class types and parameterized types are extracted from the attributed type
+     */
+    @Test
+    void testExtractsSignature() {
+        List<J.NewClass> typeReferences = typeReferences(SOURCE);
+
+        ParameterizedTypeSignature simple = ParameterizedTypeSignature.fromTypeReference(typeReferences.get(0));
+        assertThat(simple.getRawType()).isEqualTo("String");
+        assertThat(simple.getTypeArguments()).isEmpty();
+        assertThat(simple.typeArgumentsExpression()).isEmpty();
+
+        ParameterizedTypeSignature map = ParameterizedTypeSignature.fromTypeReference(typeReferences.get(1));
+        assertThat(map.getRawType()).isEqualTo("Map");
+        assertThat(map.typeArgumentsExpression()).isEqualTo("String.class,Integer.class");
+    }
+
+    /**
+     * This test method is used to make sure that nested type arguments become nested ParameterizedTypes
+     */
+    @Test
+    void testExtractsNestedSignature() {
+        ParameterizedTypeSignature nested = ParameterizedTypeSignature.fromTypeReference(typeReferences(SOURCE).get(2));
+
+        assertThat(nested.getRawType()).isEqualTo("Map");
+        assertThat(nested.getTypeArguments()).hasSize(2);
+        assertThat(nested.getTypeArguments().get(1).getRawType()).isEqualTo("List");
+        assertThat(nested.getTypeArguments().get(1).getTypeArguments().get(0).getRawType()).isEqualTo("int[]");
+        assertThat(nested.typeArgumentsExpression()).isEqualTo("String.class,new ParameterizedType() {" +
+                " @Override public Type getRawType() { return List.class; }" +
+                " @Override public Type[] getActualTypeArguments() { return new Type[] { int[].class }; }" +
+                " @Override public Type getOwnerType() { return null; } }");
+    }
+
+    /**
+     * This test method is used to make sure that the type tree gives the same signature when types are not attributed
+     */
+    @Test
+    void testExtractsSignatureFromTypeTree() {
+        J.NewClass nested = typeReferences(SOURCE).get(2);
+        J.ParameterizedType clazz = (J.ParameterizedType) nested.getClazz();
+
+        ParameterizedTypeSignature fromTree = ParameterizedTypeSignature.fromTree(clazz.getTypeParameters().get(0));
+        assertThat(fromTree.typeArgumentsExpression())
+                .isEqualTo(ParameterizedTypeSignature.fromTypeReference(nested).typeArgumentsExpression());
+    }
+
+    /**
+     * This test method is used to make sure that type variables, which have no class literal, yield no signature
+     */
+    @Test
+    void testNoSignatureForTypeVariable() {
+        assertThat(ParameterizedTypeSignature.fromTypeReference(typeReferences(SOURCE).get(3))).isNull();
+    }
+
+    private static List<J.NewClass> typeReferences(String source) {
+        List<J.NewClass> newClasses = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        JavaParser.fromJavaVersion().build().parse(ctx, source).forEach(sourceFile ->
+                new JavaIsoVisitor<List<J.NewClass>>() {
+                    @Override
+                    public J.NewClass visitNewClass(J.NewClass newClass, List<J.NewClass> found) {
+                        found.add(newClass);
+                        return super.visitNewClass(newClass, found);
+                    }
+                }.visit(sourceFile, newClasses));
+        return newClasses;
+    }
+}
@@ -4,6 +4,7 @@ import org.intellij.lang.annotations.Language;
 import org.junit.jupiter.api.Test;
 import org.openrewrite.test.RecipeSpec;
 import org.openrewrite.test.RewriteTest;
+import org.openrewrite.test.TypeValidation;
 
 import static org.openrewrite.java.Assertions.java;
 
@@ -73,4 +74,126 @@ public class RetryOptionsConstructorTest implements RewriteTest {
                 java(before,after)
         );
     }
+
+    /**
+     * This test method is used to make sure that files which do not use the Azure SDK are not changed,
+     * even if they call a method named retryOptions
+     */
+    @Test
+    void testNoChangeWithoutAzureSdkTypes() {
+        @Language("java") String before = "package com.example;";
+        before += "\npublic class Testing {";
+        before += "\n  private Testing retryOptions(int retries) {";
+        before += "\n    return this;";
+        before += "\n  }";
+        before += "\n  public Testing configure() {";
+        before += "\n    return retryOptions(3);";
+        before += "\n  }";
+        before += "\n}";
+        rewriteRun(
+                java(before)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that retryOptions is renamed on a builder that is not attributed,
+     * e.g. because it is missing from the classpath, in a file that uses the Azure SDK
+     */
+    @Test
+    void testRetryOptionsRenamedOnUnattributedBuilder() {
+        @Language("java") String before = "package com.example;";
+        before += "\nimport com.azure.unknown.UnknownClientBuilder;";
+        before += "\npublic class Testing {";
+        before += "\n  public void configure(UnknownClientBuilder builder) {";
+        before += "\n    builder.retryOptions(null);";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "package com.example;";
+        after += "\nimport com.azure.unknown.UnknownClientBuilder;";
+        after += "\npublic class Testing {";
+        after += "\n  public void configure(UnknownClientBuilder builder) {";
+        after += "\n    builder.httpRetryOptions(null);";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                spec -> spec.recipe(new RetryOptionsConstructorRecipe())
+                        .typeValidationOptions(TypeValidation.none()),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that a delay options variable is only resolved in its own method,
+     * and that a parameter with the same name in another method is not replaced by its arguments
+     */
+    @Test
+    void testDelayOptionsVariableResolvedPerScope() {
+        @Language("java") String before = "import com.azure.core.http.policy.ExponentialDelayOptions;";
+        before += "\nimport com.azure.core.http.policy.FixedDelayOptions;";
+        before += "\nimport com.azure.core.http.policy.RetryOptions;";
+        before += "\nimport java.time.Duration;";
+        before += "\npublic class Testing {";
+        before += "\n  public void first(){";
+        before += "\n    FixedDelayOptions f = new FixedDelayOptions(3, Duration.ofMillis(50));";
+        before += "\n    RetryOptions r = new RetryOptions(f);";
+        before += "\n  }";
+        before += "\n  public void second(ExponentialDelayOptions f){";
+        before += "\n    RetryOptions r = new RetryOptions(f);";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import com.azure.core.http.policy.ExponentialDelayOptions;";
+        after += "\nimport io.clientcore.core.http.models.HttpRetryOptions;\n\nimport java.time.Duration;\n";
+        after += "\npublic class Testing {";
+        after += "\n  public void first(){";
+        after += "\n    HttpRetryOptions r = new HttpRetryOptions(3, Duration.ofMillis(50));";
+        after += "\n  }";
+        after += "\n  public void second(ExponentialDelayOptions f){";
+        after += "\n    HttpRetryOptions r = new HttpRetryOptions(f);";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that a parameter declared in a nested scope of a method shadows
+     * a delay options variable of the same name in the enclosing scope, and is not replaced by its arguments
+     */
+    @Test
+    void testDelayOptionsVariableShadowedInNestedScope() {
+        @Language("java") String before = "import com.azure.core.http.policy.ExponentialDelayOptions;";
+        before += "\nimport com.azure.core.http.policy.FixedDelayOptions;";
+        before += "\nimport com.azure.core.http.policy.RetryOptions;";
+        before += "\nimport java.time.Duration;";
+        before += "\npublic class Testing {";
+        before += "\n  public void first(){";
+        before += "\n    FixedDelayOptions f = new FixedDelayOptions(3, Duration.ofMillis(50));";
+        before += "\n    RetryOptions r = new RetryOptions(f);";
+        before += "\n    new Object() {";
+        before += "\n      void retry(ExponentialDelayOptions f) {";
+        before += "\n        RetryOptions inner = new RetryOptions(f);";
+        before += "\n      }";
+        before += "\n    };";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import com.azure.core.http.policy.ExponentialDelayOptions;";
+        after += "\nimport io.clientcore.core.http.models.HttpRetryOptions;\n\nimport java.time.Duration;\n";
+        after += "\npublic class Testing {";
+        after += "\n  public void first(){";
+        after += "\n    HttpRetryOptions r = new HttpRetryOptions(3, Duration.ofMillis(50));";
+        after += "\n    new Object() {";
+        after += "\n      void retry(ExponentialDelayOptions f) {";
+        after += "\n        HttpRetryOptions inner = new HttpRetryOptions(f);";
+        after += "\n      }";
+        after += "\n    };";
+        after += "\n  }";
+        after += "\n}";
+        rewriteRun(
+                java(before, after)
+        );
+    }
 }
@@ -146,4 +146,257 @@ public class TypeReferenceTest implements RewriteTest {
                 java(before,after)
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * This test method is used to make sure that with hoistToConstants, TypeReferences of the same generic type
+     * passed to methods are replaced by one static final constant of the class, and that the imports of
+     * ParameterizedType and Type are added
+     */
+    @Test
+    void testTypeReferenceHoistedToConstant() {
+        @Language("java") String before = "import com.azure.core.util.serializer.TypeReference;";
+        before += "\nimport java.util.List;";
+        before += "\nimport java.util.Map;";
+        before += "\npublic class Testing {";
+        before += "\n  public Object read() {";
+        before += "\n    return convert(new TypeReference<List<String>>() { });";
+        before += "\n  }";
+        before += "\n  public Object readAgain() {";
+        before += "\n    Object first = convert(new TypeReference<List<String>>() { });";
+        before += "\n    return convert(new TypeReference<Map<String, Integer>>() { });";
+        before += "\n  }";
+        before += "\n  private Object convert(Object type) {";
+        before += "\n    return type;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import java.lang.reflect.ParameterizedType;\n" +
+                "import java.util.List;\n" +
+                "import java.util.Map;\n" +
+                "import java.lang.reflect.Type;\n" +
+                "public class Testing {\n" +
+                "  private static final Type LIST_STRING_TYPE = new ParameterizedType() {\n" +
+                "      @Override\n" +
+                "      public Type getRawType() {\n" +
+                "          return List.class;\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type[] getActualTypeArguments() {\n" +
+                "          return new Type[]{String.class};\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type getOwnerType() {\n" +
+                "          return null;\n" +
+                "      }\n" +
+                "  };\n" +
+                "  private static final Type MAP_STRING_INTEGER_TYPE = new ParameterizedType() {\n" +
+                "      @Override\n" +
+                "      public Type getRawType() {\n" +
+                "          return Map.class;\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type[] getActualTypeArguments() {\n" +
+                "          return new Type[]{String.class, Integer.class};\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type getOwnerType() {\n" +
+                "          return null;\n" +
+                "      }\n" +
+                "  };\n" +
+                "  public Object read() {\n" +
+                "    return convert(LIST_STRING_TYPE);\n" +
+                "  }\n" +
+                "  public Object readAgain() {\n" +
+                "    Object first = convert(LIST_STRING_TYPE);\n" +
+                "    return convert(MAP_STRING_INTEGER_TYPE);\n" +
+                "  }\n" +
+                "  private Object convert(Object type) {\n" +
+                "    return type;\n" +
+                "  }\n" +
+                "}";
+
+        rewriteRun(
+                spec -> spec.recipe(new TypeReferenceRecipe(true, null)),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that with hoistToConstants, a TypeReference assigned to a local
+     * variable is replaced by the constant and the variable is declared as a Type
+     */
+    @Test
+    void testTypeReferenceLocalVariableHoistedToConstant() {
+        @Language("java") String before = "import com.azure.core.util.serializer.TypeReference;";
+        before += "\nimport java.util.List;";
+        before += "\npublic class Testing {";
+        before += "\n  public Object read() {";
+        before += "\n    TypeReference<List<String>> type = new TypeReference<List<String>>() { };";
+        before += "\n    return type;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import java.lang.reflect.ParameterizedType;\n" +
+                "import java.util.List;\n" +
+                "import java.lang.reflect.Type;\n" +
+                "public class Testing {\n" +
+                "  private static final Type LIST_STRING_TYPE = new ParameterizedType() {\n" +
+                "      @Override\n" +
+                "      public Type getRawType() {\n" +
+                "          return List.class;\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type[] getActualTypeArguments() {\n" +
+                "          return new Type[]{String.class};\n" +
+                "      }\n\n" +
+                "      @Override\n" +
+                "      public Type getOwnerType() {\n" +
+                "          return null;\n" +
+                "      }\n" +
+                "  };\n" +
+                "  public Object read() {\n" +
+                "    Type type = LIST_STRING_TYPE;\n" +
+                "    return type;\n" +
+                "  }\n" +
+                "}";
+
+        rewriteRun(
+                spec -> spec.recipe(new TypeReferenceRecipe(true, null)),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that with hoistToConstants, a TypeReference in an enum is converted
+     * in place, since a constant cannot be declared before the enum constants
+     */
+    @Test
+    void testTypeReferenceInEnumNotHoisted() {
+        @Language("java") String before = "import com.azure.core.util.serializer.TypeReference;";
+        before += "\nimport java.util.List;";
+        before += "\npublic enum Testing {";
+        before += "\n  FIRST, SECOND;";
+        before += "\n  public Object read() {";
+        before += "\n    TypeReference<List<String>> type = new TypeReference<List<String>>() {\n    };";
+        before += "\n    return type;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import java.lang.reflect.ParameterizedType;\n" +
+                "import java.util.List;\n" +
+                "import java.lang.reflect.Type;\n" +
+                "public enum Testing {\n" +
+                "  FIRST, SECOND;\n" +
+                "  public Object read() {\n" +
+                "    Type type = new ParameterizedType() {\n" +
+                "        @Override\n" +
+                "        public Type getRawType() {\n" +
+                "            return List.class;\n" +
+                "        }\n\n" +
+                "        @Override\n" +
+                "        public Type[] getActualTypeArguments() {\n" +
+                "            return new Type[]{String.class};\n" +
+                "        }\n\n" +
+                "        @Override\n" +
+                "        public Type getOwnerType() {\n" +
+                "            return null;\n" +
+                "        }\n" +
+                "    };\n" +
+                "    return type;\n" +
+                "  }\n" +
+                "}";
+
+        rewriteRun(
+                spec -> spec.recipe(new TypeReferenceRecipe(true, null)),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that with hoistToConstants, a TypeReference with a local class as a
+     * type argument is converted in place, since a constant of the class cannot name the local class
+     */
+    @Test
+    void testTypeReferenceWithLocalClassNotHoisted() {
+        @Language("java") String before = "import com.azure.core.util.serializer.TypeReference;";
+        before += "\nimport java.util.List;";
+        before += "\npublic class Testing {";
+        before += "\n  public Object read() {";
+        before += "\n    class Local {";
+        before += "\n    }";
+        before += "\n    TypeReference<List<Local>> type = new TypeReference<List<Local>>() {\n    };";
+        before += "\n    return type;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import java.lang.reflect.ParameterizedType;\n" +
+                "import java.util.List;\n" +
+                "import java.lang.reflect.Type;\n" +
+                "public class Testing {\n" +
+                "  public Object read() {\n" +
+                "    class Local {\n" +
+                "    }\n" +
+                "    Type type = new ParameterizedType() {\n" +
+                "        @Override\n" +
+                "        public Type getRawType() {\n" +
+                "            return List.class;\n" +
+                "        }\n\n" +
+                "        @Override\n" +
+                "        public Type[] getActualTypeArguments() {\n" +
+                "            return new Type[]{Local.class};\n" +
+                "        }\n\n" +
+                "        @Override\n" +
+                "        public Type getOwnerType() {\n" +
+                "            return null;\n" +
+                "        }\n" +
+                "    };\n" +
+                "    return type;\n" +
+                "  }\n" +
+                "}";
+
+        rewriteRun(
+                spec -> spec.recipe(new TypeReferenceRecipe(true, null)),
+                java(before, after)
+        );
+    }
+
+    /**
+     * This test method is used to make sure that with parameterizedTypeFactory, TypeReferences passed to methods
+     * and assigned to variables are replaced by calls to the runtime factory
+     */
+    @Test
+    void testTypeReferenceReplacedByFactoryCall() {
+        @Language("java") String before = "import com.azure.core.util.serializer.TypeReference;";
+        before += "\nimport java.util.List;";
+        before += "\nimport java.util.Map;";
+        before += "\npublic class Testing {";
+        before += "\n  private static final TypeReference<List<String>> LIST = new TypeReference<List<String>>() { };";
+        before += "\n  public Object read() {";
+        before += "\n    return convert(new TypeReference<Map<String, List<Integer>>>() { });";
+        before += "\n  }";
+        before += "\n  private Object convert(Object type) {";
+        before += "\n    return type;";
+        before += "\n  }";
+        before += "\n}";
+
+        @Language("java") String after = "import com.azure.recipes.core.v2.runtime.Types;\n\n" +
+                "import java.lang.reflect.ParameterizedType;\n" +
+                "import java.util.List;\n" +
+                "import java.util.Map;\n" +
+                "import java.lang.reflect.Type;\n" +
+                "public class Testing {\n" +
+                "  private static final Type LIST = Types.parameterized(List.class, String.class);\n" +
+                "  public Object read() {\n" +
+                "    return convert(Types.parameterized(Map.class, String.class, Types.parameterized(List.class, Integer.class)));\n" +
+                "  }\n" +
+                "  private Object convert(Object type) {\n" +
+                "    return type;\n" +
+                "  }\n" +
+                "}";
+
+        rewriteRun(
+                spec -> spec.recipe(new TypeReferenceRecipe(null, true)),
+                java(before, after)
+        );
+    }
+}
@@ -0,0 +1,117 @@
+package com.azure.recipes.core.v2;
+
+import org.intellij.lang.annotations.Language;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openrewrite.ExecutionContext;
+import org.openrewrite.InMemoryExecutionContext;
+import org.openrewrite.java.JavaIsoVisitor;
+import org.openrewrite.java.JavaParser;
+import org.openrewrite.java.tree.J;
+import org.openrewrite.java.tree.JavaType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TypeTableGeneratorTest is used to test that the type table of the bundled azure-core-v2 jar is smaller
+ * than the jar and resolves the same types.
+ */
+public class TypeTableGeneratorTest {
+
+    private static final Path JAR = Paths.get("src/main/typetable/core-1.0.0-beta.1.jar");
+
+    @Language("java")
+    private static final String SOURCE = "import io.clientcore.core.http.models.HttpLogOptions;\n" +
+            "import io.clientcore.core.util.Context;\n" +
+            "public class Testing {\n" +
+            "  Context context = Context.none();\n" +
+            "  HttpLogOptions options = new HttpLogOptions().setLogLevel(HttpLogOptions.HttpLogDetailLevel.BODY);\n" +
+            "}\n";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * This test method is used to make sure that the table is smaller than the jar and always the same
+     */
+    @Test
+    void testTableIsSmallerAndReproducible() throws IOException {
+        Path table = directory.resolve("table.jar");
+        Path again = directory.resolve("again.jar");
+
+        TypeTableGenerator.generate(JAR, table);
+        TypeTableGenerator.generate(JAR, again);
+
+        assertThat(Files.size(table)).isLessThan(Files.size(JAR));
+        assertThat(Files.readAllBytes(again)).isEqualTo(Files.readAllBytes(table));
+    }
+
+    /**
+     * This test method is used to make sure that methods and nested types are resolved from the table
+     */
+    @Test
+    void testTableResolvesTypes() throws IOException {
+        Path table = directory.resolve("table.jar");
+        TypeTableGenerator.generate(JAR, table);
+
+        List<J.MethodInvocation> invocations = methodInvocations(
+                JavaParser.fromJavaVersion().classpath(Collections.singletonList(table)));
+
+        assertThat(invocations).extracting(invocation -> invocation.getMethodType() == null ? null
+                        : invocation.getMethodType().getDeclaringType().getFullyQualifiedName())
+                .containsExactly("io.clientcore.core.util.Context", "io.clientcore.core.http.models.HttpLogOptions");
+        assertThat(invocations.get(1).getArguments().get(0).getType()).isInstanceOf(JavaType.Class.class);
+    }
+
+    /**
+     * This test method is used to make sure that the parameter names of the methods of the jar survive in the table
+     */
+    @Test
+    void testTableKeepsParameterNames() throws IOException {
+        Path table = directory.resolve("table.jar");
+        TypeTableGenerator.generate(JAR, table);
+
+        List<J.MethodInvocation> fromJar = methodInvocations(
+                JavaParser.fromJavaVersion().classpath(Collections.singletonList(JAR)));
+        List<J.MethodInvocation> fromTable = methodInvocations(
+                JavaParser.fromJavaVersion().classpath(Collections.singletonList(table)));
+
+        List<String> parameterNames = fromTable.get(1).getMethodType().getParameterNames();
+        assertThat(parameterNames).hasSize(1).doesNotContain("arg0");
+        assertThat(parameterNames).isEqualTo(fromJar.get(1).getMethodType().getParameterNames());
+    }
+
+    /**
+     * This test method is used to make sure that the type table packaged by the build is found by
+     * classpathFromResources
+     */
+    @Test
+    void testPackagedTableResolvesTypes() {
+        List<J.MethodInvocation> invocations = methodInvocations(JavaParser.fromJavaVersion()
+                .classpathFromResources(new InMemoryExecutionContext(), "core-1.0.0-beta.1"));
+
+        assertThat(invocations).allSatisfy(invocation -> assertThat(invocation.getMethodType()).isNotNull());
+    }
+
+    private static List<J.MethodInvocation> methodInvocations(JavaParser.Builder<? extends JavaParser, ?> parser) {
+        List<J.MethodInvocation> invocations = new ArrayList<>();
+        ExecutionContext ctx = new InMemoryExecutionContext(Throwable::printStackTrace);
+        parser.build().parse(ctx, SOURCE).forEach(sourceFile ->
+                new JavaIsoVisitor<List<J.MethodInvocation>>() {
+                    @Override
+                    public J.MethodInvocation visitMethodInvocation(J.MethodInvocation method, List<J.MethodInvocation> found) {
+                        found.add(method);
+                        return super.visitMethodInvocation(method, found);
+                    }
+                }.visit(sourceFile, invocations));
+        return invocations;
+    }
+}
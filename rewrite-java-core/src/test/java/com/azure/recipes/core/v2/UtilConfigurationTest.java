@@ -20,7 +20,7 @@ public class UtilConfigurationTest implements RewriteTest {
                 "com.azure.rewrite.java.core.MigrateAzureCoreSamplesToAzureCoreV2");
     }
 
-    /* Testing ChangeType recipe for changing import */
+    /* Testing ChangeTypesRecipe for changing import */
     @Test
     public void testConfigurationWithImport() {
         @Language("java") String before = "import com.azure.core.util.Configuration;";
@@ -41,7 +41,7 @@ public class UtilConfigurationTest implements RewriteTest {
         );
     }
 
-    /* Testing ChangeType recipe for changing type */
+    /* Testing ChangeTypesRecipe for changing type */
     @Test
     public void testConfigurationWithFullyQualifiedName() {
         @Language("java") String before = "public class Testing {";